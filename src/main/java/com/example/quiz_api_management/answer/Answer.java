@@ -7,7 +7,15 @@ import lombok.Data;
 import java.time.LocalDate;
 
 @Entity
-@Table (name = "answer")
+@Table (name = "answer", indexes = {
+        /*
+        Lookup of a value in a question. Values are unique per question ignoring case, which is enforced by the index
+        uq_answer_question_value on (question_id, lower(value)) of db/answer_values.sql: JPA cannot declare it.
+         */
+        @Index(name = "idx_answer_question_value", columnList = "question_id, value"),
+        // Lookup of one answer of a question (question_id, id)
+        @Index(name = "idx_answer_question_id", columnList = "question_id, id")
+})
 /*
  These annotations belong to lombok, which can generate setter and getter methods automatically
  Moreover, it reduces verbosity of the code and avoid repetition.
@@ -18,11 +26,14 @@ public class Answer {
     /*
       Annotation SequenceGenerator is provoked for defining primary keys.
       allocationSize is used for how many sequences in memory are allocated to the database
+      With 50, one call of nextval reserves 50 ids (pooled-lo optimizer, see application.properties),
+      so inserts do not need a round trip to the sequence each and Hibernate can batch them.
+      The increment of the sequence in database must be the same (see db/pooled_sequences.sql).
      */
     @SequenceGenerator(
             name = "answer_sequence",
             sequenceName = "answer_sequence",
-            allocationSize = 1
+            allocationSize = 50
     )
 
     /*
@@ -1,28 +1,40 @@
 package com.example.quiz_api_management.answer;
 
+import com.example.quiz_api_management.common.BatchResult;
+import com.example.quiz_api_management.common.RequiredFieldSignal;
 import com.example.quiz_api_management.common.ResponseReturn;
+import com.example.quiz_api_management.exception.NotValidParamsException;
 import com.example.quiz_api_management.exception.DuplicateException;
 import com.example.quiz_api_management.exception.NotFoundException;
 import com.example.quiz_api_management.question.Question;
+import com.example.quiz_api_management.util.ETagUtil;
 import com.example.quiz_api_management.util.RequestBodyError;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 @RestController()
 @RequestMapping(path = "/api/v1/")
 public class AnswerController {
+    // Largest number of items of a bulk create
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final AnswerService answerService;
+    private final Validator validator;
 
     @Autowired
-    public AnswerController(AnswerService answerService) {
+    public AnswerController(AnswerService answerService, Validator validator) {
         this.answerService = answerService;
+        this.validator = validator;
     }
 
 
@@ -33,7 +45,15 @@ public class AnswerController {
 
     @GetMapping("questions/{questionid}/answers")
     @ResponseBody
-    public ResponseEntity<ResponseReturn> getAnswersByQuestion(@PathVariable("questionid") int questionId) {
+    public ResponseEntity<ResponseReturn> getAnswersByQuestion(@PathVariable("questionid") int questionId,
+                                                               WebRequest webRequest) {
+        // Conditional GET, the ETag comes from the version of the question which is bumped whenever one of its answers changes
+        long version = answerService.getQuestionVersion(questionId)
+                .orElseThrow(() -> new NotFoundException("Question not found"));
+        String eTag = ETagUtil.of("question-answers", questionId, version);
+        if (webRequest.checkNotModified(eTag))
+            return ETagUtil.notModified(eTag);
+
         /*
             ofNullable() method in here is used to get an instance of this Optional class with Question Entity
             If the value is null, this method returns an empty instance.
@@ -47,26 +67,36 @@ public class AnswerController {
                 .orElseThrow(() -> new NotFoundException("Question not found")));
 
         List<AnswerDTO> answersDTO = answerService.getAnswersByQuestion(question);
-        return new ResponseEntity<>(
-                new ResponseReturn(LocalDateTime.now(),
-                        "List of answers is returned.",
-                        HttpStatus.OK.value(),
-                        true,
-                        answersDTO), HttpStatus.OK);
+        return ETagUtil.ok(eTag, "List of answers is returned.", answersDTO);
     }
 
 
+    /*
+    A student who sends the same seed sees the answers in the same order on reload, a random seed is drawn otherwise.
+    page and size (1..100) return a part of the shuffle, all the answers are returned when size is not given.
+     */
     @GetMapping("questions/{questionid}/answers/shuffle")
-    public ResponseEntity<ResponseReturn> shuffleAnswers(@PathVariable("questionid") int questionId) {
-        Optional<Question> question = Optional.ofNullable(answerService.getQuestionById(questionId)
-                .orElseThrow(() -> new NotFoundException("Question not found")));
-
+    public ResponseEntity<ResponseReturn> shuffleAnswers(@PathVariable("questionid") int questionId,
+                                                         @RequestParam(value = "seed", required = false) Long seed,
+                                                         @RequestParam(value = "page", defaultValue = "1") int page,
+                                                         @RequestParam(value = "size", required = false) Integer size) {
+        int maxSize = 100;
+        if (page < 1)
+            throw new NotValidParamsException("Page should be at least 1.");
+        if (size != null && (size < 1 || size > maxSize))
+            throw new NotValidParamsException("Size should be between 1 and " + maxSize + ".");
+
+        // Only the version column is read to check that the question exists
+        answerService.getQuestionVersion(questionId)
+                .orElseThrow(() -> new NotFoundException("Question not found"));
+
+        long shuffleSeed = (seed != null) ? seed : ThreadLocalRandom.current().nextLong();
         return new ResponseEntity<>(
                 new ResponseReturn(LocalDateTime.now(),
                         "Answers are shuffled.",
                         HttpStatus.OK.value(),
                         true,
-                        answerService.shuffleAnswers(question)), HttpStatus.OK);
+                        answerService.shuffleAnswers(questionId, shuffleSeed, page, size)), HttpStatus.OK);
     }
 
     @GetMapping("/answers/{answerid}")
@@ -111,7 +141,7 @@ public class AnswerController {
         }
 
         // Check any answer's value is similar to the value of RequestBody
-        if (answerService.notExistAnswer(question, reqBody).isPresent()) {
+        if (answerService.existAnswer(questionId, reqBody.getValue())) {
             throw new DuplicateException("Duplicate value found.");
         }
 
@@ -127,17 +157,44 @@ public class AnswerController {
     /*
     400 - Bad Request status code indicates that the server cannot proceed.
      */
+    /*
+    Bulk create of answers, the body is a list of answers. The whole list is validated first,
+    then every item gets its result (created with its id, or duplicate) in the order of the list.
+     */
+    @PostMapping("questions/{questionid}/answers:batch")
+    public ResponseEntity<ResponseReturn> addAnswers(@PathVariable("questionid") int questionId,
+                                                     @RequestBody List<AnswerDTO> reqBody) {
+        Question question = answerService.getQuestionById(questionId)
+                .orElseThrow(() -> new NotFoundException("Question not found"));
+
+        if (reqBody.isEmpty() || reqBody.size() > MAX_BATCH_SIZE)
+            throw new NotValidParamsException("Number of answers should be between 1 and " + MAX_BATCH_SIZE + ".");
+
+        List<RequiredFieldSignal> requiredFieldSignals = RequestBodyError.validateItems(validator, reqBody);
+        if (!requiredFieldSignals.isEmpty())
+            return RequestBodyError.returnRequiredFields(requiredFieldSignals);
+
+        BatchResult result = answerService.createAnswers(question, reqBody);
+        HttpStatus status = result.getCreated() > 0 ? HttpStatus.CREATED : HttpStatus.OK;
+        return new ResponseEntity<>(
+                new ResponseReturn(LocalDateTime.now(),
+                        result.getCreated() + " answer(s) are added, " + result.getRejected() + " rejected.",
+                        status.value(),
+                        true,
+                        result), status);
+    }
+
     @PutMapping("questions/{questionid}/answers/{answerid}")
     public ResponseEntity<ResponseReturn> updateAnswer(@PathVariable("questionid") int questionId,
                                                        @PathVariable("answerid") int answerId,
                                                        @Valid @RequestBody AnswerDTO reqBody,
                                                        BindingResult bindingResult) {
-        // Check question is not found
-        Optional<Question> question = Optional.ofNullable(answerService.getQuestionById(questionId).orElseThrow(()
-                -> new NotFoundException("Question not found")));
+        // Check question is not found, on its version only
+        answerService.getQuestionVersion(questionId).orElseThrow(()
+                -> new NotFoundException("Question not found"));
 
-        // Check answer is not found
-        answerService.getAnswer(question, answerId).orElseThrow(()
+        // Check answer is not found or belongs to another question
+        AnswerDTO currentAnswer = answerService.getAnswer(questionId, answerId).orElseThrow(()
                 -> new NotFoundException("Answer not found"));
 
         // Check the RequestBody is not valid
@@ -145,7 +202,7 @@ public class AnswerController {
             return RequestBodyError.returnRequiredFields(bindingResult);
         }
 
-        AnswerDTO returnAnswer = answerService.updateAnswer(answerId, reqBody);
+        AnswerDTO returnAnswer = answerService.updateAnswer(currentAnswer, reqBody);
 
         return new ResponseEntity<>(
                 new ResponseReturn(LocalDateTime.now(),
@@ -162,13 +219,14 @@ public class AnswerController {
     public ResponseEntity<ResponseReturn> deleteAnswer(@PathVariable("questionid") int questionId,
                                    @PathVariable("answerid") int answerId){
 
-        Optional<Question> question = Optional.ofNullable(answerService.getQuestionById(questionId).orElseThrow(()
-                -> new NotFoundException("Question not found")));
+        // Existence of the question is checked on its version only, the question is not loaded
+        answerService.getQuestionVersion(questionId).orElseThrow(()
+                -> new NotFoundException("Question not found"));
 
-        answerService.getAnswer(question, answerId).orElseThrow(()
+        AnswerDTO currentAnswer = answerService.getAnswer(questionId, answerId).orElseThrow(()
                 -> new NotFoundException("Answer not found"));
 
-        answerService.deleteAnswer(answerId);
+        answerService.deleteAnswer(currentAnswer);
         return new ResponseEntity<>(
                 new ResponseReturn(LocalDateTime.now(),
                         "",
@@ -17,7 +17,7 @@ public class AnswerDTOMapper implements Function<Answer, AnswerDTO> {
                 answer.isCorrect(),
                 answer.isRemoved(),
                 answer.getCreatedAt(),
-                answer.getCreatedAt(),
+                answer.getUpdatedAt(),
                 answer.getQuestion().getId());
     }
 }
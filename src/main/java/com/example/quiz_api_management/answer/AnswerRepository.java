@@ -1,9 +1,14 @@
 package com.example.quiz_api_management.answer;
 
 import com.example.quiz_api_management.question.Question;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,4 +38,58 @@ public interface AnswerRepository extends CrudRepository<Answer, Integer> {
 
     Optional<Answer> findByValue(String answerValue);
 
+    /*
+    Ids of the answers of a question, cached by AnswerService which shuffles them only up to the requested page
+    and reads the answers of that page (findDTOsByIds).
+    Ordered so that the same seed always gives the same shuffle of the same answers.
+     */
+    @Query(value = "SELECT answer.id FROM Answer answer WHERE answer.question.id = :questionId ORDER BY answer.id")
+    List<Integer> findIdsByQuestionId(@Param("questionId") int questionId);
+
+    // Answers of a page of a shuffle read as DTOs in one statement, no entity is loaded (isRemoved is not stored)
+    @Query(value = "SELECT new com.example.quiz_api_management.answer.AnswerDTO(answer.id, answer.value, answer.isCorrect, " +
+            "false, answer.createdAt, answer.updatedAt, answer.question.id) FROM Answer answer WHERE answer.id IN :ids")
+    List<AnswerDTO> findDTOsByIds(@Param("ids") Collection<Integer> ids);
+
+    /*
+    Answers of several questions in one statement instead of one query per question.
+    Questions are expected to be loaded already in the same persistence context, so their references are not queried again.
+     */
+    @Query(value = "SELECT answer FROM Answer answer WHERE answer.question.id IN :questionIds " +
+            "ORDER BY answer.question.id, answer.id")
+    List<Answer> findByQuestionIds(@Param("questionIds") Collection<Integer> questionIds);
+
+    /*
+    Keyed lookup of one answer of a question on the index (question_id, id), read as a DTO.
+    Empty when the answer does not exist or belongs to another question, the answers of the question are not loaded.
+     */
+    @Query(value = "SELECT new com.example.quiz_api_management.answer.AnswerDTO(answer.id, answer.value, answer.isCorrect, " +
+            "false, answer.createdAt, answer.updatedAt, answer.question.id) FROM Answer answer " +
+            "WHERE answer.question.id = :questionId AND answer.id = :answerId")
+    Optional<AnswerDTO> findDTOByQuestionIdAndId(@Param("questionId") int questionId, @Param("answerId") int answerId);
+
+    // Delete of an answer already found by the controller in one statement, it is not loaded again to be removed
+    @Modifying
+    @Query(value = "DELETE FROM Answer answer WHERE answer.id = :answerId")
+    int deleteAnswerById(@Param("answerId") int answerId);
+
+    @Modifying
+    @Query(value = "UPDATE Answer answer SET answer.value = :value, answer.isCorrect = :isCorrect, " +
+            "answer.updatedAt = :updatedAt WHERE answer.id = :answerId")
+    int updateValueAndCorrect(@Param("answerId") int answerId, @Param("value") String value,
+                              @Param("isCorrect") boolean isCorrect, @Param("updatedAt") LocalDate updatedAt);
+
+    // Values only (lower-cased like the filter), to build the duplicate filter of a question without loading its answers
+    @Query(value = "SELECT LOWER(answer.value) FROM Answer answer WHERE answer.question.id = :questionId")
+    List<String> findValuesByQuestionId(@Param("questionId") int questionId);
+
+    // Lower-cased values of the list which are already taken in the question, duplicate check of a bulk create in one query
+    @Query(value = "SELECT LOWER(answer.value) FROM Answer answer WHERE answer.question.id = :questionId " +
+            "AND LOWER(answer.value) IN :values")
+    List<String> findExistingValues(@Param("questionId") int questionId, @Param("values") Collection<String> values);
+
+    // Existence probe on the unique index (question_id, lower(value)), see db/answer_values.sql
+    @Query(value = "SELECT COUNT(answer) > 0 FROM Answer answer WHERE answer.question.id = :questionId " +
+            "AND LOWER(answer.value) = LOWER(:value)")
+    boolean existsByQuestionIdAndValue(@Param("questionId") int questionId, @Param("value") String value);
 }
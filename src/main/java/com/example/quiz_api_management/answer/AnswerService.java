@@ -1,7 +1,14 @@
 package com.example.quiz_api_management.answer;
 
+import com.example.quiz_api_management.attempt.AnswerKeyRegistry;
+import com.example.quiz_api_management.cache.ContentCache;
+import com.example.quiz_api_management.common.BatchItemResult;
+import com.example.quiz_api_management.common.BatchResult;
+import com.example.quiz_api_management.exception.NotFoundException;
 import com.example.quiz_api_management.question.Question;
 import com.example.quiz_api_management.question.QuestionRepository;
+import com.example.quiz_api_management.search.SearchIndexService;
+import com.example.quiz_api_management.util.PartialShuffle;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,11 +25,18 @@ public class AnswerService {
      */
     private final QuestionRepository questionRepository;
     private final AnswerDTOMapper answerDTOMapper;
+    private final ContentCache contentCache;
+    private final SearchIndexService searchIndexService;
+    private final AnswerKeyRegistry answerKeyRegistry;
     @Autowired
-    public AnswerService(AnswerRepository answerRepository, AnswerDTOMapper answerDTOMapper, QuestionRepository questionRepository){
+    public AnswerService(AnswerRepository answerRepository, AnswerDTOMapper answerDTOMapper, QuestionRepository questionRepository,
+                         ContentCache contentCache, SearchIndexService searchIndexService, AnswerKeyRegistry answerKeyRegistry){
         this.questionRepository = questionRepository;
         this.answerRepository = answerRepository;
         this.answerDTOMapper = answerDTOMapper;
+        this.contentCache = contentCache;
+        this.searchIndexService = searchIndexService;
+        this.answerKeyRegistry = answerKeyRegistry;
     }
 
     /*
@@ -34,6 +48,11 @@ public class AnswerService {
         return questionRepository.findById(questionId);
     }
 
+    // Version of a question covers its list of answers
+    public Optional<Long> getQuestionVersion(int questionId){
+        return questionRepository.findVersionById(questionId);
+    }
+
     public List<AnswerDTO> getAnswersByQuestion(Optional<Question> question) {
         return answerRepository.findAnswersByQuestion(question)
                 .stream()
@@ -42,65 +61,150 @@ public class AnswerService {
     }
 
     /*
-    We should shuffle list of model Answer instead of list of answerDTO, due to answerDTO will also have questionId,
-    and it will be immutable (cause is maybe having 2 integers to order). It does not shuffle if the collection is immutable
+    Shuffle of the answers of a question with a seed, so the same seed gives the same order on every request.
+    The ids of the answers are cached per question and only the positions up to the requested page are shuffled
+    (PartialShuffle), then the answers of the page are read as DTOs. size is null for all the answers in one page.
      */
-    public List<AnswerDTO> shuffleAnswers(Optional<Question> question) {
-        List<Answer> answers = answerRepository.findAnswersByQuestion(question);
-        Collections.shuffle(answers);
-        return answers.stream().map(answerDTOMapper).toList();
+    public List<AnswerDTO> shuffleAnswers(int questionId, long seed, int page, Integer size) {
+        int[] ids = getAnswerIds(questionId);
+        int pageSize = (size != null) ? size : ids.length;
+        long from = (long) (page - 1) * pageSize;
+        if (from >= ids.length)
+            return List.of();
+
+        int[] shuffled = PartialShuffle.first(ids, (int) Math.min(ids.length, from + pageSize), new Random(seed));
+        List<Integer> pageIds = Arrays.stream(shuffled, (int) from, shuffled.length).boxed().toList();
+        Map<Integer, AnswerDTO> answers = new HashMap<>();
+        answerRepository.findDTOsByIds(pageIds).forEach(answer -> answers.put(answer.getId(), answer));
+        // An answer deleted since its ids were cached is skipped
+        return pageIds.stream().map(answers::get).filter(Objects::nonNull).toList();
     }
 
+    // Sorted ids of the answers of a question, cached until an answer of the question is created or deleted
+    public int[] getAnswerIds(int questionId) {
+        return contentCache.answerIds().get(questionId, id -> Optional.of(
+                answerRepository.findIdsByQuestionId(id).stream().mapToInt(Integer::intValue).toArray())).get();
+    }
+
+    // Read through the cache, entries are evicted by updateAnswer and deleteAnswer
     public Optional<AnswerDTO> getSingleAnswer(int answerId) {
-        return answerRepository.findById(answerId).map(answerDTOMapper);
+        return contentCache.answers().get(answerId, id -> answerRepository.findById(id).map(answerDTOMapper));
     }
 
 
-    public Optional<AnswerDTO> getAnswer(Optional<Question> question, int answerId){
-        Optional<Answer> checkAnswer =  answerRepository.findAnswersByQuestion(question)
-                .stream()
-                .filter(answer -> (answerId == answer.getId())) // Find if that answer.Id == params.answerId
-                .findAny();
-        return (checkAnswer.isPresent()) ? Optional.of(checkAnswer.map(answerDTOMapper).get()) : Optional.empty();
+    /*
+    One answer of a question, used by the controller to check that the answer belongs to the question before an update or a delete.
+    A cached answer is checked against the question id, otherwise it is read by the keyed lookup (question_id, id).
+     */
+    public Optional<AnswerDTO> getAnswer(int questionId, int answerId){
+        return contentCache.answers()
+                .get(answerId, id -> answerRepository.findDTOByQuestionIdAndId(questionId, id))
+                .filter(answer -> answer.getQuestionId() == questionId);
     }
 
+    // Every change of an answer bumps the version of its question in the same transaction
+    @Transactional
     public AnswerDTO createAnswer(Optional<Question> paramQuestion, AnswerDTO reqBody) {
         Question question = paramQuestion.get();
-        Answer addedAnswer = new Answer(reqBody.getValue(), reqBody.isCorrect(), question);
-        answerRepository.save(addedAnswer);
-        List<Answer> answers = answerRepository.findAnswersByQuestion(Optional.of(question)).stream().toList();
-        return answers.stream()
-                .filter(answer -> (Objects.equals(answer.getValue(), reqBody.getValue())))
-                .findAny()
-                .map(answerDTOMapper).get();
+        // The saved entity already holds its id, the siblings are not read back to find it
+        Answer addedAnswer = answerRepository.save(new Answer(reqBody.getValue(), reqBody.isCorrect(), question));
+        questionRepository.incrementVersion(question.getId());
+        contentCache.addAnswerValue(question.getId(), addedAnswer.getValue());
+        contentCache.evictAnswerIds(question.getId());
+        answerKeyRegistry.invalidateQuestion(question.getId());
+        AnswerDTO createdAnswer = answerDTOMapper.apply(addedAnswer);
+        searchIndexService.indexAnswer(createdAnswer);
+        return createdAnswer;
     }
 
 
-    public Optional<Answer> notExistAnswer(Optional<Question> paramQuestion, AnswerDTO reqBody){
-        List<Answer> answers = answerRepository.findAnswersByQuestion(paramQuestion);
-        return answers
-                .stream()
-                .filter(answer -> (Objects.equals(reqBody.getValue(), answer.getValue())))
-                .findAny();
+    /*
+    Bulk create in one transaction, like QuestionService.createQuestions: duplicates are found with one query
+    and reported per item, the other answers are inserted in JDBC batches and the question version is bumped once.
+     */
+    @Transactional
+    public BatchResult createAnswers(Question question, List<AnswerDTO> reqBody) {
+        Set<String> values = new HashSet<>();
+        reqBody.forEach(answer -> values.add(ContentCache.answerValueKey(answer.getValue())));
+        Set<String> existingValues = new HashSet<>(answerRepository.findExistingValues(question.getId(), values));
+
+        BatchItemResult[] items = new BatchItemResult[reqBody.size()];
+        Map<Integer, Answer> addedAnswers = new LinkedHashMap<>();
+        Set<String> requestValues = new HashSet<>();
+        for (int index = 0; index < reqBody.size(); index++) {
+            AnswerDTO answer = reqBody.get(index);
+            String valueKey = ContentCache.answerValueKey(answer.getValue());
+            if (existingValues.contains(valueKey))
+                items[index] = BatchItemResult.duplicate(index, "Duplicate value found.");
+            else if (!requestValues.add(valueKey))
+                items[index] = BatchItemResult.duplicate(index, "Duplicate value in the request.");
+            else
+                addedAnswers.put(index, new Answer(answer.getValue(), answer.isCorrect(), question));
+        }
+
+        if (!addedAnswers.isEmpty()) {
+            answerRepository.saveAll(addedAnswers.values());
+            questionRepository.incrementVersion(question.getId());
+            contentCache.evictAnswerIds(question.getId());
+            answerKeyRegistry.invalidateQuestion(question.getId());
+            addedAnswers.forEach((index, answer) -> {
+                items[index] = BatchItemResult.created(index, answer.getId());
+                contentCache.addAnswerValue(question.getId(), answer.getValue());
+                searchIndexService.indexAnswer(answerDTOMapper.apply(answer));
+            });
+        }
+        return new BatchResult(Arrays.asList(items));
+    }
+
+    /*
+    Duplicate check of a value among the answers of a question, ignoring case, without loading them.
+    The filter of the question answers most new values alone, a possible duplicate is confirmed by an indexed probe.
+     */
+    public boolean existAnswer(int questionId, String value){
+        return contentCache.answerValues().exists(questionId, ContentCache.answerValueKey(value),
+                answerRepository::findValuesByQuestionId,
+                answerRepository::existsByQuestionIdAndValue);
     }
 
     /*
     Annotation @Transactional provokes the rollback if an exception occurs.
+    The answer found by the controller is not loaded again: one UPDATE for the answer and one for the version
+    of its question. An answer deleted since it was found is not updated, and not found.
      */
     @Transactional
-    public AnswerDTO updateAnswer(int answerId, AnswerDTO reqBody) {
-        Optional<Answer> optionalAnswer = answerRepository.findById(answerId);
-        Answer answer = optionalAnswer.get();
-        answer.setValue(reqBody.getValue());
-        answer.setCorrect(reqBody.isCorrect());
-        answer.setUpdatedAt(LocalDate.now());
-        answerRepository.save(answer);
-        Optional<Answer> newAnswer = answerRepository.findById(answerId);
-        return newAnswer.isPresent() ? newAnswer.map(answerDTOMapper).get() : null;
+    public AnswerDTO updateAnswer(AnswerDTO currentAnswer, AnswerDTO reqBody) {
+        int answerId = currentAnswer.getId();
+        int questionId = currentAnswer.getQuestionId();
+        LocalDate updatedAt = LocalDate.now();
+        if (answerRepository.updateValueAndCorrect(answerId, reqBody.getValue(), reqBody.isCorrect(), updatedAt) == 0)
+            throw new NotFoundException("Answer not found");
+        questionRepository.incrementVersion(questionId);
+        contentCache.evictAnswer(answerId);
+        contentCache.addAnswerValue(questionId, reqBody.getValue());
+        // Whatever the cached answer says, the key is compiled again from the committed answers
+        answerKeyRegistry.invalidateQuestion(questionId);
+        AnswerDTO updatedAnswer = new AnswerDTO(
+                answerId,
+                reqBody.getValue(),
+                reqBody.isCorrect(),
+                currentAnswer.isRemoved(),
+                currentAnswer.getCreatedAt(),
+                updatedAt,
+                questionId);
+        searchIndexService.indexAnswer(updatedAnswer);
+        return updatedAnswer;
     }
 
 
-    public void deleteAnswer(int answerId) {
-        answerRepository.deleteById(answerId);
+    // The answer has been found by the controller, it is deleted with one statement instead of being loaded again
+    @Transactional
+    public void deleteAnswer(AnswerDTO currentAnswer) {
+        int questionId = currentAnswer.getQuestionId();
+        answerRepository.deleteAnswerById(currentAnswer.getId());
+        questionRepository.incrementVersion(questionId);
+        contentCache.evictAnswer(currentAnswer.getId());
+        contentCache.evictAnswerIds(questionId);
+        answerKeyRegistry.invalidateQuestion(questionId);
+        searchIndexService.removeAnswer(currentAnswer.getId());
     }
 }
@@ -0,0 +1,140 @@
+package com.example.quiz_api_management.attempt;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/*
+Immutable answer key of a quiz, compiled once from the ids of its answers.
+
+Questions are kept in a sorted int array. The ids of all the answers of question i, sorted, are
+answerIds[answerOffsets[i] .. answerOffsets[i + 1]) and its correct ids, sorted, are
+correctIds[correctOffsets[i] .. correctOffsets[i + 1]), so the key takes one int per answer whatever the ids.
+A question is answered correctly when the chosen ids are exactly its correct ids: every chosen id is found
+by binary search among the correct ids and the distinct chosen ids are as many as the correct ids.
+Grading only reads primitive arrays and allocates nothing, a listener is only told about answers
+which belong to the question.
+ */
+public final class AnswerKey {
+    private final int quizId;
+    private final int[] questionIds;
+    private final int[] correctOffsets;
+    private final int[] correctIds;
+    private final int[] answerOffsets;
+    private final int[] answerIds;
+
+    private AnswerKey(int quizId, int[] questionIds, int[] correctOffsets, int[] correctIds,
+                      int[] answerOffsets, int[] answerIds) {
+        this.quizId = quizId;
+        this.questionIds = questionIds;
+        this.correctOffsets = correctOffsets;
+        this.correctIds = correctIds;
+        this.answerOffsets = answerOffsets;
+        this.answerIds = answerIds;
+    }
+
+    // questionIds are sorted, answers are ordered by question id then answer id
+    public static AnswerKey compile(int quizId, List<Integer> questionIds, List<KeyAnswer> answers) {
+        int questionCount = questionIds.size();
+        int[] ids = new int[questionCount];
+        int[] correctOffsets = new int[questionCount + 1];
+        int[] correctIds = new int[answers.size()];
+        int[] answerOffsets = new int[questionCount + 1];
+        int[] answerIds = new int[answers.size()];
+        int next = 0;
+
+        for (int i = 0; i < questionCount; i++) {
+            ids[i] = questionIds.get(i);
+            // Answers of the question, skipping rows of questions which are not listed
+            while (next < answers.size() && answers.get(next).questionId() < ids[i])
+                next++;
+            int answerCount = answerOffsets[i];
+            int correctCount = correctOffsets[i];
+            while (next < answers.size() && answers.get(next).questionId() == ids[i]) {
+                KeyAnswer answer = answers.get(next);
+                answerIds[answerCount++] = answer.answerId();
+                if (answer.correct())
+                    correctIds[correctCount++] = answer.answerId();
+                next++;
+            }
+            answerOffsets[i + 1] = answerCount;
+            correctOffsets[i + 1] = correctCount;
+        }
+        return new AnswerKey(quizId, ids, correctOffsets, Arrays.copyOf(correctIds, correctOffsets[questionCount]),
+                answerOffsets, Arrays.copyOf(answerIds, answerOffsets[questionCount]));
+    }
+
+    public int grade(Map<Integer, int[]> answers) {
+        return grade(answers, null);
+    }
+
+    /*
+    Number of questions answered correctly. answers maps a question id to the chosen answer ids,
+    questions which are not in the quiz are ignored and a missing question counts as wrong.
+    The listener, if any, is told about every graded question and its chosen answers.
+     */
+    public int grade(Map<Integer, int[]> answers, GradingListener listener) {
+        int correct = 0;
+        for (Map.Entry<Integer, int[]> answer : answers.entrySet()) {
+            if (answer.getKey() == null)
+                continue;
+            int index = Arrays.binarySearch(questionIds, answer.getKey());
+            if (index < 0)
+                continue;
+            boolean isCorrect = isCorrect(index, answer.getValue());
+            if (isCorrect)
+                correct++;
+            if (listener != null)
+                notify(index, answer.getValue(), isCorrect, listener);
+        }
+        return correct;
+    }
+
+    private boolean isCorrect(int index, int[] chosenIds) {
+        if (chosenIds == null)
+            return false;
+        int from = correctOffsets[index];
+        int to = correctOffsets[index + 1];
+        int distinct = 0;
+        for (int i = 0; i < chosenIds.length; i++) {
+            if (Arrays.binarySearch(correctIds, from, to, chosenIds[i]) < 0)
+                return false;
+            if (!isRepeated(chosenIds, i))
+                distinct++;
+        }
+        return distinct == to - from;
+    }
+
+    private void notify(int index, int[] chosenIds, boolean correct, GradingListener listener) {
+        listener.questionGraded(questionIds[index], correct);
+        if (chosenIds == null)
+            return;
+        for (int i = 0; i < chosenIds.length; i++) {
+            int chosenId = chosenIds[i];
+            if (Arrays.binarySearch(answerIds, answerOffsets[index], answerOffsets[index + 1], chosenId) < 0
+                    || isRepeated(chosenIds, i))
+                continue;
+            listener.answerChosen(questionIds[index], chosenId);
+        }
+    }
+
+    // Chosen ids are a few per question, a repeated id is found by looking back
+    private static boolean isRepeated(int[] chosenIds, int position) {
+        for (int i = 0; i < position; i++)
+            if (chosenIds[i] == chosenIds[position])
+                return true;
+        return false;
+    }
+
+    public boolean containsQuestion(int questionId) {
+        return Arrays.binarySearch(questionIds, questionId) >= 0;
+    }
+
+    public int getQuizId() {
+        return quizId;
+    }
+
+    public int getQuestionCount() {
+        return questionIds.length;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.quiz_api_management.attempt;
+
+import com.example.quiz_api_management.quiz.QuizRepository;
+import com.example.quiz_api_management.util.TransactionUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/*
+Answer keys of the quizzes, compiled on the first grading of a quiz and then shared by every grading thread.
+
+Readers only get the current key from a ConcurrentHashMap, without lock. A key is never modified:
+when answers or questions of a quiz change, its key is removed after commit and the next grading compiles a new one,
+which replaces it as a whole. Keys follow the generation rule of DtoCache, a key compiled while the content changed is not kept.
+ */
+@Component
+public class AnswerKeyRegistry {
+    private final AnswerKeyRepository answerKeyRepository;
+    private final QuizRepository quizRepository;
+    private final Map<Integer, AnswerKey> keys = new ConcurrentHashMap<>();
+    private long generation = 0;
+
+    @Autowired
+    public AnswerKeyRegistry(AnswerKeyRepository answerKeyRepository, QuizRepository quizRepository) {
+        this.answerKeyRepository = answerKeyRepository;
+        this.quizRepository = quizRepository;
+    }
+
+    // Empty if the quiz does not exist
+    public Optional<AnswerKey> get(int quizId) {
+        AnswerKey key = keys.get(quizId);
+        if (key != null)
+            return Optional.of(key);
+
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+        if (quizRepository.findVersionById(quizId).isEmpty())
+            return Optional.empty();
+        AnswerKey compiled = AnswerKey.compile(quizId,
+                answerKeyRepository.findQuestionIdsByQuizId(quizId),
+                answerKeyRepository.findAnswersByQuizId(quizId));
+        synchronized (this) {
+            if (loadGeneration == generation)
+                keys.put(quizId, compiled);
+        }
+        return Optional.of(compiled);
+    }
+
+    // A question of the quiz is created or deleted, or the quiz is deleted
+    public void invalidateQuiz(int quizId) {
+        TransactionUtil.afterCommit(() -> invalidateIf(key -> key.getQuizId() == quizId));
+    }
+
+    // An answer of the question is created, updated or deleted
+    public void invalidateQuestion(int questionId) {
+        TransactionUtil.afterCommit(() -> invalidateIf(key -> key.containsQuestion(questionId)));
+    }
+
+    // Questions and answers written outside of the services (bulk import)
+    public void invalidateAll() {
+        TransactionUtil.afterCommit(() -> invalidateIf(key -> true));
+    }
+
+    private synchronized void invalidateIf(Predicate<AnswerKey> predicate) {
+        generation++;
+        keys.values().removeIf(predicate);
+    }
+}
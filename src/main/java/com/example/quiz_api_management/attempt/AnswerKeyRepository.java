@@ -0,0 +1,19 @@
+package com.example.quiz_api_management.attempt;
+
+import com.example.quiz_api_management.answer.Answer;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+// Queries of ids only which compile the answer key of a quiz, no entity is loaded
+public interface AnswerKeyRepository extends Repository<Answer, Integer> {
+    // Every question of the quiz counts in the score, also the ones without a correct answer
+    @Query(value = "SELECT question.id FROM Question question WHERE question.quiz.id = :quizId ORDER BY question.id")
+    List<Integer> findQuestionIdsByQuizId(@Param("quizId") int quizId);
+
+    @Query(value = "SELECT new com.example.quiz_api_management.attempt.KeyAnswer(answer.question.id, answer.id, answer.isCorrect) " +
+            "FROM Answer answer WHERE answer.question.quiz.id = :quizId ORDER BY answer.question.id, answer.id")
+    List<KeyAnswer> findAnswersByQuizId(@Param("quizId") int quizId);
+}
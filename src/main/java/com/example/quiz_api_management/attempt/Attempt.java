@@ -0,0 +1,64 @@
+package com.example.quiz_api_management.attempt;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/*
+A graded attempt of a quiz, written behind the grading by AttemptStore.
+Quiz and user are kept as plain ids: an attempt is inserted without loading them,
+and the history of attempts is kept when a quiz is deleted.
+ */
+@Entity
+@Table(name = "quiz_attempt", indexes = {
+        // Attempts of a quiz by score, e.g. to rank the users of a quiz
+        @Index(name = "idx_attempt_quiz_score", columnList = "quiz_id, score")
+})
+@Data
+public class Attempt {
+    @Id
+    // Ids reserved by blocks of 50 like the other entities, so the flushed batches are real JDBC batches
+    @SequenceGenerator(
+            name = "attempt_sequence",
+            sequenceName = "attempt_sequence",
+            allocationSize = 50
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "attempt_sequence"
+    )
+    @Column(name = "id", unique = true)
+    private long id;
+
+    @Column(name = "quiz_id", nullable = false)
+    private int quizId;
+
+    @Column(name = "user_id", nullable = false)
+    private int userId;
+
+    @Column(name = "correct_answers", nullable = false)
+    private int correctAnswers;
+
+    @Column(name = "total_questions", nullable = false)
+    private int totalQuestions;
+
+    @Column(name = "score", nullable = false)
+    private double score;
+
+    // Full time, attempts are ordered by the time of submission
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+
+    public Attempt(AttemptResult result) {
+        this.quizId = result.getQuizId();
+        this.userId = result.getUserId();
+        this.correctAnswers = result.getCorrectAnswers();
+        this.totalQuestions = result.getTotalQuestions();
+        this.score = result.getScore();
+        this.submittedAt = result.getSubmittedAt();
+    }
+
+    public Attempt() {
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.quiz_api_management.attempt;
+
+import com.example.quiz_api_management.common.RequiredFieldSignal;
+import com.example.quiz_api_management.common.ResponseReturn;
+import com.example.quiz_api_management.exception.NotFoundException;
+import com.example.quiz_api_management.exception.NotValidCredentialException;
+import com.example.quiz_api_management.exception.NotValidParamsException;
+import com.example.quiz_api_management.user.UserService;
+import com.example.quiz_api_management.util.RequestBodyError;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping(path = "/api/v1/")
+public class AttemptController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int MAX_BATCH_SIZE = 100_000;
+    private final AttemptService attemptService;
+    private final UserService userService;
+    private final Validator validator;
+
+    @Autowired
+    public AttemptController(AttemptService attemptService, UserService userService, Validator validator) {
+        this.attemptService = attemptService;
+        this.userService = userService;
+        this.validator = validator;
+    }
+
+    // The attempt is recorded for the signed in user
+    @PostMapping(path = "/quizzes/{quizid}/attempts")
+    public ResponseEntity<ResponseReturn> submitAttempt(@PathVariable("quizid") int quizId,
+                                                        @Valid @RequestBody AttemptDTO reqBody,
+                                                        BindingResult bindingResult,
+                                                        Authentication authentication) {
+        if (bindingResult.hasErrors()) {
+            return RequestBodyError.returnRequiredFields(bindingResult);
+        }
+
+        int userId = userService.getUserId(authentication).orElseThrow(()
+                -> new NotValidCredentialException("Signed in user not found"));
+        AttemptResult result = attemptService.submitAttempt(quizId, userId, reqBody).orElseThrow(()
+                -> new NotFoundException("Quiz not found"));
+
+        return new ResponseEntity<>(new ResponseReturn(
+                LocalDateTime.now(),
+                "Attempt is graded.",
+                HttpStatus.CREATED.value(),
+                true,
+                result), HttpStatus.CREATED);
+    }
+
+    /*
+    Grading of many attempts of the quiz at once, e.g. the offline submissions of a timed exam.
+    The response is not wrapped into ResponseReturn: results are streamed as NDJSON while they are graded,
+    in the order of the request, and the last line reports the throughput of the grading.
+    The attempts carry the ids of their users, so only teachers and coordinators may submit them.
+     */
+    @PreAuthorize("hasAnyRole('TEACHER', 'COORDINATOR')")
+    @PostMapping(path = "/quizzes/{quizid}/attempts:batch")
+    public ResponseEntity<?> gradeAttempts(@PathVariable("quizid") int quizId,
+                                           @RequestBody List<ProctoredAttemptDTO> reqBody) {
+        if (reqBody.isEmpty() || reqBody.size() > MAX_BATCH_SIZE)
+            throw new NotValidParamsException("Number of attempts should be between 1 and " + MAX_BATCH_SIZE + ".");
+
+        List<RequiredFieldSignal> requiredFieldSignals = RequestBodyError.validateItems(validator, reqBody);
+        if (!requiredFieldSignals.isEmpty())
+            return RequestBodyError.returnRequiredFields(requiredFieldSignals);
+
+        AnswerKey key = attemptService.getAnswerKey(quizId).orElseThrow(()
+                -> new NotFoundException("Quiz not found"));
+
+        attemptService.checkAcceptingBatch();
+        StreamingResponseBody body = output -> attemptService.gradeBatch(key, reqBody, output);
+        return ResponseEntity.status(HttpStatus.OK).contentType(NDJSON).body(body);
+    }
+}
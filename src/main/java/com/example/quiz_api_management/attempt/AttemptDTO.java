@@ -0,0 +1,22 @@
+package com.example.quiz_api_management.attempt;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/*
+Submission of a quiz: the ids of the chosen answers per question id, e.g. {"answers": {"12": [40, 41]}}.
+The attempt belongs to the signed in user, it carries no user id.
+Chosen ids are primitive arrays, as they are read by the answer key.
+ */
+@Data
+@AllArgsConstructor
+public class AttemptDTO {
+    @NotNull
+    private Map<Integer, int[]> answers;
+
+    public AttemptDTO() {
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.quiz_api_management.attempt;
+
+import org.springframework.data.repository.CrudRepository;
+
+// Attempts are only inserted by AttemptStore, in batches
+public interface AttemptRepository extends CrudRepository<Attempt, Long> {
+}
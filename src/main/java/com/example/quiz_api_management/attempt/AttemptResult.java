@@ -0,0 +1,18 @@
+package com.example.quiz_api_management.attempt;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Score of a graded attempt, in percent of the questions of the quiz answered correctly
+@Data
+@AllArgsConstructor
+public class AttemptResult {
+    private int quizId;
+    private int userId;
+    private int correctAnswers;
+    private int totalQuestions;
+    private double score;
+    private LocalDateTime submittedAt;
+}
@@ -0,0 +1,118 @@
+package com.example.quiz_api_management.attempt;
+
+import com.example.quiz_api_management.leaderboard.LeaderboardService;
+import com.example.quiz_api_management.stats.QuestionStatsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class AttemptService {
+    // Attempts graded and written between two flushes of a batch response
+    private static final int BATCH_CHUNK_SIZE = 4096;
+
+    private final AnswerKeyRegistry answerKeyRegistry;
+    private final BatchGrader batchGrader;
+    private final AttemptStore attemptStore;
+    private final LeaderboardService leaderboardService;
+    private final QuestionStatsService questionStatsService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public AttemptService(AnswerKeyRegistry answerKeyRegistry, BatchGrader batchGrader, AttemptStore attemptStore,
+                          LeaderboardService leaderboardService, QuestionStatsService questionStatsService,
+                          ObjectMapper objectMapper) {
+        this.answerKeyRegistry = answerKeyRegistry;
+        this.batchGrader = batchGrader;
+        this.attemptStore = attemptStore;
+        this.leaderboardService = leaderboardService;
+        this.questionStatsService = questionStatsService;
+        this.objectMapper = objectMapper;
+    }
+
+    // Empty if the quiz does not exist
+    public Optional<AnswerKey> getAnswerKey(int quizId) {
+        return answerKeyRegistry.get(quizId);
+    }
+
+    /*
+    Graded against the answer key of the quiz in memory, empty if the quiz does not exist.
+    The attempt is queued to be saved behind, the score is returned without waiting for the insert.
+    It is queued before it is recorded in the leaderboard of the quiz (see LeaderboardService).
+    Answer statistics are only counted once the queue accepted the attempt: an attempt rejected by a full queue
+    is retried by its client and must not be counted twice. They are counted by a second pass over the same key,
+    which allocates nothing, instead of buffering the events of the first one.
+    userId is the signed in user, never a value of the request.
+     */
+    public Optional<AttemptResult> submitAttempt(int quizId, int userId, AttemptDTO attempt) {
+        Optional<AnswerKey> key = answerKeyRegistry.get(quizId);
+        Optional<AttemptResult> result = key.map(answerKey -> grade(answerKey, userId, attempt, LocalDateTime.now()));
+        result.ifPresent(graded -> {
+            attemptStore.add(graded);
+            key.get().grade(attempt.getAnswers(), questionStatsService);
+            leaderboardService.record(graded);
+        });
+        return result;
+    }
+
+    // A batch is refused with 503 before its response starts, nothing can be reported once results are streamed
+    public void checkAcceptingBatch() {
+        attemptStore.checkRunning();
+    }
+
+    /*
+    Results of a batch as NDJSON, one line per attempt in the order of the request, then one BatchGradingSummary line.
+    Attempts are graded in parallel chunk by chunk, each chunk is written and flushed before the next one,
+    so the client reads the first results while the rest of the batch is graded.
+    Results are queued to be saved like single attempts, but a full queue slows down the stream instead
+    of rejecting the attempts, as the status of the response is already sent (see checkAcceptingBatch).
+     */
+    public void gradeBatch(AnswerKey key, List<ProctoredAttemptDTO> attempts, OutputStream output) throws IOException {
+        LocalDateTime submittedAt = LocalDateTime.now();
+        AttemptResult[] results = new AttemptResult[attempts.size()];
+        long gradingNanos = 0;
+        for (int from = 0; from < attempts.size(); from += BATCH_CHUNK_SIZE) {
+            int to = Math.min(attempts.size(), from + BATCH_CHUNK_SIZE);
+            long start = System.nanoTime();
+            batchGrader.grade(key, attempts, from, to, results, submittedAt, questionStatsService);
+            gradingNanos += System.nanoTime() - start;
+            for (int index = from; index < to; index++) {
+                attemptStore.put(results[index]);
+                leaderboardService.record(results[index]);
+                writeLine(results[index], output);
+                // Written results are released, only one chunk is held besides the request
+                results[index] = null;
+            }
+            output.flush();
+        }
+        long elapsedMillis = gradingNanos / 1_000_000;
+        long attemptsPerSecond = (gradingNanos == 0) ? 0 : attempts.size() * 1_000_000_000L / gradingNanos;
+        writeLine(new BatchGradingSummary(key.getQuizId(), attempts.size(), batchGrader.getParallelism(),
+                elapsedMillis, attemptsPerSecond), output);
+        output.flush();
+    }
+
+    private void writeLine(Object line, OutputStream output) throws IOException {
+        output.write(objectMapper.writeValueAsBytes(line));
+        output.write('\n');
+    }
+
+    static AttemptResult grade(AnswerKey key, int userId, AttemptDTO attempt, LocalDateTime submittedAt) {
+        return grade(key, userId, attempt, submittedAt, null);
+    }
+
+    // The listener, if any, is told how each question was answered
+    static AttemptResult grade(AnswerKey key, int userId, AttemptDTO attempt, LocalDateTime submittedAt,
+                               GradingListener listener) {
+        int correctAnswers = key.grade(attempt.getAnswers(), listener);
+        int totalQuestions = key.getQuestionCount();
+        double score = (totalQuestions == 0) ? 0 : Math.round(correctAnswers * 10_000.0 / totalQuestions) / 100.0;
+        return new AttemptResult(key.getQuizId(), userId, correctAnswers, totalQuestions, score, submittedAt);
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.quiz_api_management.attempt;
+
+import com.example.quiz_api_management.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+Write-behind store of graded attempts, so no insert is on the latency path of a submission.
+
+Results are put into a bounded queue and written by one background thread in batches (one transaction, JDBC batches
+of hibernate.jdbc.batch_size), as soon as a batch is full or the oldest waiting result is older than the flush interval.
+When the queue is full, a submission waits up to the offer timeout for room and is then rejected with 503:
+the producers are slowed down to the speed of the database instead of growing the memory.
+Results of a batch whose response has started cannot be rejected any more, they wait for room as long as it takes.
+On shutdown, new results are rejected and the queue is drained before the database is closed.
+
+A failed batch is logged and counted, it is not retried: the score was already returned to the client.
+ */
+@Component
+public class AttemptStore {
+    private static final Logger logger = LoggerFactory.getLogger(AttemptStore.class);
+    // Longest wait of the flusher on the queue, so it sees a shutdown or a flush request quickly
+    private static final long POLL_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final AttemptRepository attemptRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<AttemptResult> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final Duration shutdownTimeout;
+    // Held while a batch is collected and written, so flush() returns once everything queued before is written
+    private final ReentrantLock writeLock = new ReentrantLock(true);
+    private final Thread flusher;
+    private volatile boolean running = true;
+    // Number of callers of flush() waiting, the flusher writes its batch at once instead of waiting for the interval
+    private final AtomicInteger flushRequests = new AtomicInteger();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushNanos = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile long lastFlushNanos;
+    private volatile long maximumFlushNanos;
+
+    @Autowired
+    public AttemptStore(AttemptRepository attemptRepository, PlatformTransactionManager transactionManager,
+                        @Value("${attempts.store.queue-capacity:10000}") int queueCapacity,
+                        @Value("${attempts.store.batch-size:500}") int batchSize,
+                        @Value("${attempts.store.flush-interval:200ms}") Duration flushInterval,
+                        @Value("${attempts.store.offer-timeout:1s}") Duration offerTimeout,
+                        @Value("${attempts.store.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.attemptRepository = attemptRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.flusher = new Thread(this::runFlusher, "attempt-store-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    // Queue a graded attempt, waiting up to the offer timeout when the queue is full
+    public void add(AttemptResult result) {
+        boolean added = false;
+        try {
+            added = running && queue.offer(result, offerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        if (!added) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Attempts cannot be saved for now, please retry.",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(offerTimeoutNanos)));
+        }
+        enqueued.increment();
+    }
+
+    /*
+    Queue a graded attempt of a streamed batch, waiting for room as long as the store is running:
+    a slow database slows down the stream instead of breaking it. Only a shutdown rejects the attempt.
+     */
+    public void put(AttemptResult result) {
+        try {
+            while (running) {
+                if (queue.offer(result, POLL_SLICE_NANOS, TimeUnit.NANOSECONDS)) {
+                    enqueued.increment();
+                    return;
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        throw new ServiceUnavailableException("Attempts cannot be saved for now, please retry.",
+                Math.max(1, TimeUnit.NANOSECONDS.toSeconds(offerTimeoutNanos)));
+    }
+
+    // Rejects with 503 once the store is shutting down, checked before a batch response starts
+    public void checkRunning() {
+        if (!running)
+            throw new ServiceUnavailableException("Attempts cannot be saved for now, please retry.",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(offerTimeoutNanos)));
+    }
+
+    // Write every queued attempt in the calling thread, e.g. before reading attempts which must all be stored
+    public void flush() {
+        flushRequests.incrementAndGet();
+        writeLock.lock();
+        try {
+            List<AttemptResult> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        } finally {
+            flushRequests.decrementAndGet();
+            writeLock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        List<AttemptResult> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            writeLock.lock();
+            try {
+                collect(batch);
+                if (!batch.isEmpty())
+                    write(batch);
+            } catch (InterruptedException exception) {
+                // Only the flusher uses this thread, what was collected is written and the queue drained as usual
+                if (!batch.isEmpty())
+                    write(batch);
+            } finally {
+                batch.clear();
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /*
+    Fill the batch until it is full or the flush interval has elapsed since its first result.
+    A shutdown or a flush request ends the batch at once.
+     */
+    private void collect(List<AttemptResult> batch) throws InterruptedException {
+        AttemptResult first = queue.poll(Math.min(flushIntervalNanos, POLL_SLICE_NANOS), TimeUnit.NANOSECONDS);
+        if (first == null)
+            return;
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running || flushRequests.get() > 0)
+                return;
+            AttemptResult next = queue.poll(Math.min(remaining, POLL_SLICE_NANOS), TimeUnit.NANOSECONDS);
+            if (next != null)
+                batch.add(next);
+        }
+    }
+
+    private void write(List<AttemptResult> batch) {
+        long start = System.nanoTime();
+        try {
+            List<Attempt> attempts = batch.stream().map(Attempt::new).toList();
+            transactionTemplate.executeWithoutResult(status -> attemptRepository.saveAll(attempts));
+            persisted.addAndGet(batch.size());
+        } catch (RuntimeException exception) {
+            failed.addAndGet(batch.size());
+            logger.error("{} attempts could not be saved", batch.size(), exception);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        flushes.incrementAndGet();
+        flushNanos.addAndGet(elapsedNanos);
+        lastBatchSize = batch.size();
+        lastFlushNanos = elapsedNanos;
+        maximumFlushNanos = Math.max(maximumFlushNanos, elapsedNanos);
+    }
+
+    public AttemptStoreStats stats() {
+        long flushCount = flushes.get();
+        long written = persisted.get() + failed.get();
+        return new AttemptStoreStats(
+                queue.size(),
+                queue.size() + queue.remainingCapacity(),
+                enqueued.sum(),
+                rejected.sum(),
+                persisted.get(),
+                failed.get(),
+                flushCount,
+                lastBatchSize,
+                (flushCount == 0) ? 0 : (double) written / flushCount,
+                lastFlushNanos / 1_000_000.0,
+                (flushCount == 0) ? 0 : flushNanos.get() / 1_000_000.0 / flushCount,
+                maximumFlushNanos / 1_000_000.0);
+    }
+
+    /*
+    New attempts are rejected and the flusher drains the queue, it sees the flag within one poll slice.
+    It is not interrupted, so a batch being written is not broken. What is left after the timeout is written here.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.join(shutdownTimeout.toMillis());
+        flush();
+        logger.info("Attempt store stopped: {}", stats());
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.quiz_api_management.attempt;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Snapshot of the counters of AttemptStore, returned by GET /api/v1/metrics/attempts
+@Data
+@AllArgsConstructor
+public class AttemptStoreStats {
+    private int queueDepth;
+    private int queueCapacity;
+    private long enqueued;
+    private long rejected;
+    private long persisted;
+    private long failed;
+    private long flushes;
+    private int lastBatchSize;
+    private double averageBatchSize;
+    private double lastFlushMillis;
+    private double averageFlushMillis;
+    private double maximumFlushMillis;
+}
@@ -0,0 +1,85 @@
+package com.example.quiz_api_management.attempt;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+Parallel grading of many attempts of one quiz, e.g. the offline submissions received at the end of an exam.
+
+Attempts are graded on a dedicated ForkJoinPool (grading.parallelism, the number of cores by default),
+so a large batch neither waits for nor slows down the common pool used by the rest of the application.
+A range of attempts is split in halves until it is small enough, then graded sequentially into its slots
+of the result array: threads never write the same slot and the results keep the order of the request.
+ */
+@Component
+public class BatchGrader {
+    // Below this number of attempts, splitting costs more than grading
+    private static final int SEQUENTIAL_THRESHOLD = 256;
+
+    private final ForkJoinPool pool;
+
+    public BatchGrader(@Value("${grading.parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool((parallelism > 0) ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    // Grade attempts[from, to) into results[from, to), the listener is called concurrently by the workers
+    public void grade(AnswerKey key, List<ProctoredAttemptDTO> attempts, int from, int to,
+                      AttemptResult[] results, LocalDateTime submittedAt, GradingListener listener) {
+        grade(pool, key, attempts, from, to, results, submittedAt, listener);
+    }
+
+    static void grade(ForkJoinPool pool, AnswerKey key, List<ProctoredAttemptDTO> attempts, int from, int to,
+                      AttemptResult[] results, LocalDateTime submittedAt, GradingListener listener) {
+        pool.invoke(new GradeRange(key, attempts, from, to, results, submittedAt, listener));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static class GradeRange extends RecursiveAction {
+        private final AnswerKey key;
+        private final List<ProctoredAttemptDTO> attempts;
+        private final int from;
+        private final int to;
+        private final AttemptResult[] results;
+        private final LocalDateTime submittedAt;
+        private final GradingListener listener;
+
+        GradeRange(AnswerKey key, List<ProctoredAttemptDTO> attempts, int from, int to,
+                   AttemptResult[] results, LocalDateTime submittedAt, GradingListener listener) {
+            this.key = key;
+            this.attempts = attempts;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+            this.submittedAt = submittedAt;
+            this.listener = listener;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int index = from; index < to; index++) {
+                    ProctoredAttemptDTO attempt = attempts.get(index);
+                    results[index] = AttemptService.grade(key, attempt.getUserId(), attempt, submittedAt, listener);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new GradeRange(key, attempts, from, middle, results, submittedAt, listener),
+                    new GradeRange(key, attempts, middle, to, results, submittedAt, listener));
+        }
+    }
+}
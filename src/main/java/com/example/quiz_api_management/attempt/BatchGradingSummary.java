@@ -0,0 +1,15 @@
+package com.example.quiz_api_management.attempt;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Last line of a batch grading, with the throughput of the grading only (reading the request is not included)
+@Data
+@AllArgsConstructor
+public class BatchGradingSummary {
+    private int quizId;
+    private int graded;
+    private int parallelism;
+    private long elapsedMillis;
+    private long attemptsPerSecond;
+}
@@ -0,0 +1,9 @@
+package com.example.quiz_api_management.attempt;
+
+// Told by AnswerKey how each question of an attempt was answered, e.g. to count answer statistics
+public interface GradingListener {
+    void questionGraded(int questionId, boolean correct);
+
+    // Chosen answers which belong to the question, each one once per attempt
+    void answerChosen(int questionId, int answerId);
+}
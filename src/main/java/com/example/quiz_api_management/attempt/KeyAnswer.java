@@ -0,0 +1,5 @@
+package com.example.quiz_api_management.attempt;
+
+// Id of an answer of a question and whether it is correct, the only columns needed to compile an answer key
+public record KeyAnswer(int questionId, int answerId, boolean correct) {
+}
@@ -0,0 +1,26 @@
+package com.example.quiz_api_management.attempt;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.Map;
+
+/*
+Submission collected on behalf of a user, e.g. {"userId": 1, "answers": {"12": [40, 41]}}.
+Only graded in batches, which are restricted to teachers and coordinators.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ProctoredAttemptDTO extends AttemptDTO {
+    @NotNull
+    private Integer userId;
+
+    public ProctoredAttemptDTO() {
+    }
+
+    public ProctoredAttemptDTO(Integer userId, Map<Integer, int[]> answers) {
+        super(answers);
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.quiz_api_management.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+Bloom filter of strings. mightContain never answers false for a value which was added,
+and answers true for a value which was not added with a probability close to FALSE_POSITIVE_RATE
+as long as no more than capacity values are added.
+
+Bits are kept in an AtomicLongArray so that reads and adds need no lock.
+The k bit positions of a value come from two 64-bit hashes (double hashing: h1 + i * h2).
+ */
+public class BloomFilter {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final AtomicLongArray bits;
+    private final long numberOfBits;
+    private final int numberOfHashes;
+    private final int capacity;
+    private final AtomicInteger insertions = new AtomicInteger();
+
+    public BloomFilter(int capacity) {
+        this.capacity = Math.max(capacity, 1);
+        // Optimal sizes: m = -n * ln(p) / ln(2)^2 and k = m / n * ln(2)
+        long optimalBits = (long) Math.ceil(-this.capacity * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+        this.numberOfBits = Math.max(64, (optimalBits + 63) / 64 * 64);
+        this.numberOfHashes = Math.max(1, (int) Math.round((double) numberOfBits / this.capacity * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (numberOfBits / 64));
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numberOfHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numberOfBits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+        insertions.incrementAndGet();
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numberOfHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numberOfBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    // Past its capacity the rate of false positives grows, the filter should be rebuilt larger
+    public boolean isFull() {
+        return insertions.get() > capacity;
+    }
+
+    // FNV-1a over the UTF-8 bytes, then mixed so that close strings spread over all bits
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // Finalizer of MurmurHash3
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.quiz_api_management.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class CacheStats {
+    private String name;
+    private int size;
+    private int maximumSize;
+    private long hits;
+    private long misses;
+    private long evictions;     // Removed because of size or time to live
+    private long invalidations; // Removed because the entity was updated or deleted
+
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
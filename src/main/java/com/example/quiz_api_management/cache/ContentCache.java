@@ -0,0 +1,135 @@
+package com.example.quiz_api_management.cache;
+
+import com.example.quiz_api_management.answer.AnswerDTO;
+import com.example.quiz_api_management.question.QuestionDTO;
+import com.example.quiz_api_management.quiz.QuizDTO;
+import com.example.quiz_api_management.util.TransactionUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/*
+Caches of quizzes, questions and answers which are read by id.
+Services evict entries on update and delete, and the cascades of the data model are reproduced here:
+deleting a quiz evicts its questions and their answers, deleting a question evicts its answers.
+Inside a transaction, entries are evicted after commit, otherwise a concurrent read could cache the old row again.
+
+It also holds the ids of the answers of each question, shuffled by AnswerService, and the filters of question values per quiz and answer values per question used to reject duplicates.
+ */
+@Component
+public class ContentCache {
+    private final DtoCache<Integer, QuizDTO> quizzes;
+    private final DtoCache<Integer, QuestionDTO> questions;
+    private final DtoCache<Integer, AnswerDTO> answers;
+    private final DtoCache<Integer, int[]> answerIds;
+    private final SiblingValueFilter questionValues;
+    private final SiblingValueFilter answerValues;
+
+    public ContentCache(@Value("${cache.content.maximum-size:10000}") int maximumSize,
+                        @Value("${cache.content.time-to-live:10m}") Duration timeToLive,
+                        @Value("${cache.value-filter.maximum-parents:1000}") int maximumParents) {
+        this.quizzes = new DtoCache<>("quizzes", maximumSize, timeToLive);
+        this.questions = new DtoCache<>("questions", maximumSize, timeToLive);
+        this.answers = new DtoCache<>("answers", maximumSize, timeToLive);
+        this.answerIds = new DtoCache<>("answer ids per question", maximumSize, timeToLive);
+        this.questionValues = new SiblingValueFilter("question values per quiz", maximumParents);
+        this.answerValues = new SiblingValueFilter("answer values per question", maximumParents);
+    }
+
+    public DtoCache<Integer, QuizDTO> quizzes() {
+        return quizzes;
+    }
+
+    public DtoCache<Integer, QuestionDTO> questions() {
+        return questions;
+    }
+
+    public DtoCache<Integer, AnswerDTO> answers() {
+        return answers;
+    }
+
+    public DtoCache<Integer, int[]> answerIds() {
+        return answerIds;
+    }
+
+    public SiblingValueFilter questionValues() {
+        return questionValues;
+    }
+
+    public SiblingValueFilter answerValues() {
+        return answerValues;
+    }
+
+    // A question with this value is created or renamed in the quiz
+    public void addQuestionValue(int quizId, String value) {
+        TransactionUtil.afterCommit(() -> questionValues.add(quizId, value));
+    }
+
+    // An answer of the question is created or deleted
+    public void evictAnswerIds(int questionId) {
+        TransactionUtil.afterCommit(() -> answerIds.invalidate(questionId));
+    }
+
+    // An answer with this value is created or renamed in the question
+    public void addAnswerValue(int questionId, String value) {
+        TransactionUtil.afterCommit(() -> answerValues.add(questionId, answerValueKey(value)));
+    }
+
+    // Answers are unique per question ignoring case, so their filters hold lower-cased values
+    public static String answerValueKey(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    public void evictQuiz(int quizId) {
+        TransactionUtil.afterCommit(() -> quizzes.invalidate(quizId));
+    }
+
+    // Counters of quizzes rebuilt in SQL (repair job), the quizzes which changed are not known
+    public void evictAllQuizzes() {
+        TransactionUtil.afterCommit(() -> quizzes.invalidateIf(quiz -> true));
+    }
+
+    // questionIds are the questions of the quiz in database, some of them may not be cached
+    public void evictQuizCascade(int quizId, Collection<Integer> questionIds) {
+        Set<Integer> deletedQuestions = new HashSet<>(questionIds);
+        TransactionUtil.afterCommit(() -> {
+            quizzes.invalidate(quizId);
+            questions.invalidateIf(question -> question.getQuizId() == quizId);
+            answers.invalidateIf(answer -> deletedQuestions.contains(answer.getQuestionId()));
+            questionValues.invalidate(quizId);
+            deletedQuestions.forEach(answerValues::invalidate);
+            deletedQuestions.forEach(answerIds::invalidate);
+        });
+    }
+
+    public void evictQuestion(int questionId) {
+        TransactionUtil.afterCommit(() -> questions.invalidate(questionId));
+    }
+
+    public void evictQuestionCascade(int questionId) {
+        TransactionUtil.afterCommit(() -> {
+            questions.invalidate(questionId);
+            answers.invalidateIf(answer -> answer.getQuestionId() == questionId);
+            answerValues.invalidate(questionId);
+            answerIds.invalidate(questionId);
+        });
+    }
+
+    public void evictAnswer(int answerId) {
+        TransactionUtil.afterCommit(() -> answers.invalidate(answerId));
+    }
+
+    public List<CacheStats> stats() {
+        return List.of(quizzes.stats(), questions.stats(), answers.stats(), answerIds.stats());
+    }
+
+    public List<FilterStats> filterStats() {
+        return List.of(questionValues.stats(), answerValues.stats());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.quiz_api_management.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/*
+Bounded read-through cache of mapped DTOs.
+Entries are evicted by size (least recently used first) and by time to live.
+LinkedHashMap with access order keeps the LRU order, so every access is guarded by the monitor of this cache.
+
+A load that races with an invalidation must not put the stale value back,
+so each invalidation increases a generation and a loaded value is only stored if the generation did not change.
+ */
+public class DtoCache<K, V> {
+    private final String name;
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final LinkedHashMap<K, CachedValue<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long generation = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public DtoCache(String name, int maximumSize, Duration timeToLive) {
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeToLive.toNanos();
+    }
+
+    // Return the cached value of the key, otherwise load it and cache it if it exists
+    public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            CachedValue<V> cached = entries.get(key);
+            if (cached != null) {
+                if (System.nanoTime() - cached.loadedAt < timeToLiveNanos) {
+                    hits.increment();
+                    return Optional.of(cached.value);
+                }
+                entries.remove(key);
+                evictions.increment();
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        // The loader runs outside the lock so a slow query does not block other readers
+        Optional<V> loaded = loader.apply(key);
+        loaded.ifPresent(value -> putIfGeneration(key, value, loadGeneration));
+        return loaded;
+    }
+
+    private synchronized void putIfGeneration(K key, V value, long loadGeneration) {
+        if (loadGeneration != generation)
+            return;
+        entries.put(key, new CachedValue<>(value, System.nanoTime()));
+        if (entries.size() > maximumSize) {
+            Iterator<K> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        if (entries.remove(key) != null)
+            invalidations.increment();
+    }
+
+    // Used for cascades, e.g. every question of a deleted quiz
+    public synchronized void invalidateIf(Predicate<V> predicate) {
+        generation++;
+        Iterator<Map.Entry<K, CachedValue<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (predicate.test(iterator.next().getValue().value)) {
+                iterator.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(name, entries.size(), maximumSize,
+                hits.sum(), misses.sum(), evictions.sum(), invalidations.sum());
+    }
+
+    private record CachedValue<V>(V value, long loadedAt) {
+    }
+}
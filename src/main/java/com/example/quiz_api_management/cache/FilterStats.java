@@ -0,0 +1,21 @@
+package com.example.quiz_api_management.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class FilterStats {
+    private String name;
+    private int size;
+    private int maximumSize;
+    private long loads;        // Filters built from the values of a parent in database
+    private long negatives;    // Checks answered by the filter without any query
+    private long probes;       // Checks confirmed by an existence query
+    private long duplicates;   // Probes which found the value
+
+    // Probes which did not find the value, the cost of false positives of the filters
+    public long getFalsePositives() {
+        return probes - duplicates;
+    }
+}
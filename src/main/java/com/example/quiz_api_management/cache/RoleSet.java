@@ -0,0 +1,10 @@
+package com.example.quiz_api_management.cache;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+
+// Immutable roles of a user and the authorities they grant, one instance is shared by every user with the same roles
+public record RoleSet(Set<String> names, List<GrantedAuthority> authorities) {
+}
@@ -0,0 +1,106 @@
+package com.example.quiz_api_management.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/*
+Membership of values among the children of a parent (questions of a quiz, answers of a question),
+used to reject duplicates on create.
+
+Every parent has a Bloom filter built from the values of its children in database. A value the filter
+does not contain is new without any query; otherwise the probe (an indexed existence query) decides,
+so a false positive costs one query and never rejects a new value.
+
+Filters are bounded like DtoCache (least recently used parents are dropped) and follow its generation rule:
+a filter loaded while a value was added may miss that value, so it is only stored if the generation did not change.
+Values are only added, a deleted or renamed child leaves its old value in the filter, which only costs a probe.
+ */
+public class SiblingValueFilter {
+    private static final int MINIMUM_CAPACITY = 64;
+
+    private final String name;
+    private final int maximumSize;
+    private final LinkedHashMap<Integer, BloomFilter> filters = new LinkedHashMap<>(16, 0.75f, true);
+    private long generation = 0;
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    public SiblingValueFilter(String name, int maximumSize) {
+        this.name = name;
+        this.maximumSize = maximumSize;
+    }
+
+    // loader reads the values of the children of a parent, probe checks one value in database
+    public boolean exists(int parentId, String value,
+                          Function<Integer, List<String>> loader, BiPredicate<Integer, String> probe) {
+        BloomFilter filter = getOrLoad(parentId, loader);
+        if (filter != null && !filter.mightContain(value)) {
+            negatives.increment();
+            return false;
+        }
+        probes.increment();
+        boolean found = probe.test(parentId, value);
+        if (found)
+            duplicates.increment();
+        return found;
+    }
+
+    // Called once a child is committed with this value
+    public synchronized void add(int parentId, String value) {
+        generation++;
+        BloomFilter filter = filters.get(parentId);
+        if (filter == null)
+            return;
+        filter.add(value);
+        // Rebuilt with a larger capacity at the next check
+        if (filter.isFull())
+            filters.remove(parentId);
+    }
+
+    public synchronized void invalidate(int parentId) {
+        generation++;
+        filters.remove(parentId);
+    }
+
+    public synchronized FilterStats stats() {
+        return new FilterStats(name, filters.size(), maximumSize,
+                loads.sum(), negatives.sum(), probes.sum(), duplicates.sum());
+    }
+
+    // null when the loaded filter raced with an add, the check then falls back to the probe
+    private BloomFilter getOrLoad(int parentId, Function<Integer, List<String>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            BloomFilter filter = filters.get(parentId);
+            if (filter != null)
+                return filter;
+            loadGeneration = generation;
+        }
+
+        // The loader runs outside the lock so a parent with many children does not block other checks
+        List<String> values = loader.apply(parentId);
+        loads.increment();
+        BloomFilter filter = new BloomFilter(Math.max(MINIMUM_CAPACITY, values.size() * 2));
+        values.forEach(filter::add);
+        return putIfGeneration(parentId, filter, loadGeneration) ? filter : null;
+    }
+
+    private synchronized boolean putIfGeneration(int parentId, BloomFilter filter, long loadGeneration) {
+        if (loadGeneration != generation)
+            return false;
+        filters.put(parentId, filter);
+        if (filters.size() > maximumSize) {
+            Iterator<Integer> eldest = filters.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+        return true;
+    }
+}
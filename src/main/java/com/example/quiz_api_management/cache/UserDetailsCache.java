@@ -0,0 +1,60 @@
+package com.example.quiz_api_management.cache;
+
+import com.example.quiz_api_management.user.User;
+import com.example.quiz_api_management.util.TransactionUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.Optional;
+
+/*
+Caches of the authentication data of users, so an authentication does not read the user and its roles every time.
+UserDetails are cached by email (the username of authentication), the roles of a user by its id.
+
+Few different sets of roles exist, so the roles and authorities of users are interned: users with the same roles share
+one immutable RoleSet. UserService evicts both entries of a user after commit when its roles, its password
+or the user itself change, the time to live only bounds a change written outside of the service.
+ */
+@Component
+public class UserDetailsCache {
+    private final DtoCache<String, UserDetails> userDetails;
+    private final DtoCache<Integer, RoleSet> roles;
+    private final Map<Set<String>, RoleSet> roleSets = new ConcurrentHashMap<>();
+
+    public UserDetailsCache(@Value("${cache.users.maximum-size:10000}") int maximumSize,
+                            @Value("${cache.users.time-to-live:10m}") Duration timeToLive) {
+        this.userDetails = new DtoCache<>("user details by email", maximumSize, timeToLive);
+        this.roles = new DtoCache<>("roles per user", maximumSize, timeToLive);
+    }
+
+    public Optional<UserDetails> getUserDetails(String email, Function<String, Optional<UserDetails>> loader) {
+        return userDetails.get(email, loader);
+    }
+
+    public RoleSet getRoles(int userId, Function<Integer, Collection<String>> loader) {
+        return roles.get(userId, id -> Optional.of(roleSetOf(loader.apply(id)))).get();
+    }
+
+    public RoleSet roleSetOf(Collection<String> names) {
+        return roleSets.computeIfAbsent(Set.copyOf(names), key -> new RoleSet(key, User.authoritiesOf(key)));
+    }
+
+    public void evictUser(int userId, String email) {
+        TransactionUtil.afterCommit(() -> {
+            userDetails.invalidate(email);
+            roles.invalidate(userId);
+        });
+    }
+
+    public List<CacheStats> stats() {
+        return List.of(userDetails.stats(), roles.stats());
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.quiz_api_management.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+Result of one item of a bulk request, index is the position of the item in the request body.
+id is only set for a created item, message only for a rejected one.
+ */
+@AllArgsConstructor
+@Getter
+public class BatchItemResult {
+    public static final String CREATED = "created";
+    public static final String DUPLICATE = "duplicate";
+
+    private int index;
+    private String status;
+    private Integer id;
+    private String message;
+
+    public static BatchItemResult created(int index, int id) {
+        return new BatchItemResult(index, CREATED, id, null);
+    }
+
+    public static BatchItemResult duplicate(int index, String message) {
+        return new BatchItemResult(index, DUPLICATE, null, message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.quiz_api_management.common;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// Result of a bulk request, with one result per item in the order of the request body
+@Getter
+public class BatchResult {
+    private final int created;
+    private final int rejected;
+    private final List<BatchItemResult> items;
+
+    public BatchResult(List<BatchItemResult> items) {
+        this.items = items;
+        this.created = (int) items.stream().filter(item -> BatchItemResult.CREATED.equals(item.getStatus())).count();
+        this.rejected = items.size() - created;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.quiz_api_management.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/*
+Response of the cursor mode of pagination (?after=&limit=).
+Total pages and total elements are left out on purpose because they would require a COUNT query.
+ */
+@AllArgsConstructor
+@Data
+public class CursorReturn {
+    private LocalDateTime timestamp;
+    private String message;
+    private int statusCode;
+    private boolean success;
+    private Object data;
+    private int numberElementsInPage;
+    private String nextCursor;
+    private boolean hasNextPage;
+}
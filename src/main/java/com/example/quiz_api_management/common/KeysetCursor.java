@@ -0,0 +1,54 @@
+package com.example.quiz_api_management.common;
+
+import com.example.quiz_api_management.exception.NotValidParamsException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.*;
+import java.util.Base64;
+
+/*
+Opaque cursor for keyset (seek) pagination.
+It remembers the sort and filter of the listing together with the sort key and id of the last returned row,
+so the next page is read with "WHERE (key, id) > (lastKey, lastId)" instead of scanning OFFSET rows.
+The cursor is serialized as base64url, clients should only pass it back through ?after=
+ */
+@AllArgsConstructor
+@Getter
+public class KeysetCursor {
+    private String sort;    // "type,asc", "value,desc"... or null when rows are ordered by id only
+    private String filter;  // Filter of the listing, null if there is none
+    private String key;     // Sort key of the last row, null if rows are ordered by id only
+    private int id;         // Id of the last row, used as tie-breaker
+
+    public String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeNullable(out, sort);
+            writeNullable(out, filter);
+            writeNullable(out, key);
+            out.writeInt(id);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            return new KeysetCursor(readNullable(in), readNullable(in), readNullable(in), in.readInt());
+        } catch (IOException | IllegalArgumentException exception) {
+            throw new NotValidParamsException("Cursor is not valid.");
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
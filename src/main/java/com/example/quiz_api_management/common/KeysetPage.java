@@ -0,0 +1,34 @@
+package com.example.quiz_api_management.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+/*
+A page read by keyset pagination. Unlike Page, it has no total count,
+nextCursor is null when the last page is reached.
+ */
+@AllArgsConstructor
+@Getter
+public class KeysetPage<T> {
+    private List<T> content;
+    private String nextCursor;
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /*
+    Page of the rows read with a window of limit + 1: the extra row only tells that a next page exists,
+    and the cursor of the next page is built from the last row kept.
+     */
+    public static <R, T> KeysetPage<T> of(List<R> rows, int limit, Function<R, KeysetCursor> cursorOf,
+                                          Function<List<R>, List<T>> mapper) {
+        if (rows.size() <= limit)
+            return new KeysetPage<>(mapper.apply(rows), null);
+        List<R> page = rows.subList(0, limit);
+        return new KeysetPage<>(mapper.apply(page), cursorOf.apply(page.get(limit - 1)).encode());
+    }
+}
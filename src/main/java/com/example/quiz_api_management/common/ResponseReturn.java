@@ -1,5 +1,6 @@
 package com.example.quiz_api_management.common;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -11,6 +12,8 @@ import java.time.LocalDateTime;
 @Data
 public class ResponseReturn {
     // This field to check full information of time that response is returned.
+    // Left out of the responses of conditional GETs, see ETagUtil.ok
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private LocalDateTime timestamp;
     private String message;
     private int statusCode;
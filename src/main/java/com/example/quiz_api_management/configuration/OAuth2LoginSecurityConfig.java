@@ -1,5 +1,8 @@
 package com.example.quiz_api_management.configuration;
 
+import com.example.quiz_api_management.security.JwtAuthenticationFilter;
+import com.example.quiz_api_management.security.JwtTokenService;
+import com.example.quiz_api_management.security.TokenDenylist;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -9,6 +12,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 // A marker annotation - Using this for exposing SecurityFilterChain
 @EnableWebSecurity
@@ -21,13 +25,17 @@ import org.springframework.security.web.SecurityFilterChain;
 // This class is configuration for OAuth2.0 with Google provider
 public class OAuth2LoginSecurityConfig {
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity httpSecurity) throws Exception{
+    public SecurityFilterChain filterChain(HttpSecurity httpSecurity, JwtTokenService jwtTokenService,
+                                           TokenDenylist tokenDenylist) throws Exception{
         return httpSecurity
                 .authorizeHttpRequests(authorizeRequests -> authorizeRequests
                                 .shouldFilterAllDispatcherTypes(false) // Sets whether all dispatcher types should be filtered
-                                .requestMatchers("/api/v1/signup").permitAll() // Only register API does not require authentication and authorization
+                                .requestMatchers("/api/v1/signup").permitAll() // Register API does not require authentication and authorization
+                                .requestMatchers("/api/v1/auth/signin").permitAll() // Neither does the sign-in which returns the JWT
                                 .anyRequest().authenticated()
                                 )
+                // Requests with "Authorization: Bearer <JWT>" are authenticated by the token alone, without session
+                .addFilterBefore(new JwtAuthenticationFilter(jwtTokenService, tokenDenylist), UsernamePasswordAuthenticationFilter.class)
                 .csrf() // Cross-site Request Forgery
                 .disable() // Due to serve browser clients, this option have to be disabled
                 .oauth2Login(oauth2login -> oauth2login
@@ -4,13 +4,16 @@ import com.example.quiz_api_management.answer.Answer;
 import com.example.quiz_api_management.answer.AnswerRepository;
 import com.example.quiz_api_management.question.Question;
 import com.example.quiz_api_management.question.QuestionRepository;
+import com.example.quiz_api_management.quiz.QuestionCountRepairJob;
 import com.example.quiz_api_management.quiz.Quiz;
 import com.example.quiz_api_management.quiz.QuizRepository;
 import com.example.quiz_api_management.user.User;
 import com.example.quiz_api_management.user.UserRepository;
+import com.example.quiz_api_management.util.PasswordUtil;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 
 import java.time.LocalDate;
@@ -18,10 +21,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Configuration
+// Enables @Scheduled jobs such as the repair of question counters
+@EnableScheduling
 public class QuizManagementConfiguration {
 
     @Bean
-    CommandLineRunner commandLineRunner(QuestionRepository questionRepository, AnswerRepository answerRepository, QuizRepository quizRepository, UserRepository userRepository) {
+    CommandLineRunner commandLineRunner(QuestionRepository questionRepository, AnswerRepository answerRepository, QuizRepository quizRepository, UserRepository userRepository, QuestionCountRepairJob questionCountRepairJob) {
         return args -> {
 
             Quiz firstQuiz = new Quiz("Math 1", "15 minutes");
@@ -146,10 +151,12 @@ public class QuizManagementConfiguration {
             quizRepository.saveAll(List.of(firstQuiz, secondQuiz, thirdQuiz, fourthQuiz, fifthQuiz));
             questionRepository.saveAll(questions);
             answerRepository.saveAll(answers);
+            // Questions are saved directly by the repository, so counters of quizzes are rebuilt afterwards
+            questionCountRepairJob.repair();
 
 
-            String encodedPassword = "12345";
-            String encodedPassword1 = "Hiphopboy120";
+            String encodedPassword = PasswordUtil.encode("12345");
+            String encodedPassword1 = PasswordUtil.encode("Hiphopboy120");
             User user = new User("testuser1", "testuser1@gmail.com", encodedPassword, "aaaaa", "bbbbb", LocalDate.of(1999, 03, 03));
             userRepository.save(user);
             User user1 = new User("testuser2", "kkan@apcs.fitus.edu.vn", encodedPassword1, "aaaaa", "bbbbb", LocalDate.of(1999, 02, 02));
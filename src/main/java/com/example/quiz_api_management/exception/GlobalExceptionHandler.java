@@ -1,6 +1,9 @@
 package com.example.quiz_api_management.exception;
 
 import com.example.quiz_api_management.common.ResponseReturn;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -65,4 +68,29 @@ public class GlobalExceptionHandler {
                 HttpStatus.UNAUTHORIZED);
     }
 
+    /*
+    The unique indexes on answer values (db/answer_values.sql) and question values (db/question_values.sql)
+    back the duplicate checks of AnswerService and QuestionService, a create which loses the race against
+    the same value is a duplicate too. Other violations are not handled here.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ResponseReturn> handleDataIntegrityViolationException(DataIntegrityViolationException exception){
+        if (exception.getCause() instanceof ConstraintViolationException violation
+                && ("uq_answer_question_value".equalsIgnoreCase(violation.getConstraintName())
+                || "uq_question_quiz_value".equalsIgnoreCase(violation.getConstraintName())))
+            return handleDuplicateException(new DuplicateException("Duplicate value found."));
+        throw exception;
+    }
+
+    // Retry-After tells the client when the saturated resource is expected to accept requests again
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ResponseReturn> handleServiceUnavailableException(ServiceUnavailableException exception){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(new ResponseReturn(
+                        LocalDateTime.now(),
+                        exception.getMessage(),
+                        HttpStatus.SERVICE_UNAVAILABLE.value(), // 503
+                        false, null));
+    }
 }
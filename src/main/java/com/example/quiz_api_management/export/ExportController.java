@@ -0,0 +1,38 @@
+package com.example.quiz_api_management.export;
+
+import com.example.quiz_api_management.exception.NotValidParamsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping(path = "/api/v1")
+public class ExportController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private final ExportService exportService;
+
+    @Autowired
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /*
+    The response is not wrapped into ResponseReturn: it is written line by line while the bank is read,
+    so its size is not bounded by the memory.
+     */
+    @GetMapping(path = "/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        if (!format.equalsIgnoreCase("ndjson"))
+            throw new NotValidParamsException("Only ndjson format is supported.");
+
+        StreamingResponseBody body = exportService::writeNdjson;
+        return ResponseEntity.status(HttpStatus.OK).contentType(NDJSON).body(body);
+    }
+}
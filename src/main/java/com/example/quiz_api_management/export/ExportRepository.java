@@ -0,0 +1,29 @@
+package com.example.quiz_api_management.export;
+
+import com.example.quiz_api_management.quiz.Quiz;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+
+import java.util.stream.Stream;
+
+public interface ExportRepository extends Repository<Quiz, Integer> {
+    /*
+    The whole bank as a forward-only stream, ordered so that the rows of one quiz are consecutive.
+    The fetch size makes the driver read rows by chunks instead of loading the whole result
+    (PostgreSQL only does so inside a transaction).
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(value = "SELECT new com.example.quiz_api_management.export.ExportRow(" +
+            "quiz.id, quiz.value, quiz.type, question.id, question.value, question.type, " +
+            "answer.id, answer.value, answer.isCorrect) " +
+            "FROM Quiz quiz LEFT JOIN quiz.questions question LEFT JOIN question.answers answer " +
+            "ORDER BY quiz.id, question.id, answer.id")
+    Stream<ExportRow> streamQuizzesWithQuestionsAndAnswers();
+}
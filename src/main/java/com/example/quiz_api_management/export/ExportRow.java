@@ -0,0 +1,23 @@
+package com.example.quiz_api_management.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+One row of the export query: a quiz joined with one of its questions and one answer of that question.
+Question and answer columns are null when the quiz has no question or the question has no answer.
+It is a projection, not an entity, so rows are never attached to the persistence context.
+ */
+@AllArgsConstructor
+@Getter
+public class ExportRow {
+    private int quizId;
+    private String quizValue;
+    private String quizType;
+    private Integer questionId;
+    private String questionValue;
+    private String questionType;
+    private Integer answerId;
+    private String answerValue;
+    private Boolean answerIsCorrect;
+}
@@ -0,0 +1,92 @@
+package com.example.quiz_api_management.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/*
+Export of the whole question bank as NDJSON: one line per quiz with its questions and answers.
+Rows are read from a stream and a quiz is written as soon as its last row is read,
+so only one quiz is held in memory at a time whatever the size of the bank.
+ */
+@Service
+public class ExportService {
+    private static final int FLUSH_EVERY_QUIZZES = 100;
+
+    private final ExportRepository exportRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ExportService(ExportRepository exportRepository, PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper) {
+        this.exportRepository = exportRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    // The stream requires an open transaction, it is started here because the response is written on another thread
+    public void writeNdjson(OutputStream output) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ExportRow> rows = exportRepository.streamQuizzesWithQuestionsAndAnswers()) {
+                writeQuizzes(rows.iterator(), output);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        });
+    }
+
+    private void writeQuizzes(Iterator<ExportRow> rows, OutputStream output) throws IOException {
+        ExportQuiz quiz = null;
+        ExportQuestion question = null;
+        long writtenQuizzes = 0;
+        while (rows.hasNext()) {
+            ExportRow row = rows.next();
+            if (quiz == null || quiz.id() != row.getQuizId()) {
+                if (quiz != null)
+                    writeLine(quiz, output, ++writtenQuizzes % FLUSH_EVERY_QUIZZES == 0);
+                quiz = new ExportQuiz(row.getQuizId(), row.getQuizValue(), row.getQuizType(), new ArrayList<>());
+                question = null;
+            }
+            if (row.getQuestionId() == null)
+                continue;
+            if (question == null || !Objects.equals(question.id(), row.getQuestionId())) {
+                question = new ExportQuestion(row.getQuestionId(), row.getQuestionValue(), row.getQuestionType(), new ArrayList<>());
+                quiz.questions().add(question);
+            }
+            if (row.getAnswerId() != null)
+                question.answers().add(new ExportAnswer(row.getAnswerId(), row.getAnswerValue(), row.getAnswerIsCorrect()));
+        }
+        if (quiz != null)
+            writeLine(quiz, output, true);
+        output.flush();
+    }
+
+    private void writeLine(ExportQuiz quiz, OutputStream output, boolean flush) throws IOException {
+        output.write(objectMapper.writeValueAsBytes(quiz));
+        output.write('\n');
+        if (flush)
+            output.flush();
+    }
+
+    record ExportQuiz(int id, String value, String type, List<ExportQuestion> questions) {
+    }
+
+    record ExportQuestion(Integer id, String value, String type, List<ExportAnswer> answers) {
+    }
+
+    record ExportAnswer(Integer id, String value, Boolean isCorrect) {
+    }
+}
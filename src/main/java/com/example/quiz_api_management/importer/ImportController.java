@@ -0,0 +1,40 @@
+package com.example.quiz_api_management.importer;
+
+import com.example.quiz_api_management.common.ResponseReturn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping(path = "/api/v1")
+public class ImportController {
+    private final QuizImportService quizImportService;
+
+    @Autowired
+    public ImportController(QuizImportService quizImportService) {
+        this.quizImportService = quizImportService;
+    }
+
+    /*
+    The body is read directly from the stream of the request (not bound to objects),
+    so files larger than the memory can be imported.
+     */
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResponseReturn> importQuizzes(InputStream body) {
+        ImportReport report = quizImportService.importQuizzes(body);
+        HttpStatus status = report.isCompleted() ? HttpStatus.OK : HttpStatus.BAD_REQUEST;
+        return new ResponseEntity<>(new ResponseReturn(
+                LocalDateTime.now(),
+                report.isCompleted() ? "Import is finished." : "Import stopped on a malformed file.",
+                status.value(),
+                report.isCompleted(),
+                report), status);
+    }
+}
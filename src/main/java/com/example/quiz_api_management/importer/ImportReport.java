@@ -0,0 +1,56 @@
+package com.example.quiz_api_management.importer;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Result of a bulk import. Only the first errors are kept so that a file full of invalid records
+does not make the report grow with the size of the file.
+ */
+@Getter
+public class ImportReport {
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private long importedQuizzes;
+    private long importedQuestions;
+    private long importedAnswers;
+    private long rejectedRecords;
+    private long elapsedMillis;
+    private boolean completed;
+    private final List<String> errors = new ArrayList<>();
+
+    void imported(int quizzes, int questions, int answers) {
+        importedQuizzes += quizzes;
+        importedQuestions += questions;
+        importedAnswers += answers;
+    }
+
+    void reject(String path, String cause) {
+        rejectedRecords++;
+        error(path + ": " + cause);
+    }
+
+    void error(String message) {
+        if (errors.size() < MAX_REPORTED_ERRORS)
+            errors.add(message);
+    }
+
+    void finish(long elapsedMillis, boolean completed) {
+        this.elapsedMillis = elapsedMillis;
+        this.completed = completed;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{" +
+                "importedQuizzes=" + importedQuizzes +
+                ", importedQuestions=" + importedQuestions +
+                ", importedAnswers=" + importedAnswers +
+                ", rejectedRecords=" + rejectedRecords +
+                ", elapsedMillis=" + elapsedMillis +
+                ", completed=" + completed +
+                '}';
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.quiz_api_management.importer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+Command line variant of the bulk import, e.g.
+java -jar quiz_api_management.jar --import=/path/to/quizzes.json
+The option can be repeated to import several files.
+ */
+@Component
+public class QuizImportRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(QuizImportRunner.class);
+    private final QuizImportService quizImportService;
+
+    @Autowired
+    public QuizImportRunner(QuizImportService quizImportService) {
+        this.quizImportService = quizImportService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!args.containsOption("import"))
+            return;
+        for (String file : args.getOptionValues("import")) {
+            logger.info("Importing {}", file);
+            try (InputStream input = new BufferedInputStream(Files.newInputStream(Path.of(file)))) {
+                ImportReport report = quizImportService.importQuizzes(input);
+                report.getErrors().forEach(error -> logger.warn("{}: {}", file, error));
+            }
+        }
+    }
+}
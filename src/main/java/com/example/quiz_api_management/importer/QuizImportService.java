@@ -0,0 +1,450 @@
+package com.example.quiz_api_management.importer;
+
+import com.example.quiz_api_management.attempt.AnswerKeyRegistry;
+import com.example.quiz_api_management.cache.ContentCache;
+import com.example.quiz_api_management.question.QuestionFilter;
+import com.example.quiz_api_management.question.QuestionSampler;
+import com.example.quiz_api_management.search.IndexedText;
+import com.example.quiz_api_management.search.SearchIndexService;
+import com.example.quiz_api_management.util.TransactionUtil;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/*
+Bulk import of quizzes -> questions -> answers in the format of data.json.
+
+The file is read with the streaming parser of Jackson, so only the rows of the current batch are held in memory,
+whatever the size of the file. Rows are inserted with JDBC batches, ids are reserved from the sequences by blocks
+and each batch is committed in its own transaction. Invalid records are rejected one by one and reported,
+the rest of the file is still imported.
+
+Header fields of a quiz (quiz_name, type, created_date) and of a question (question_name, type)
+are expected before their "questions" / "answers" arrays, like data.json does, because children
+reference the row of their parent which has to be written first.
+When a batch is rolled back, the children of its quizzes and questions which are read afterwards are rejected
+instead of failing the next batches on their foreign key.
+ */
+@Service
+public class QuizImportService {
+    private static final Logger logger = LoggerFactory.getLogger(QuizImportService.class);
+    private static final int MAX_VALUE_LENGTH = 255;
+    private static final String DEFAULT_QUIZ_TYPE = "imported";
+    private static final int PROGRESS_EVERY_BATCHES = 10;
+
+    private static final String INSERT_QUIZ = "INSERT INTO quiz (id, value, type, question_count, version, created_at, updated_at) " +
+            "VALUES (?, ?, ?, 0, 0, ?, ?)";
+    private static final String INSERT_QUESTION = "INSERT INTO question (id, value, type, version, created_at, updated_at, quiz_id) " +
+            "VALUES (?, ?, ?, 0, ?, ?, ?)";
+    private static final String INSERT_ANSWER = "INSERT INTO answer (id, value, is_correct, created_at, updated_at, question_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String EXISTS_QUIZ = "SELECT EXISTS (SELECT 1 FROM quiz WHERE value = ?)";
+    private static final String LOST_PARENT = "its parent was rolled back with a previous batch";
+    private static final String INCREMENT_QUESTION_COUNT = "UPDATE quiz SET question_count = question_count + ?, version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final QuestionSampler questionSampler;
+    private final AnswerKeyRegistry answerKeyRegistry;
+    private final ContentCache contentCache;
+    private final SearchIndexService searchIndexService;
+
+    @Autowired
+    public QuizImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                             @Value("${import.batch-size:1000}") int batchSize, QuestionSampler questionSampler,
+                             AnswerKeyRegistry answerKeyRegistry, ContentCache contentCache,
+                             SearchIndexService searchIndexService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.questionSampler = questionSampler;
+        this.answerKeyRegistry = answerKeyRegistry;
+        this.contentCache = contentCache;
+        this.searchIndexService = searchIndexService;
+    }
+
+    public ImportReport importQuizzes(InputStream input) {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        ImportBatch batch = new ImportBatch(report);
+        boolean completed = false;
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                throw new IOException("Expected an object with field 'quizzes'");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("quizzes".equals(field) && token == JsonToken.START_ARRAY)
+                    readArray(parser, "quizzes", (path) -> readQuiz(parser, path, batch, report), report);
+                else
+                    parser.skipChildren();
+            }
+            completed = true;
+        } catch (IOException exception) {
+            // Records read before the error are still written, the report tells where the file is broken
+            report.error("Import stopped: " + exception.getMessage());
+        }
+        batch.flush();
+        // Rows are written with JDBC, the pools of question ids and the answer keys are reloaded when next used
+        questionSampler.invalidateAll();
+        answerKeyRegistry.invalidateAll();
+        report.finish((System.nanoTime() - start) / 1_000_000, completed);
+        logger.info("Import finished: {}", report);
+        return report;
+    }
+
+    private void readQuiz(JsonParser parser, String path, ImportBatch batch, ImportReport report) throws IOException {
+        String value = null;
+        String type = null;
+        String createdDate = null;
+        Integer quizId = null;
+        boolean rejected = false;
+        Set<String> questionValues = new HashSet<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "quiz_name" -> value = parser.getValueAsString();
+                case "type" -> type = parser.getValueAsString();
+                case "created_date" -> createdDate = parser.getValueAsString();
+                case "questions" -> {
+                    if (quizId == null && !rejected) {
+                        String error = validateQuiz(value, createdDate, batch);
+                        if (error != null) {
+                            report.reject(path, error);
+                            rejected = true;
+                        } else
+                            quizId = batch.addQuiz(value, type, createdDate);
+                    }
+                    if (rejected || token != JsonToken.START_ARRAY) {
+                        if (!rejected) report.reject(path + ".questions", "should be an array");
+                        parser.skipChildren();
+                    } else {
+                        int parentId = quizId;
+                        readArray(parser, path + ".questions",
+                                (questionPath) -> readQuestion(parser, questionPath, parentId, questionValues, batch, report),
+                                report);
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        // A quiz without questions
+        if (quizId == null && !rejected) {
+            String error = validateQuiz(value, createdDate, batch);
+            if (error != null)
+                report.reject(path, error);
+            else
+                batch.addQuiz(value, type, createdDate);
+        }
+    }
+
+    private void readQuestion(JsonParser parser, String path, int quizId, Set<String> questionValues,
+                              ImportBatch batch, ImportReport report) throws IOException {
+        String value = null;
+        String type = null;
+        Integer questionId = null;
+        boolean rejected = false;
+        Set<String> answerValues = new HashSet<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "question_name" -> value = parser.getValueAsString();
+                case "type" -> type = parser.getValueAsString();
+                case "answers" -> {
+                    if (questionId == null && !rejected) {
+                        String error = batch.isLostQuiz(quizId) ? LOST_PARENT : validateQuestion(value, type, questionValues);
+                        if (error != null) {
+                            report.reject(path, error);
+                            rejected = true;
+                        } else
+                            questionId = batch.addQuestion(value, type.toLowerCase(), quizId);
+                    }
+                    if (rejected || token != JsonToken.START_ARRAY) {
+                        if (!rejected) report.reject(path + ".answers", "should be an array");
+                        parser.skipChildren();
+                    } else {
+                        int parentId = questionId;
+                        readArray(parser, path + ".answers",
+                                (answerPath) -> readAnswer(parser, answerPath, parentId, answerValues, batch, report),
+                                report);
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        // A question without answers
+        if (questionId == null && !rejected) {
+            String error = batch.isLostQuiz(quizId) ? LOST_PARENT : validateQuestion(value, type, questionValues);
+            if (error != null)
+                report.reject(path, error);
+            else
+                batch.addQuestion(value, type.toLowerCase(), quizId);
+        }
+    }
+
+    private void readAnswer(JsonParser parser, String path, int questionId, Set<String> answerValues,
+                            ImportBatch batch, ImportReport report) throws IOException {
+        String value = null;
+        boolean isCorrect = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "answer_name" -> value = parser.getValueAsString();
+                case "is_correct" -> isCorrect = (token == JsonToken.VALUE_TRUE);
+                default -> parser.skipChildren();
+            }
+        }
+
+        String error = batch.isLostQuestion(questionId) ? LOST_PARENT : validateValue("answer_name", value);
+        if (error == null && !answerValues.add(ContentCache.answerValueKey(value)))
+            error = "duplicate answer_name in the question";
+        if (error != null)
+            report.reject(path, error);
+        else
+            batch.addAnswer(value, isCorrect, questionId);
+    }
+
+    // Reads the objects of an array, elements which are not objects are rejected
+    private void readArray(JsonParser parser, String path, ElementReader elementReader, ImportReport report) throws IOException {
+        int index = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null)
+                throw new IOException("Unexpected end of file in " + path);
+            String elementPath = path + "[" + index++ + "]";
+            if (token != JsonToken.START_OBJECT) {
+                report.reject(elementPath, "should be an object");
+                parser.skipChildren();
+                continue;
+            }
+            elementReader.read(elementPath);
+        }
+    }
+
+    // Like QuizController, the name of a quiz is unique: it is looked up in database and in the batch not written yet
+    private String validateQuiz(String value, String createdDate, ImportBatch batch) {
+        String error = validateValue("quiz_name", value);
+        if (error == null && (batch.containsQuiz(value)
+                || Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXISTS_QUIZ, Boolean.class, value))))
+            error = "duplicate quiz_name";
+        if (error == null && createdDate != null) {
+            try {
+                LocalDate.parse(createdDate);
+            } catch (DateTimeParseException exception) {
+                error = "created_date is not a date (yyyy-MM-dd)";
+            }
+        }
+        return error;
+    }
+
+    private String validateQuestion(String value, String type, Set<String> questionValues) {
+        String error = validateValue("question_name", value);
+        if (error == null && (type == null || !QuestionFilter.contains(type.toLowerCase())))
+            error = "type should be multiple, short or long";
+        if (error == null && !questionValues.add(value))
+            error = "duplicate question_name in the quiz";
+        return error;
+    }
+
+    private String validateValue(String field, String value) {
+        if (value == null || value.isBlank())
+            return field + " is required";
+        if (value.length() > MAX_VALUE_LENGTH)
+            return field + " is longer than " + MAX_VALUE_LENGTH + " characters";
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface ElementReader {
+        void read(String path) throws IOException;
+    }
+
+    private record QuizRow(int id, String value, String type, LocalDateTime createdAt) {
+    }
+
+    private record QuestionRow(int id, String value, String type, int quizId) {
+    }
+
+    private record AnswerRow(int id, String value, boolean isCorrect, int questionId) {
+    }
+
+    /*
+    Rows waiting to be written. A flush writes quizzes, then questions, then answers,
+    so parents are always inserted before (or in the same transaction as) their children.
+     */
+    private final class ImportBatch {
+        private final ImportReport report;
+        private final SequenceBlockAllocator quizIds;
+        private final SequenceBlockAllocator questionIds;
+        private final SequenceBlockAllocator answerIds;
+        private final List<QuizRow> quizzes = new ArrayList<>();
+        private final List<QuestionRow> questions = new ArrayList<>();
+        private final List<AnswerRow> answers = new ArrayList<>();
+        private final Map<Integer, Integer> addedQuestionsByQuiz = new HashMap<>();
+        private final Set<String> quizValues = new HashSet<>();
+        // Ids of the quizzes and questions of rolled back batches, their children read afterwards are rejected
+        private final Set<Integer> lostQuizzes = new HashSet<>();
+        private final Set<Integer> lostQuestions = new HashSet<>();
+        private long flushedBatches = 0;
+
+        private ImportBatch(ImportReport report) {
+            this.report = report;
+            this.quizIds = new SequenceBlockAllocator(jdbcTemplate, "quiz_sequence", batchSize);
+            this.questionIds = new SequenceBlockAllocator(jdbcTemplate, "question_sequence", batchSize);
+            this.answerIds = new SequenceBlockAllocator(jdbcTemplate, "answer_sequence", batchSize);
+        }
+
+        private int addQuiz(String value, String type, String createdDate) {
+            int id = quizIds.nextId();
+            LocalDateTime createdAt = (createdDate != null) ? LocalDate.parse(createdDate).atStartOfDay() : LocalDateTime.now();
+            quizzes.add(new QuizRow(id, value, (type != null) ? type : DEFAULT_QUIZ_TYPE, createdAt));
+            quizValues.add(value);
+            flushIfFull();
+            return id;
+        }
+
+        private int addQuestion(String value, String type, int quizId) {
+            int id = questionIds.nextId();
+            questions.add(new QuestionRow(id, value, type, quizId));
+            addedQuestionsByQuiz.merge(quizId, 1, Integer::sum);
+            flushIfFull();
+            return id;
+        }
+
+        private void addAnswer(String value, boolean isCorrect, int questionId) {
+            answers.add(new AnswerRow(answerIds.nextId(), value, isCorrect, questionId));
+            flushIfFull();
+        }
+
+        private boolean containsQuiz(String value) {
+            return quizValues.contains(value);
+        }
+
+        private boolean isLostQuiz(int quizId) {
+            return lostQuizzes.contains(quizId);
+        }
+
+        private boolean isLostQuestion(int questionId) {
+            return lostQuestions.contains(questionId);
+        }
+
+        private void flushIfFull() {
+            if (quizzes.size() + questions.size() + answers.size() >= batchSize)
+                flush();
+        }
+
+        private void flush() {
+            if (quizzes.isEmpty() && questions.isEmpty() && answers.isEmpty())
+                return;
+
+            LocalDateTime now = LocalDateTime.now();
+            LocalDate today = now.toLocalDate();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(INSERT_QUIZ, quizzes, batchSize, (statement, quiz) -> {
+                        statement.setInt(1, quiz.id());
+                        statement.setString(2, quiz.value());
+                        statement.setString(3, quiz.type());
+                        statement.setObject(4, quiz.createdAt());
+                        statement.setObject(5, now);
+                    });
+                    jdbcTemplate.batchUpdate(INSERT_QUESTION, questions, batchSize, (statement, question) -> {
+                        statement.setInt(1, question.id());
+                        statement.setString(2, question.value());
+                        statement.setString(3, question.type());
+                        statement.setObject(4, now);
+                        statement.setObject(5, now);
+                        statement.setInt(6, question.quizId());
+                    });
+                    jdbcTemplate.batchUpdate(INSERT_ANSWER, answers, batchSize, (statement, answer) -> {
+                        statement.setInt(1, answer.id());
+                        statement.setString(2, answer.value());
+                        statement.setBoolean(3, answer.isCorrect());
+                        statement.setObject(4, today);
+                        statement.setObject(5, today);
+                        statement.setInt(6, answer.questionId());
+                    });
+                    // Question counters of quizzes are maintained like QuestionService does
+                    jdbcTemplate.batchUpdate(INCREMENT_QUESTION_COUNT, addedQuestionsByQuiz.entrySet(), batchSize,
+                            (statement, added) -> {
+                                statement.setInt(1, added.getValue());
+                                statement.setInt(2, added.getKey());
+                            });
+                    evictAfterCommit();
+                    indexAfterCommit();
+                });
+                report.imported(quizzes.size(), questions.size(), answers.size());
+            } catch (DataAccessException | TransactionException exception) {
+                report.error("Batch " + (flushedBatches + 1) + " was rolled back, "
+                        + (quizzes.size() + questions.size() + answers.size()) + " record(s) are not imported: "
+                        + NestedExceptionUtils.getMostSpecificCause(exception).getMessage());
+                quizzes.forEach(quiz -> lostQuizzes.add(quiz.id()));
+                questions.forEach(question -> lostQuestions.add(question.id()));
+            }
+
+            flushedBatches++;
+            if (flushedBatches % PROGRESS_EVERY_BATCHES == 0)
+                logger.info("Import in progress: {} batch(es), {} quiz(zes), {} question(s), {} answer(s) imported",
+                        flushedBatches, report.getImportedQuizzes(), report.getImportedQuestions(), report.getImportedAnswers());
+            quizzes.clear();
+            questions.clear();
+            answers.clear();
+            addedQuestionsByQuiz.clear();
+            quizValues.clear();
+        }
+
+        // Like the services do for a single row, the rows of the batch are searchable once it is committed
+        private void indexAfterCommit() {
+            searchIndexService.indexAll(
+                    quizzes.stream().map(quiz -> new IndexedText(quiz.id(), 0, quiz.value())).toList(),
+                    questions.stream().map(question -> new IndexedText(question.id(), question.quizId(), question.value())).toList(),
+                    answers.stream().map(answer -> new IndexedText(answer.id(), answer.questionId(), answer.value())).toList());
+        }
+
+        /*
+        Children of a quiz or a question may be split over several batches, so a parent written by a previous batch
+        can be cached already: its counter and version change, its answer ids and the values of its children grow.
+        The cached entries are dropped once the batch is committed, like the services do for a single row.
+         */
+        private void evictAfterCommit() {
+            Set<Integer> quizIds = Set.copyOf(addedQuestionsByQuiz.keySet());
+            List<QuestionRow> addedQuestions = List.copyOf(questions);
+            List<AnswerRow> addedAnswers = List.copyOf(answers);
+            TransactionUtil.afterCommit(() -> {
+                quizIds.forEach(contentCache.quizzes()::invalidate);
+                addedQuestions.forEach(question -> contentCache.questionValues().add(question.quizId(), question.value()));
+                for (AnswerRow answer : addedAnswers) {
+                    contentCache.answerIds().invalidate(answer.questionId());
+                    contentCache.answerValues().add(answer.questionId(), ContentCache.answerValueKey(answer.value()));
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.quiz_api_management.leaderboard;
+
+import com.example.quiz_api_management.common.ResponseReturn;
+import com.example.quiz_api_management.exception.NotFoundException;
+import com.example.quiz_api_management.exception.NotValidParamsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping(path = "/api/v1/")
+public class LeaderboardController {
+    private final LeaderboardService leaderboardService;
+
+    @Autowired
+    public LeaderboardController(LeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    // Best users of the quiz by their best attempt, top is between 1 and the size of the leaderboard (100 by default)
+    @GetMapping(path = "/quizzes/{quizid}/leaderboard")
+    public ResponseEntity<ResponseReturn> getLeaderboard(@PathVariable("quizid") int quizId,
+                                                         @RequestParam(value = "top", defaultValue = "10") int top) {
+        int maximumTop = leaderboardService.getTopSize();
+        if (top < 1 || top > maximumTop)
+            throw new NotValidParamsException("Top should be between 1 and " + maximumTop + ".");
+
+        QuizLeaderboard leaderboard = leaderboardService.getLeaderboard(quizId).orElseThrow(()
+                -> new NotFoundException("Quiz not found"));
+
+        List<LeaderboardRank> ranks = leaderboardService.top(leaderboard, top);
+        return new ResponseEntity<>(new ResponseReturn(
+                LocalDateTime.now(),
+                "Leaderboard of the quiz is returned.",
+                HttpStatus.OK.value(),
+                true,
+                ranks), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/quizzes/{quizid}/leaderboard/users/{userid}")
+    public ResponseEntity<ResponseReturn> getRank(@PathVariable("quizid") int quizId,
+                                                  @PathVariable("userid") int userId) {
+        QuizLeaderboard leaderboard = leaderboardService.getLeaderboard(quizId).orElseThrow(()
+                -> new NotFoundException("Quiz not found"));
+
+        LeaderboardRank rank = leaderboardService.rankOf(leaderboard, userId).orElseThrow(()
+                -> new NotFoundException("No attempt of the user for this quiz"));
+
+        return new ResponseEntity<>(new ResponseReturn(
+                LocalDateTime.now(),
+                "Rank of the user is returned.",
+                HttpStatus.OK.value(),
+                true,
+                rank), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.quiz_api_management.leaderboard;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+/*
+Best attempt of a user in a quiz. The score is kept in hundredths of a percent (0..10000),
+the bucket of the score in the histogram of QuizLeaderboard.
+ */
+public record LeaderboardEntry(int userId, int score, LocalDateTime submittedAt) {
+    // Highest score first, the earliest submission wins a tie, then the lowest user id so that entries are distinct
+    public static final Comparator<LeaderboardEntry> RANKING = Comparator
+            .comparingInt(LeaderboardEntry::score).reversed()
+            .thenComparing(LeaderboardEntry::submittedAt)
+            .thenComparingInt(LeaderboardEntry::userId);
+
+    // Attempt read from the database, with its score in percent
+    public LeaderboardEntry(int userId, double percent, LocalDateTime submittedAt) {
+        this(userId, toScore(percent), submittedAt);
+    }
+
+    public static int toScore(double percent) {
+        return (int) Math.max(0, Math.min(QuizLeaderboard.MAXIMUM_SCORE, Math.round(percent * 100)));
+    }
+
+    public double percent() {
+        return score / 100.0;
+    }
+}
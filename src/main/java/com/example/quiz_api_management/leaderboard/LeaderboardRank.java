@@ -0,0 +1,17 @@
+package com.example.quiz_api_management.leaderboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Rank of a user in a quiz with the score of the best attempt, in percent
+@Data
+@AllArgsConstructor
+public class LeaderboardRank {
+    private int userId;
+    private long rank;
+    private double score;
+    private LocalDateTime submittedAt;
+    private int participants;
+}
@@ -0,0 +1,33 @@
+package com.example.quiz_api_management.leaderboard;
+
+import com.example.quiz_api_management.attempt.Attempt;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+// Reads of stored attempts which rebuild the leaderboards, no attempt entity is loaded
+public interface LeaderboardRepository extends Repository<Attempt, Long> {
+    // Quizzes with attempts, the most recently attempted first
+    @Query(value = "SELECT attempt.quizId FROM Attempt attempt GROUP BY attempt.quizId ORDER BY MAX(attempt.submittedAt) DESC")
+    List<Integer> findRecentlyAttemptedQuizIds(Pageable pageable);
+
+    /*
+    Attempts of a quiz as a forward-only stream of (user id, score, submission time),
+    the leaderboard keeps the best one of every user. Fetched by chunks like the export.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT new com.example.quiz_api_management.leaderboard.LeaderboardEntry(" +
+            "attempt.userId, attempt.score, attempt.submittedAt) " +
+            "FROM Attempt attempt WHERE attempt.quizId = :quizId")
+    Stream<LeaderboardEntry> streamEntriesByQuizId(@Param("quizId") int quizId);
+}
@@ -0,0 +1,267 @@
+package com.example.quiz_api_management.leaderboard;
+
+import com.example.quiz_api_management.attempt.AttemptResult;
+import com.example.quiz_api_management.attempt.AttemptStore;
+import com.example.quiz_api_management.exception.ServiceUnavailableException;
+import com.example.quiz_api_management.quiz.QuizRepository;
+import com.example.quiz_api_management.util.TransactionUtil;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/*
+In-memory leaderboards of the quizzes, so top-K and rank queries do not sort attempts in SQL.
+
+A leaderboard is rebuilt from the stored attempts when it is first needed: after startup for the most recently
+attempted quizzes, otherwise on the first query of the quiz. Rebuilds run on their own threads, never on the startup
+or request threads: a query waits for the rebuild of its quiz up to leaderboard.load-timeout and is then answered
+with 503, the rebuild goes on and a retry finds the leaderboard. Graded attempts then update the loaded leaderboards
+directly.
+
+Memory is bounded by the number of leaderboards (leaderboard.maximum-quizzes) and by the number of users of all of
+them (leaderboard.maximum-users): the least recently read leaderboards are dropped, and rebuilt again if they are
+queried later. A quiz with more users than the whole budget is not kept, each query rebuilds it.
+
+An attempt is queued in AttemptStore before it is recorded here, and a leaderboard is registered before the queue
+is flushed and the attempts are read: an attempt graded during a rebuild is either read from the database
+or recorded live, recording the same attempt twice changes nothing.
+ */
+@Service
+public class LeaderboardService {
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+    // New participants recorded live between two checks of the users budget
+    private static final int USERS_CHECK_INTERVAL = 1024;
+
+    private final LeaderboardRepository leaderboardRepository;
+    private final QuizRepository quizRepository;
+    private final AttemptStore attemptStore;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int topSize;
+    private final int maximumQuizzes;
+    private final long maximumUsers;
+    private final int preloadQuizzes;
+    private final Duration loadTimeout;
+    private final ExecutorService rebuilder;
+    private final Map<Integer, LoadedLeaderboard> leaderboards = new ConcurrentHashMap<>();
+    private final AtomicInteger participantsSinceCheck = new AtomicInteger();
+
+    @Autowired
+    public LeaderboardService(LeaderboardRepository leaderboardRepository, QuizRepository quizRepository,
+                              AttemptStore attemptStore, PlatformTransactionManager transactionManager,
+                              @Value("${leaderboard.top-size:100}") int topSize,
+                              @Value("${leaderboard.maximum-quizzes:1000}") int maximumQuizzes,
+                              @Value("${leaderboard.maximum-users:1000000}") long maximumUsers,
+                              @Value("${leaderboard.preload-quizzes:100}") int preloadQuizzes,
+                              @Value("${leaderboard.load-timeout:5s}") Duration loadTimeout,
+                              @Value("${leaderboard.rebuild-threads:2}") int rebuildThreads) {
+        this.leaderboardRepository = leaderboardRepository;
+        this.quizRepository = quizRepository;
+        this.attemptStore = attemptStore;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.topSize = topSize;
+        this.maximumQuizzes = maximumQuizzes;
+        this.maximumUsers = maximumUsers;
+        this.preloadQuizzes = preloadQuizzes;
+        this.loadTimeout = loadTimeout;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.rebuilder = new ThreadPoolExecutor(rebuildThreads, rebuildThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "leaderboard-rebuilder-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public int getTopSize() {
+        return topSize;
+    }
+
+    /*
+    Rebuild the leaderboards of the most recently attempted quizzes, so the first queries after a restart are fast.
+    The quizzes are read and the leaderboards rebuilt on the rebuild threads, the startup does not wait for them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (preloadQuizzes <= 0)
+            return;
+        submit(() -> {
+            List<Integer> quizIds = leaderboardRepository.findRecentlyAttemptedQuizIds(
+                    PageRequest.of(0, Math.min(preloadQuizzes, maximumQuizzes)));
+            quizIds.forEach(this::load);
+            if (!quizIds.isEmpty())
+                logger.info("Preloading {} leaderboard(s)", quizIds.size());
+        });
+    }
+
+    // Only leaderboards in memory are updated, the others read the attempt from the database when they are rebuilt
+    public void record(AttemptResult result) {
+        LoadedLeaderboard loaded = leaderboards.get(result.getQuizId());
+        if (loaded != null
+                && loaded.leaderboard.update(new LeaderboardEntry(result.getUserId(), result.getScore(), result.getSubmittedAt()))
+                && participantsSinceCheck.incrementAndGet() % USERS_CHECK_INTERVAL == 0)
+            evictLeastRecentlyRead();
+    }
+
+    // The quiz is deleted, its attempts are kept in the database but it is not ranked anymore
+    public void removeQuiz(int quizId) {
+        TransactionUtil.afterCommit(() -> leaderboards.remove(quizId));
+    }
+
+    // Empty if the quiz does not exist
+    public Optional<QuizLeaderboard> getLeaderboard(int quizId) {
+        Optional<LoadedLeaderboard> loaded = load(quizId);
+        loaded.ifPresent(leaderboard -> {
+            leaderboard.awaitLoaded(loadTimeout);
+            leaderboard.lastRead = System.nanoTime();
+        });
+        return loaded.map(leaderboard -> leaderboard.leaderboard);
+    }
+
+    public List<LeaderboardRank> top(QuizLeaderboard leaderboard, int k) {
+        int participants = leaderboard.participants();
+        return leaderboard.top(k).stream()
+                .map(entry -> toRank(leaderboard, entry, participants))
+                .toList();
+    }
+
+    // Empty if the user has no attempt of the quiz
+    public Optional<LeaderboardRank> rankOf(QuizLeaderboard leaderboard, int userId) {
+        return Optional.ofNullable(leaderboard.get(userId))
+                .map(entry -> toRank(leaderboard, entry, leaderboard.participants()));
+    }
+
+    // Whether the leaderboard of the quiz is kept in memory
+    boolean isKept(int quizId) {
+        return leaderboards.containsKey(quizId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private LeaderboardRank toRank(QuizLeaderboard leaderboard, LeaderboardEntry entry, int participants) {
+        return new LeaderboardRank(entry.userId(), leaderboard.rankOf(entry.score()), entry.percent(),
+                entry.submittedAt(), participants);
+    }
+
+    // The leaderboard of the quiz, registered and scheduled to be rebuilt if it is not in memory. Empty if the quiz does not exist
+    private Optional<LoadedLeaderboard> load(int quizId) {
+        LoadedLeaderboard loaded = leaderboards.get(quizId);
+        if (loaded != null)
+            return Optional.of(loaded);
+        if (quizRepository.findVersionById(quizId).isEmpty())
+            return Optional.empty();
+        LoadedLeaderboard created = new LoadedLeaderboard(new QuizLeaderboard(topSize));
+        loaded = leaderboards.putIfAbsent(quizId, created);
+        if (loaded != null)
+            return Optional.of(loaded);
+        try {
+            submit(() -> rebuild(quizId, created));
+        } catch (RuntimeException exception) {
+            created.fail();
+            leaderboards.remove(quizId, created);
+        }
+        return Optional.of(created);
+    }
+
+    private void submit(Runnable task) {
+        try {
+            rebuilder.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException exception) {
+                    logger.error("Leaderboard could not be loaded", exception);
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            throw new ServiceUnavailableException("Leaderboard cannot be loaded for now, please retry.", 1);
+        }
+    }
+
+    private void rebuild(int quizId, LoadedLeaderboard loaded) {
+        try {
+            // Attempts still waiting in the queue are written first, so that they are read below
+            attemptStore.flush();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<LeaderboardEntry> entries = leaderboardRepository.streamEntriesByQuizId(quizId)) {
+                    entries.forEach(loaded.leaderboard::update);
+                }
+            });
+            // Before the readers are released, so that they find the leaderboards within the budget
+            evictLeastRecentlyRead();
+        } catch (RuntimeException exception) {
+            loaded.fail();
+            leaderboards.remove(quizId, loaded);
+            throw exception;
+        } finally {
+            loaded.loaded.countDown();
+        }
+    }
+
+    // Drop the least recently read leaderboards while there are too many of them or too many users in them
+    private synchronized void evictLeastRecentlyRead() {
+        long users = 0;
+        for (LoadedLeaderboard loaded : leaderboards.values())
+            users += loaded.leaderboard.participants();
+        while (!leaderboards.isEmpty() && (leaderboards.size() > maximumQuizzes || users > maximumUsers)) {
+            Map.Entry<Integer, LoadedLeaderboard> eldest = null;
+            for (Map.Entry<Integer, LoadedLeaderboard> entry : leaderboards.entrySet())
+                if (eldest == null || entry.getValue().lastRead < eldest.getValue().lastRead)
+                    eldest = entry;
+            if (eldest != null && leaderboards.remove(eldest.getKey(), eldest.getValue()))
+                users -= eldest.getValue().leaderboard.participants();
+        }
+    }
+
+    // A leaderboard with the state of its rebuild, readers wait until it holds every stored attempt
+    private static class LoadedLeaderboard {
+        private final QuizLeaderboard leaderboard;
+        private final CountDownLatch loaded = new CountDownLatch(1);
+        private volatile boolean failed;
+        private volatile long lastRead = System.nanoTime();
+
+        LoadedLeaderboard(QuizLeaderboard leaderboard) {
+            this.leaderboard = leaderboard;
+        }
+
+        void fail() {
+            failed = true;
+            loaded.countDown();
+        }
+
+        void awaitLoaded(Duration timeout) {
+            try {
+                loaded.await(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            if (failed || loaded.getCount() > 0)
+                throw new ServiceUnavailableException("Leaderboard cannot be loaded for now, please retry.", 1);
+        }
+    }
+}
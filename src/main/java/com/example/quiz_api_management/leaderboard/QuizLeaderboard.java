@@ -0,0 +1,104 @@
+package com.example.quiz_api_management.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+Leaderboard of one quiz, updated concurrently by the submissions and read without lock.
+
+- best: the best attempt of every user. Updates of one user are serialized by ConcurrentHashMap.compute,
+  updates of different users run in parallel.
+- top: the best entries in ranking order, in a ConcurrentSkipListSet trimmed to topSize entries (topCount).
+  A best score only goes up, so an entry pushed out of the top by better ones never has to come back.
+- histogram: number of users per score (hundredths of a percent) in a Fenwick tree of atomic counters,
+  so the rank of a user is 1 + the number of users with a higher score, in O(log 10001).
+  A reader concurrent with an update may see it half applied, ranks are exact once updates are done.
+
+Memory is one entry per user of the quiz plus the fixed histogram, LeaderboardService bounds the users
+of all the leaderboards it keeps.
+ */
+public class QuizLeaderboard {
+    public static final int MAXIMUM_SCORE = 10_000;
+
+    private final int topSize;
+    private final Map<Integer, LeaderboardEntry> best = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<LeaderboardEntry> top = new ConcurrentSkipListSet<>(LeaderboardEntry.RANKING);
+    private final AtomicInteger topCount = new AtomicInteger();
+    // Fenwick tree over scores 0..MAXIMUM_SCORE, node i is at index i + 1
+    private final AtomicLongArray histogram = new AtomicLongArray(MAXIMUM_SCORE + 2);
+
+    public QuizLeaderboard(int topSize) {
+        this.topSize = topSize;
+    }
+
+    /*
+    Keep the attempt if it is the best one of its user, the same attempt recorded twice is ignored.
+    True if it is the first attempt of its user, i.e. the leaderboard has one more participant.
+     */
+    public boolean update(LeaderboardEntry entry) {
+        // compute runs the function once, under the lock of the user
+        boolean[] added = new boolean[1];
+        best.compute(entry.userId(), (userId, previous) -> {
+            added[0] = previous == null;
+            if (previous != null && LeaderboardEntry.RANKING.compare(previous, entry) <= 0)
+                return previous;
+            if (previous != null) {
+                addToHistogram(previous.score(), -1);
+                if (top.remove(previous))
+                    topCount.decrementAndGet();
+            }
+            addToHistogram(entry.score(), 1);
+            if (top.add(entry))
+                topCount.incrementAndGet();
+            return entry;
+        });
+        // Each removal is claimed on the count before the poll, so writers crossing the limit together remove one entry each
+        int count;
+        while ((count = topCount.get()) > topSize) {
+            if (topCount.compareAndSet(count, count - 1))
+                top.pollLast();
+        }
+        return added[0];
+    }
+
+    // The k best users, k is at most the top size
+    public List<LeaderboardEntry> top(int k) {
+        List<LeaderboardEntry> entries = new ArrayList<>(Math.min(k, topSize));
+        Iterator<LeaderboardEntry> iterator = top.iterator();
+        while (entries.size() < k && iterator.hasNext())
+            entries.add(iterator.next());
+        return entries;
+    }
+
+    public LeaderboardEntry get(int userId) {
+        return best.get(userId);
+    }
+
+    // Competition ranking: users with the same score share a rank
+    public long rankOf(int score) {
+        return 1 + countUpTo(MAXIMUM_SCORE) - countUpTo(score);
+    }
+
+    public int participants() {
+        return best.size();
+    }
+
+    private void addToHistogram(int score, long delta) {
+        for (int index = score + 1; index < histogram.length(); index += index & -index)
+            histogram.addAndGet(index, delta);
+    }
+
+    // Number of users with a score lower than or equal to the given one
+    private long countUpTo(int score) {
+        long count = 0;
+        for (int index = score + 1; index > 0; index -= index & -index)
+            count += histogram.get(index);
+        return count;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.quiz_api_management.metrics;
+
+import com.example.quiz_api_management.attempt.AttemptStore;
+import com.example.quiz_api_management.cache.ContentCache;
+import com.example.quiz_api_management.cache.UserDetailsCache;
+import com.example.quiz_api_management.common.ResponseReturn;
+import com.example.quiz_api_management.user.PasswordHasher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+// Exposes counters of the in-process components (caches, queues...) for monitoring
+@RestController
+@RequestMapping(path = "/api/v1/metrics")
+public class MetricsController {
+    private final ContentCache contentCache;
+    private final AttemptStore attemptStore;
+    private final PasswordHasher passwordHasher;
+    private final UserDetailsCache userDetailsCache;
+
+    @Autowired
+    public MetricsController(ContentCache contentCache, AttemptStore attemptStore, PasswordHasher passwordHasher,
+                             UserDetailsCache userDetailsCache) {
+        this.contentCache = contentCache;
+        this.attemptStore = attemptStore;
+        this.passwordHasher = passwordHasher;
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @GetMapping(path = "/cache")
+    public ResponseEntity<ResponseReturn> getCacheStats() {
+        return new ResponseEntity<>(new ResponseReturn(
+                LocalDateTime.now(),
+                "Statistics of caches are returned.",
+                HttpStatus.OK.value(),
+                true,
+                contentCache.stats()), HttpStatus.OK);
+    }
+
+    // Hit ratio of the caches of UserDetails and roles used by authentication
+    @GetMapping(path = "/users")
+    public ResponseEntity<ResponseReturn> getUserCacheStats() {
+        return new ResponseEntity<>(new ResponseReturn(
+                LocalDateTime.now(),
+                "Statistics of user caches are returned.",
+                HttpStatus.OK.value(),
+                true,
+                userDetailsCache.stats()), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/duplicates")
+    public ResponseEntity<ResponseReturn> getDuplicateFilterStats() {
+        return new ResponseEntity<>(new ResponseReturn(
+                LocalDateTime.now(),
+                "Statistics of duplicate filters are returned.",
+                HttpStatus.OK.value(),
+                true,
+                contentCache.filterStats()), HttpStatus.OK);
+    }
+
+    // Depth of the write-behind queue of attempts, size and latency of its flushes
+    @GetMapping(path = "/attempts")
+    public ResponseEntity<ResponseReturn> getAttemptStoreStats() {
+        return new ResponseEntity<>(new ResponseReturn(
+                LocalDateTime.now(),
+                "Statistics of the attempt store are returned.",
+                HttpStatus.OK.value(),
+                true,
+                attemptStore.stats()), HttpStatus.OK);
+    }
+
+    // Queue wait and latency of the password hashes, and the sign-ins rejected while the hasher was saturated
+    @GetMapping(path = "/passwords")
+    public ResponseEntity<ResponseReturn> getPasswordHasherStats() {
+        return new ResponseEntity<>(new ResponseReturn(
+                LocalDateTime.now(),
+                "Statistics of the password hasher are returned.",
+                HttpStatus.OK.value(),
+                true,
+                passwordHasher.stats()), HttpStatus.OK);
+    }
+}
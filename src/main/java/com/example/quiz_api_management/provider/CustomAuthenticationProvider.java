@@ -1,5 +1,6 @@
 package com.example.quiz_api_management.provider;
 
+import com.example.quiz_api_management.user.PasswordHasher;
 import com.example.quiz_api_management.user.UserService;
 
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -8,8 +9,6 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 // This class exist to authenticate and check password with user data in database
@@ -17,11 +16,11 @@ import org.springframework.stereotype.Service;
 @Service
 public class CustomAuthenticationProvider implements AuthenticationProvider {
     private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
 
-    CustomAuthenticationProvider(UserService userService){
+    CustomAuthenticationProvider(UserService userService, PasswordHasher passwordHasher){
         this.userService = userService;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.passwordHasher = passwordHasher;
     }
 
     @Override
@@ -32,8 +31,9 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
         return checkPassword(userDetails, password);
     }
 
+    // BCrypt runs on the bounded PasswordHasher like the sign-in endpoint, a saturated hasher rejects with 503
     private Authentication checkPassword(UserDetails user, String rawPassword) {
-        if(passwordEncoder.matches(rawPassword, user.getPassword())) {
+        if(passwordHasher.matches(rawPassword, user.getPassword())) {
             return new UsernamePasswordAuthenticationToken(user.getUsername(),
                     user.getPassword(),
                     user.getAuthorities());
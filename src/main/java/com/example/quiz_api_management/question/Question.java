@@ -6,19 +6,30 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table (name="question")
+@Table (name="question", indexes = {
+        // Keyset pagination seeks on (sort key, id), with or without the filter on type
+        @Index(name = "idx_question_value", columnList = "value, id"),
+        @Index(name = "idx_question_type", columnList = "type, id"),
+        @Index(name = "idx_question_type_value", columnList = "type, value, id"),
+        /*
+        Duplicate probe of a value in a quiz. Values are unique per quiz, which is enforced by the index
+        uq_question_quiz_value of db/question_values.sql: declared here it would fail on data which already holds duplicates.
+         */
+        @Index(name = "idx_question_quiz_value", columnList = "quiz_id, value")
+})
 @Data
 public class Question {
     @Id
     @SequenceGenerator(
             name = "question_sequence",
             sequenceName = "question_sequence",
-            allocationSize = 1
+            allocationSize = 50
     )
 
     @GeneratedValue(
@@ -40,6 +51,11 @@ public class Question {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Version of the question and of its list of answers, used as ETag like Quiz.version
+    @Column(name = "version", nullable = false)
+    @ColumnDefault("0")
+    private long version;
+
     /*
     Cascade in Hibernate is the way to achieve dependent relationship (in this case, this relationship is aggregration).
     In this case we have relationship Question-Answer, if question is deleted completely, list of answers also are deleted.
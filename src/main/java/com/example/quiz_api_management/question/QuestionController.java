@@ -1,20 +1,27 @@
 package com.example.quiz_api_management.question;
 
+import com.example.quiz_api_management.common.BatchResult;
+import com.example.quiz_api_management.common.CursorReturn;
+import com.example.quiz_api_management.common.KeysetPage;
 import com.example.quiz_api_management.common.PaginationReturn;
+import com.example.quiz_api_management.common.RequiredFieldSignal;
 import com.example.quiz_api_management.common.ResponseReturn;
 import com.example.quiz_api_management.exception.DuplicateException;
 import com.example.quiz_api_management.exception.NotFoundException;
 import com.example.quiz_api_management.exception.NotValidParamsException;
 import com.example.quiz_api_management.quiz.Quiz;
 
+import com.example.quiz_api_management.util.ETagUtil;
 import com.example.quiz_api_management.util.RequestBodyError;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -23,18 +30,25 @@ import java.util.Optional;
 @RestController
 @RequestMapping(path="/api/v1/")
 public class QuestionController {
+    // Largest number of items of a bulk create
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final QuestionService questionService;
+    private final Validator validator;
 
     @Autowired
-    public QuestionController(QuestionService questionService) {
+    public QuestionController(QuestionService questionService, Validator validator) {
         this.questionService = questionService;
+        this.validator = validator;
     }
 
     @GetMapping(path="/questions")
-    public ResponseEntity<PaginationReturn> paginateQuestions(
+    public ResponseEntity<?> paginateQuestions(
             @RequestParam(value = "page", defaultValue = "1") int page,
             @RequestParam(value = "filter", required = false) String filterQuery,
-            @RequestParam(value = "sort", required = false) String sortQuery) {
+            @RequestParam(value = "sort", required = false) String sortQuery,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
 
         if (filterQuery != null){
             if(!questionService.checkLengthQueryParam(filterQuery))
@@ -52,6 +66,10 @@ public class QuestionController {
                 throw new NotValidParamsException("Option for sorting query does not exist.");
         }
 
+        // Cursor mode is used as soon as a cursor or a limit is given
+        if (after != null || limit != null)
+            return scrollQuestions(after, limit, filterQuery, sortQuery);
+
         Page<QuestionDTO> paginationQuestion = questionService.paginateQuestions(page, filterQuery, sortQuery);
         int currentPage = questionService.getCurrentPage(paginationQuestion);
         return new ResponseEntity<>(
@@ -70,33 +88,90 @@ public class QuestionController {
 
     }
 
+    /*
+    Keyset pagination: ?after=<cursor from previous page>&limit=<1..100>.
+    Filter and sort of the first page are carried by the cursor for the next pages.
+     */
+    private ResponseEntity<CursorReturn> scrollQuestions(String after, Integer limit, String filterQuery, String sortQuery) {
+        int defaultLimit = 10;
+        int maxLimit = 100;
+        int pageLimit = (limit != null) ? limit : defaultLimit;
+        if (pageLimit < 1 || pageLimit > maxLimit)
+            throw new NotValidParamsException("Limit should be between 1 and " + maxLimit + ".");
+
+        KeysetPage<QuestionDTO> questions = questionService.scrollQuestions(after, pageLimit, filterQuery, sortQuery);
+        return new ResponseEntity<>(
+                new CursorReturn(LocalDateTime.now(),
+                        "Pagination of questions is returned.",
+                        HttpStatus.OK.value(),
+                        true,
+                        questions.getContent(),
+                        questions.getContent().size(),
+                        questions.getNextCursor(),
+                        questions.hasNext()), HttpStatus.OK);
+    }
+
+    /*
+    n random questions (1..100) of a quiz or of the whole bank, optionally of one type.
+    With a seed, the same questions are returned in the same order as long as the pool does not change.
+     */
+    @GetMapping(path = "/questions/sample")
+    public ResponseEntity<ResponseReturn> sampleQuestions(
+            @RequestParam(value = "n") int n,
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "quizId", required = false) Integer quizId,
+            @RequestParam(value = "seed", required = false) Long seed) {
+        int maxSample = 100;
+        if (n < 1 || n > maxSample)
+            throw new NotValidParamsException("Sample size should be between 1 and " + maxSample + ".");
+
+        if (type != null) {
+            type = type.toLowerCase();
+            if (!questionService.checkValidTypeFilter(type))
+                throw new NotValidParamsException("Option for filtering query does not exist.");
+        }
+
+        if (quizId != null)
+            questionService.getQuizVersion(quizId).orElseThrow(() -> new NotFoundException("Quiz not found"));
+
+        List<QuestionDTO> questionsDTO = questionService.sampleQuestions(n, type, quizId, seed);
+        return new ResponseEntity<>(
+                new ResponseReturn(LocalDateTime.now(),
+                        "Sample of questions is returned.",
+                        HttpStatus.OK.value(),
+                        true,
+                        questionsDTO), HttpStatus.OK);
+    }
+
+    // Conditional GET, the ETag comes from the version of the quiz which is bumped whenever one of its questions changes
     @GetMapping(path = "/quiz/{quizid}/questions")
-    public ResponseEntity<ResponseReturn> getQuestionsByQuiz(@PathVariable("quizid") int quizId) {
+    public ResponseEntity<ResponseReturn> getQuestionsByQuiz(@PathVariable("quizid") int quizId, WebRequest webRequest) {
+        long version = questionService.getQuizVersion(quizId)
+                .orElseThrow(() -> new NotFoundException("Question not found"));
+        String eTag = ETagUtil.of("quiz-questions", quizId, version);
+        if (webRequest.checkNotModified(eTag))
+            return ETagUtil.notModified(eTag);
 
         Optional<Quiz> quiz = Optional.ofNullable(questionService.getQuizById(quizId)
                 .orElseThrow(() -> new NotFoundException("Question not found")));
 
         List<QuestionDTO> questionsDTO = questionService.getQuestionsByQuiz(quiz);
-        return new ResponseEntity<>(
-                new ResponseReturn(LocalDateTime.now(),
-                            "List of questions is returned.",
-                            HttpStatus.OK.value(),
-                            true,
-                            questionsDTO), HttpStatus.OK);
+        return ETagUtil.ok(eTag, "List of questions is returned.", questionsDTO);
     }
 
 
     @GetMapping(path = "/questions/{questionid}")
-    public ResponseEntity<ResponseReturn> getQuestion(@PathVariable("questionid") int questionId) {
+    public ResponseEntity<ResponseReturn> getQuestion(@PathVariable("questionid") int questionId, WebRequest webRequest) {
+        long version = questionService.getQuestionVersion(questionId)
+                .orElseThrow(() -> new NotFoundException("Question not found"));
+        String eTag = ETagUtil.of("question", questionId, version);
+        if (webRequest.checkNotModified(eTag))
+            return ETagUtil.notModified(eTag);
+
         Optional<QuestionDTO> questionDTO = Optional.ofNullable(questionService.getQuestion(questionId)
                 .orElseThrow(() -> new NotFoundException("Question not found")));
 
-        return new ResponseEntity<>(
-                new ResponseReturn(LocalDateTime.now(),
-                        "List of questions is returned.",
-                        HttpStatus.OK.value(),
-                        true,
-                        questionDTO), HttpStatus.OK);
+        return ETagUtil.ok(eTag, "List of questions is returned.", questionDTO);
     }
 
 
@@ -107,13 +182,13 @@ public class QuestionController {
         Optional<Quiz> quiz = Optional.ofNullable(questionService.getQuizById(quizId)
                 .orElseThrow(() -> new NotFoundException("Question not found")));
 
-        if (questionService.notExistQuestion(quiz, reqBody).isPresent())
-            throw new DuplicateException("Duplicate value found.");
-
         if (bindingResult.hasErrors()) {
             return RequestBodyError.returnRequiredFields(bindingResult);
         }
 
+        if (questionService.existQuestion(quizId, reqBody.getValue()))
+            throw new DuplicateException("Duplicate value found.");
+
         QuestionDTO newQuestion = questionService.createQuestion(quiz, reqBody);
         return new ResponseEntity<>(new ResponseReturn(
                 LocalDateTime.now(),
@@ -124,15 +199,45 @@ public class QuestionController {
     }
 
 
+    /*
+    Bulk create of questions, the body is a list of questions. The whole list is validated first,
+    then every item gets its result (created with its id, or duplicate) in the order of the list.
+     */
+    @PostMapping(path = "/quiz/{quizid}/questions:batch")
+    public ResponseEntity<ResponseReturn> createQuestions(@PathVariable("quizid") int quizId,
+                                                          @RequestBody List<QuestionDTO> reqBody){
+        Quiz quiz = questionService.getQuizById(quizId)
+                .orElseThrow(() -> new NotFoundException("Quiz not found"));
+
+        if (reqBody.isEmpty() || reqBody.size() > MAX_BATCH_SIZE)
+            throw new NotValidParamsException("Number of questions should be between 1 and " + MAX_BATCH_SIZE + ".");
+
+        List<RequiredFieldSignal> requiredFieldSignals = RequestBodyError.validateItems(validator, reqBody);
+        if (!requiredFieldSignals.isEmpty())
+            return RequestBodyError.returnRequiredFields(requiredFieldSignals);
+
+        BatchResult result = questionService.createQuestions(quiz, reqBody);
+        HttpStatus status = result.getCreated() > 0 ? HttpStatus.CREATED : HttpStatus.OK;
+        return new ResponseEntity<>(new ResponseReturn(
+                LocalDateTime.now(),
+                result.getCreated() + " question(s) are added, " + result.getRejected() + " rejected.",
+                status.value(),
+                true,
+                result), status);
+    }
+
     @PutMapping(path = "/questions/{questionid}")
     public ResponseEntity<ResponseReturn> updateQuestion(@PathVariable("questionid") int questionId,
                                                          @RequestBody QuestionDTO reqBody,
                                                          BindingResult bindingResult){
+        QuestionDTO currentQuestion = questionService.getQuestion(questionId).orElseThrow(()
+                -> new NotFoundException("Question not found"));
+
         if (bindingResult.hasErrors()) {
             return RequestBodyError.returnRequiredFields(bindingResult);
         }
 
-        QuestionDTO newQuestion = questionService.updateQuestion(questionId, reqBody);
+        QuestionDTO newQuestion = questionService.updateQuestion(currentQuestion, reqBody);
         return new ResponseEntity<>(new ResponseReturn(
                 LocalDateTime.now(),
                 "New question is added",
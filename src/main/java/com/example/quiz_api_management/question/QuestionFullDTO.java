@@ -0,0 +1,20 @@
+package com.example.quiz_api_management.question;
+
+import com.example.quiz_api_management.answer.AnswerDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// A question nested in QuizFullDTO, together with its answers
+@AllArgsConstructor
+@Data
+public class QuestionFullDTO {
+    private int id;
+    private String value;
+    private String type;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<AnswerDTO> answers;
+}
@@ -4,7 +4,12 @@ import com.example.quiz_api_management.quiz.Quiz;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,7 +18,86 @@ public interface QuestionRepository extends JpaRepository<Question, Integer> {
 
     List<Question> findQuestionsByQuiz(Optional<Quiz> quiz);
 
+    @Query(value = "SELECT question.id FROM Question question WHERE question.quiz.id = :quizId ORDER BY question.id")
+    List<Integer> findIdsByQuizId(@Param("quizId") int quizId);
+
+    /*
+    Ids only, ordered so that a pool of QuestionSampler is the same array for the same questions
+    and a seeded sample is reproducible.
+     */
+    @Query(value = "SELECT question.id FROM Question question ORDER BY question.id")
+    List<Integer> findAllIds();
+
+    @Query(value = "SELECT question.id FROM Question question WHERE question.type = :type ORDER BY question.id")
+    List<Integer> findIdsByType(@Param("type") String type);
+
+    @Query(value = "SELECT question.id FROM Question question WHERE question.quiz.id = :quizId AND question.type = :type " +
+            "ORDER BY question.id")
+    List<Integer> findIdsByQuizIdAndType(@Param("quizId") int quizId, @Param("type") String type);
+
+    // Sampled questions read as DTOs in one statement, neither the questions nor their quizzes are loaded as entities
+    @Query(value = "SELECT new com.example.quiz_api_management.question.QuestionDTO(question.id, question.value, question.type, " +
+            "question.createdAt, question.updatedAt, question.quiz.id) FROM Question question WHERE question.id IN :ids")
+    List<QuestionDTO> findDTOsByIds(@Param("ids") Collection<Integer> ids);
+
+    // Values only, to build the duplicate filter of a quiz without loading its questions
+    @Query(value = "SELECT question.value FROM Question question WHERE question.quiz.id = :quizId")
+    List<String> findValuesByQuizId(@Param("quizId") int quizId);
+
+    // Values of the list which are already taken in the quiz, duplicate check of a bulk create in one query
+    @Query(value = "SELECT question.value FROM Question question WHERE question.quiz.id = :quizId AND question.value IN :values")
+    List<String> findExistingValues(@Param("quizId") int quizId, @Param("values") Collection<String> values);
+
+    // Existence probe on the index (quiz_id, value)
+    @Query(value = "SELECT COUNT(question) > 0 FROM Question question WHERE question.quiz.id = :quizId AND question.value = :value")
+    boolean existsByQuizIdAndValue(@Param("quizId") int quizId, @Param("value") String value);
+
+    // Version of the question alone, it also tags the list of its answers
+    @Query(value = "SELECT question.version FROM Question question WHERE question.id = :questionId")
+    Optional<Long> findVersionById(@Param("questionId") int questionId);
+
+    @Modifying
+    @Query(value = "UPDATE Question question SET question.value = :value, question.type = :type, " +
+            "question.updatedAt = :updatedAt, question.version = question.version + 1 WHERE question.id = :questionId")
+    int updateValueAndType(@Param("questionId") int questionId, @Param("value") String value,
+                           @Param("type") String type, @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Bump the version when an answer of the question is added, modified or deleted
+    @Modifying
+    @Query(value = "UPDATE Question question SET question.version = question.version + 1 WHERE question.id = :questionId")
+    int incrementVersion(@Param("questionId") int questionId);
+
     Page<Question> findQuestionByType(String type, Pageable pageable);
 
+    /*
+    Queries for keyset pagination. They return a List so that no count query is issued,
+    and seek past the (sort key, id) of the last row of the previous page instead of skipping OFFSET rows.
+     */
+    List<Question> findAllBy(Pageable pageable);
+
+    List<Question> findByType(String type, Pageable pageable);
+
+    List<Question> findByIdGreaterThan(int id, Pageable pageable);
+
+    List<Question> findByTypeAndIdGreaterThan(String type, int id, Pageable pageable);
+
+    // Seek on (value, id), value is not nullable, see QuizRepository.seekByTypeAsc
+    @Query(value = "SELECT question FROM Question question WHERE question.value > :value " +
+            "OR (question.value = :value AND question.id > :id) ORDER BY question.value ASC, question.id ASC")
+    List<Question> seekByValueAsc(@Param("value") String value, @Param("id") int id, Pageable pageable);
+
+    @Query(value = "SELECT question FROM Question question WHERE question.value < :value " +
+            "OR (question.value = :value AND question.id < :id) ORDER BY question.value DESC, question.id DESC")
+    List<Question> seekByValueDesc(@Param("value") String value, @Param("id") int id, Pageable pageable);
+
+    @Query(value = "SELECT question FROM Question question WHERE question.type = :type AND (question.value > :value " +
+            "OR (question.value = :value AND question.id > :id)) ORDER BY question.value ASC, question.id ASC")
+    List<Question> seekByTypeAndValueAsc(@Param("type") String type, @Param("value") String value,
+                                         @Param("id") int id, Pageable pageable);
+
+    @Query(value = "SELECT question FROM Question question WHERE question.type = :type AND (question.value < :value " +
+            "OR (question.value = :value AND question.id < :id)) ORDER BY question.value DESC, question.id DESC")
+    List<Question> seekByTypeAndValueDesc(@Param("type") String type, @Param("value") String value,
+                                          @Param("id") int id, Pageable pageable);
 
 }
@@ -0,0 +1,96 @@
+package com.example.quiz_api_management.question;
+
+import com.example.quiz_api_management.util.PartialShuffle;
+import com.example.quiz_api_management.util.TransactionUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/*
+Random sampling of question ids without reading the questions.
+
+The ids of a pool (a quiz or the whole bank, with or without a type) are cached in a dense sorted array,
+loaded with one query of ids. A sample of n ids is then the first n ids of a shuffle of this array (PartialShuffle),
+so it costs O(n) whatever the size of the pool.
+With the same seed and the same pool, the same ids are returned in the same order.
+
+Pools are bounded like DtoCache (least recently sampled pools are dropped) and follow its generation rule:
+an array loaded while questions changed is not cached.
+ */
+@Component
+public class QuestionSampler {
+    private final QuestionRepository questionRepository;
+    private final int maximumPools;
+    private final LinkedHashMap<Pool, int[]> pools = new LinkedHashMap<>(16, 0.75f, true);
+    private long generation = 0;
+
+    @Autowired
+    public QuestionSampler(QuestionRepository questionRepository,
+                           @Value("${questions.sampler.maximum-pools:1000}") int maximumPools) {
+        this.questionRepository = questionRepository;
+        this.maximumPools = maximumPools;
+    }
+
+    // quizId and type are null when the pool is not restricted to a quiz or to a type
+    public List<Integer> sample(int n, String type, Integer quizId, Long seed) {
+        int[] ids = getOrLoad(new Pool(quizId, type));
+        Random random = (seed != null) ? new Random(seed) : ThreadLocalRandom.current();
+        return Arrays.stream(PartialShuffle.first(ids, n, random)).boxed().toList();
+    }
+
+    // Pools of the quiz and of the whole bank change when a question of the quiz is created, deleted or retyped
+    public void invalidateQuiz(int quizId) {
+        TransactionUtil.afterCommit(() -> invalidateIf(pool -> pool.quizId() == null || pool.quizId() == quizId));
+    }
+
+    // Questions written outside of the services (bulk import)
+    public void invalidateAll() {
+        TransactionUtil.afterCommit(() -> invalidateIf(pool -> true));
+    }
+
+    private synchronized void invalidateIf(Predicate<Pool> predicate) {
+        generation++;
+        pools.keySet().removeIf(predicate);
+    }
+
+    private int[] getOrLoad(Pool pool) {
+        long loadGeneration;
+        synchronized (this) {
+            int[] ids = pools.get(pool);
+            if (ids != null)
+                return ids;
+            loadGeneration = generation;
+        }
+
+        // The query runs outside the lock, a large pool does not block samples of the other pools
+        int[] ids = loadIds(pool).stream().mapToInt(Integer::intValue).toArray();
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                pools.put(pool, ids);
+                if (pools.size() > maximumPools) {
+                    Iterator<Pool> eldest = pools.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+        return ids;
+    }
+
+    private List<Integer> loadIds(Pool pool) {
+        if (pool.quizId() != null)
+            return (pool.type() != null)
+                    ? questionRepository.findIdsByQuizIdAndType(pool.quizId(), pool.type())
+                    : questionRepository.findIdsByQuizId(pool.quizId());
+        return (pool.type() != null)
+                ? questionRepository.findIdsByType(pool.type())
+                : questionRepository.findAllIds();
+    }
+
+    private record Pool(Integer quizId, String type) {
+    }
+}
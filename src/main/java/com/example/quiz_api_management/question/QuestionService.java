@@ -1,19 +1,28 @@
 package com.example.quiz_api_management.question;
 
+import com.example.quiz_api_management.attempt.AnswerKeyRegistry;
+import com.example.quiz_api_management.cache.ContentCache;
+import com.example.quiz_api_management.common.BatchItemResult;
+import com.example.quiz_api_management.common.BatchResult;
+import com.example.quiz_api_management.common.KeysetCursor;
+import com.example.quiz_api_management.common.KeysetPage;
 import com.example.quiz_api_management.common.OrderSort;
+import com.example.quiz_api_management.exception.NotFoundException;
+import com.example.quiz_api_management.exception.NotValidParamsException;
 import com.example.quiz_api_management.quiz.Quiz;
 import com.example.quiz_api_management.quiz.QuizRepository;
+import com.example.quiz_api_management.search.SearchIndexService;
+import com.example.quiz_api_management.stats.QuestionStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 public class QuestionService {
@@ -21,17 +30,38 @@ public class QuestionService {
     private final QuestionRepository questionRepository;
     private final QuizRepository quizRepository;
     private final QuestionDTOMapper questionDTOMapper;
+    private final ContentCache contentCache;
+    private final SearchIndexService searchIndexService;
+    private final QuestionSampler questionSampler;
+    private final AnswerKeyRegistry answerKeyRegistry;
+    private final QuestionStatsService questionStatsService;
     @Autowired
-    public QuestionService(QuestionRepository questionRepository, QuizRepository quizRepository, QuestionDTOMapper questionDTOMapper){
+    public QuestionService(QuestionRepository questionRepository, QuizRepository quizRepository, QuestionDTOMapper questionDTOMapper,
+                           ContentCache contentCache, SearchIndexService searchIndexService, QuestionSampler questionSampler,
+                           AnswerKeyRegistry answerKeyRegistry, QuestionStatsService questionStatsService){
         this.questionRepository = questionRepository;
         this.quizRepository = quizRepository;
         this.questionDTOMapper = questionDTOMapper;
+        this.contentCache = contentCache;
+        this.searchIndexService = searchIndexService;
+        this.questionSampler = questionSampler;
+        this.answerKeyRegistry = answerKeyRegistry;
+        this.questionStatsService = questionStatsService;
     }
 
     public Optional<Quiz> getQuizById(int quizId){
         return quizRepository.findById(quizId);
     }
 
+    // Version of a quiz covers its list of questions
+    public Optional<Long> getQuizVersion(int quizId){
+        return quizRepository.findVersionById(quizId);
+    }
+
+    public Optional<Long> getQuestionVersion(int questionId){
+        return questionRepository.findVersionById(questionId);
+    }
+
     public List<QuestionDTO> getQuestionsByQuiz(Optional<Quiz> quiz){
         return questionRepository.findQuestionsByQuiz(quiz)
                 .stream()
@@ -39,44 +69,136 @@ public class QuestionService {
                 .toList();
     }
 
+    // The question read by the controller before an update is the one passed to updateQuestion
     public Optional<QuestionDTO> getQuestion(int questionId) {
-        return questionRepository.findById(questionId).map(questionDTOMapper);
+        return contentCache.questions().get(questionId, id -> questionRepository.findById(id).map(questionDTOMapper));
     }
 
-    public Optional<Question> notExistQuestion(Optional<Quiz> paramQuiz, QuestionDTO reqBody){
-        List<Question> questions = questionRepository.findQuestionsByQuiz(paramQuiz);
-        return questions
-                .stream()
-                .filter(question -> (Objects.equals(reqBody.getValue(), question.getValue())))
-                .findAny();
+    /*
+    Duplicate check of a value among the questions of a quiz, without loading them.
+    The filter of the quiz answers most new values alone, a possible duplicate is confirmed by an indexed probe.
+     */
+    public boolean existQuestion(int quizId, String value){
+        return contentCache.questionValues().exists(quizId, value,
+                questionRepository::findValuesByQuizId,
+                questionRepository::existsByQuizIdAndValue);
     }
 
+    /*
+    The question and the question counter of its quiz are written in one transaction,
+    so QuizDTO.questionCount and sorting by count never drift from the question table.
+     */
+    @Transactional
     public QuestionDTO createQuestion(Optional<Quiz> paramQuiz, QuestionDTO reqBody){
         Quiz quiz = paramQuiz.get();
-        Question addedQuestion = new Question(reqBody.getValue(), reqBody.getType(), quiz);
-        questionRepository.save(addedQuestion);
-        List<Question> questions = questionRepository.findQuestionsByQuiz(Optional.of(quiz)).stream().toList();
-        return questions.stream()
-                .filter(question -> (Objects.equals(question.getValue(), reqBody.getValue())))
-                .findAny()
-                .map(questionDTOMapper).get();
+        // The saved entity already holds its id, the siblings are not read back to find it
+        Question addedQuestion = questionRepository.save(new Question(reqBody.getValue(), reqBody.getType(), quiz));
+        quizRepository.incrementQuestionCount(quiz.getId(), 1);
+        // Cached quiz holds the previous question count
+        contentCache.evictQuiz(quiz.getId());
+        contentCache.addQuestionValue(quiz.getId(), addedQuestion.getValue());
+        questionSampler.invalidateQuiz(quiz.getId());
+        answerKeyRegistry.invalidateQuiz(quiz.getId());
+        QuestionDTO createdQuestion = questionDTOMapper.apply(addedQuestion);
+        searchIndexService.indexQuestion(createdQuestion);
+        return createdQuestion;
+    }
+
+
+    /*
+    n random questions of a quiz or of the whole bank, optionally of one type.
+    Only n ids are drawn from the cached pool and only these questions are read, in the order of the draw.
+     */
+    public List<QuestionDTO> sampleQuestions(int n, String type, Integer quizId, Long seed){
+        List<Integer> ids = questionSampler.sample(n, type, quizId, seed);
+        if (ids.isEmpty())
+            return List.of();
+        Map<Integer, QuestionDTO> questions = new HashMap<>();
+        questionRepository.findDTOsByIds(ids).forEach(question -> questions.put(question.getId(), question));
+        // A question deleted since the pool was loaded is skipped
+        return ids.stream().map(questions::get).filter(Objects::nonNull).toList();
     }
 
+    /*
+    Bulk create in one transaction. Duplicates, already in the quiz or repeated in the request,
+    are found with one query for the whole request and reported per item. The other questions are
+    inserted in JDBC batches (hibernate.jdbc.batch_size) with ids of the sequence block in memory,
+    and the counter of the quiz is increased once.
+     */
+    @Transactional
+    public BatchResult createQuestions(Quiz quiz, List<QuestionDTO> reqBody){
+        Set<String> values = new HashSet<>();
+        reqBody.forEach(question -> values.add(question.getValue()));
+        Set<String> existingValues = new HashSet<>(questionRepository.findExistingValues(quiz.getId(), values));
+
+        BatchItemResult[] items = new BatchItemResult[reqBody.size()];
+        Map<Integer, Question> addedQuestions = new LinkedHashMap<>();
+        Set<String> requestValues = new HashSet<>();
+        for (int index = 0; index < reqBody.size(); index++) {
+            QuestionDTO question = reqBody.get(index);
+            if (existingValues.contains(question.getValue()))
+                items[index] = BatchItemResult.duplicate(index, "Duplicate value found.");
+            else if (!requestValues.add(question.getValue()))
+                items[index] = BatchItemResult.duplicate(index, "Duplicate value in the request.");
+            else
+                addedQuestions.put(index, new Question(question.getValue(), question.getType(), quiz));
+        }
 
-    public QuestionDTO updateQuestion(int questionId, QuestionDTO reqBody){
-        Optional<Question> optionalQuestion = questionRepository.findById(questionId);
-        Question question = optionalQuestion.get();
-        question.setValue(reqBody.getValue());
-        question.setType(reqBody.getType());
-        question.setUpdatedAt(LocalDateTime.now());
-        questionRepository.save(question);
-        Optional<Question> newQuestion = questionRepository.findById(questionId);
-        return newQuestion.isPresent() ? newQuestion.map(questionDTOMapper).get() : null;
+        if (!addedQuestions.isEmpty()) {
+            questionRepository.saveAll(addedQuestions.values());
+            quizRepository.incrementQuestionCount(quiz.getId(), addedQuestions.size());
+            contentCache.evictQuiz(quiz.getId());
+            questionSampler.invalidateQuiz(quiz.getId());
+            answerKeyRegistry.invalidateQuiz(quiz.getId());
+            addedQuestions.forEach((index, question) -> {
+                items[index] = BatchItemResult.created(index, question.getId());
+                contentCache.addQuestionValue(quiz.getId(), question.getValue());
+                searchIndexService.indexQuestion(questionDTOMapper.apply(question));
+            });
+        }
+        return new BatchResult(Arrays.asList(items));
     }
 
+    /*
+    The question read by the controller is not loaded again: one UPDATE for the question and one for the version
+    of its quiz, which covers the list of its questions. A question deleted since then is not updated, and not found.
+     */
+    @Transactional
+    public QuestionDTO updateQuestion(QuestionDTO currentQuestion, QuestionDTO reqBody){
+        int questionId = currentQuestion.getId();
+        int quizId = currentQuestion.getQuizId();
+        LocalDateTime updatedAt = LocalDateTime.now();
+        if (questionRepository.updateValueAndType(questionId, reqBody.getValue(), reqBody.getType(), updatedAt) == 0)
+            throw new NotFoundException("Question not found");
+        quizRepository.incrementVersion(quizId);
+        contentCache.evictQuestion(questionId);
+        contentCache.addQuestionValue(quizId, reqBody.getValue());
+        if (!Objects.equals(currentQuestion.getType(), reqBody.getType()))
+            questionSampler.invalidateQuiz(quizId);
+        QuestionDTO updatedQuestion = new QuestionDTO(
+                questionId,
+                reqBody.getValue(),
+                reqBody.getType(),
+                currentQuestion.getCreatedAt(),
+                updatedAt,
+                quizId);
+        searchIndexService.indexQuestion(updatedQuestion);
+        return updatedQuestion;
+    }
 
+
+    @Transactional
     public void deleteQuestion(int questionId){
-        questionRepository.deleteById(questionId);
+        questionRepository.findById(questionId).ifPresent(question -> {
+            questionRepository.delete(question);
+            quizRepository.incrementQuestionCount(question.getQuiz().getId(), -1);
+            contentCache.evictQuestionCascade(questionId);
+            contentCache.evictQuiz(question.getQuiz().getId());
+            searchIndexService.removeQuestion(questionId);
+            questionSampler.invalidateQuiz(question.getQuiz().getId());
+            answerKeyRegistry.invalidateQuiz(question.getQuiz().getId());
+            questionStatsService.removeQuestions(List.of(questionId));
+        });
     }
 
 
@@ -94,6 +216,51 @@ public class QuestionService {
         return filterPageRequest(pageable, filterQuery);
     }
 
+    // Cursor mode of pagination, filter and sort come from the cursor once the listing has started
+
+    public KeysetPage<QuestionDTO> scrollQuestions(String after, int limit, String filterQuery, String sortQuery){
+        KeysetCursor cursor = (after != null) ? KeysetCursor.decode(after) : null;
+        String filter = (cursor != null) ? cursor.getFilter() : (filterQuery != null ? filterQuery.toLowerCase() : null);
+        String sort = (cursor != null) ? cursor.getSort() : (sortQuery != null ? sortQuery.toLowerCase() : null);
+        if (filter != null && !checkValidTypeFilter(filter))
+            throw new NotValidParamsException("Option for filtering query does not exist.");
+        if (sort != null && !checkValidValueSort(sort))
+            throw new NotValidParamsException("Option for sorting query does not exist.");
+
+        return KeysetPage.of(seekQuestions(cursor, filter, sort, limit + 1), limit,
+                last -> new KeysetCursor(sort, filter, (sort != null) ? last.getValue() : null, last.getId()),
+                questions -> questions.stream().map(questionDTOMapper).toList());
+    }
+
+    private List<Question> seekQuestions(KeysetCursor cursor, String filter, String sort, int size){
+        if (sort == null) {
+            Pageable byId = PageRequest.of(0, size, Sort.by("id"));
+            if (cursor == null)
+                return (filter != null) ? questionRepository.findByType(filter, byId) : questionRepository.findAllBy(byId);
+            return (filter != null)
+                    ? questionRepository.findByTypeAndIdGreaterThan(filter, cursor.getId(), byId)
+                    : questionRepository.findByIdGreaterThan(cursor.getId(), byId);
+        }
+
+        boolean ascending = Objects.equals(sort.split(",")[1], OrderSort.ASC.levelOrder);
+        if (cursor == null) {
+            Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+            Pageable byValue = PageRequest.of(0, size, Sort.by(direction, "value").and(Sort.by(direction, "id")));
+            return (filter != null) ? questionRepository.findByType(filter, byValue) : questionRepository.findAllBy(byValue);
+        }
+        if (cursor.getKey() == null)
+            throw new NotValidParamsException("Cursor is not valid.");
+
+        Pageable window = PageRequest.of(0, size);
+        if (filter != null)
+            return ascending
+                    ? questionRepository.seekByTypeAndValueAsc(filter, cursor.getKey(), cursor.getId(), window)
+                    : questionRepository.seekByTypeAndValueDesc(filter, cursor.getKey(), cursor.getId(), window);
+        return ascending
+                ? questionRepository.seekByValueAsc(cursor.getKey(), cursor.getId(), window)
+                : questionRepository.seekByValueDesc(cursor.getKey(), cursor.getId(), window);
+    }
+
     public Page<QuestionDTO> filterPageRequest(Pageable pageable, String filterType){
         if (filterType != null)
             return questionRepository.findQuestionByType(filterType.toLowerCase(), pageable).map(questionDTOMapper);
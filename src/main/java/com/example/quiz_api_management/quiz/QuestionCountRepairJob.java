@@ -0,0 +1,38 @@
+package com.example.quiz_api_management.quiz;
+
+import com.example.quiz_api_management.cache.ContentCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/*
+This job rebuilds Quiz.questionCount from the question table.
+Counters are kept up to date by QuestionService, but rows written outside of it
+(seeding, manual SQL, bulk loads) can leave them behind, so the job runs on a schedule and can be invoked directly.
+Cached quizzes hold the counters before the repair, they are evicted when a counter was rewritten.
+ */
+@Component
+public class QuestionCountRepairJob {
+    private static final Logger logger = LoggerFactory.getLogger(QuestionCountRepairJob.class);
+    private final QuizRepository quizRepository;
+    private final ContentCache contentCache;
+
+    @Autowired
+    public QuestionCountRepairJob(QuizRepository quizRepository, ContentCache contentCache) {
+        this.quizRepository = quizRepository;
+        this.contentCache = contentCache;
+    }
+
+    // Default is every night at 3 AM, it can be changed with property quiz.question-count.repair-cron
+    @Scheduled(cron = "${quiz.question-count.repair-cron:0 0 3 * * *}")
+    public int repair() {
+        int repairedQuizzes = quizRepository.rebuildQuestionCounts();
+        if (repairedQuizzes > 0) {
+            contentCache.evictAllQuizzes();
+            logger.info("Repaired question count of {} quiz(zes)", repairedQuizzes);
+        }
+        return repairedQuizzes;
+    }
+}
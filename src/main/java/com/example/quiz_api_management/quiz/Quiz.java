@@ -4,20 +4,27 @@ import com.example.quiz_api_management.question.Question;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.Getter;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "quiz")
+@Table(name = "quiz", indexes = {
+        // Sorting by number of questions seeks on this index instead of counting questions per row
+        @Index(name = "idx_quiz_question_count", columnList = "question_count, id"),
+        // Keyset pagination sorted by type seeks on (type, id)
+        @Index(name = "idx_quiz_type", columnList = "type, id")
+})
 @Getter
 @Setter
 public class Quiz {
     @Id
     @SequenceGenerator(
             name = "quiz_sequence",
-            allocationSize = 1
+            sequenceName = "quiz_sequence",
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -37,6 +44,22 @@ public class Quiz {
     @JsonBackReference
     private List<Question> questions;
 
+    /*
+    Denormalized number of questions of this quiz. It is maintained in the same transaction
+    by the create and delete paths of QuestionService, so reading it never loads the questions.
+     */
+    @Column(name = "question_count", nullable = false)
+    @ColumnDefault("0")
+    private int questionCount;
+
+    /*
+    Version of the quiz and of its list of questions, it is the ETag of GET /quizzes/{id} and GET /quiz/{id}/questions.
+    It is not a JPA @Version: it is also bumped by the bulk statements of QuestionService, which skip optimistic locking.
+     */
+    @Column(name = "version", nullable = false)
+    @ColumnDefault("0")
+    private long version;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     @Column(name = "updated_at")
@@ -45,6 +68,7 @@ public class Quiz {
     public Quiz(String value, String type) {
         this.value = value;
         this.type = type;
+        this.questionCount = 0;
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
@@ -59,6 +83,8 @@ public class Quiz {
                 ", value='" + value + '\'' +
                 ", type='" + type + '\'' +
                 ", questions=" + questions +
+                ", questionCount=" + questionCount +
+                ", version=" + version +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
                 '}';
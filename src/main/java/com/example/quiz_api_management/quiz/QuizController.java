@@ -1,10 +1,13 @@
 package com.example.quiz_api_management.quiz;
 
+import com.example.quiz_api_management.common.CursorReturn;
+import com.example.quiz_api_management.common.KeysetPage;
 import com.example.quiz_api_management.common.PaginationReturn;
 import com.example.quiz_api_management.common.ResponseReturn;
 import com.example.quiz_api_management.exception.DuplicateException;
 import com.example.quiz_api_management.exception.NotFoundException;
 import com.example.quiz_api_management.exception.NotValidParamsException;
+import com.example.quiz_api_management.util.ETagUtil;
 import com.example.quiz_api_management.util.RequestBodyError;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +16,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -28,9 +32,15 @@ public class QuizController {
     }
 
     @GetMapping(path = "/quizzes")
-    public ResponseEntity<PaginationReturn> paginateQuizzes(
+    public ResponseEntity<?> paginateQuizzes(
             @RequestParam(value = "page", defaultValue = "1") int page,
-            @RequestParam(value = "sort", required = false) String sortQuery) {
+            @RequestParam(value = "sort", required = false) String sortQuery,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+
+        // Cursor mode is used as soon as a cursor or a limit is given
+        if (after != null || limit != null)
+            return scrollQuizzes(after, limit, sortQuery);
 
         if (sortQuery == null)
             throw new NotValidParamsException("Query for sorting is null");
@@ -54,17 +64,63 @@ public class QuizController {
                         paginationQuiz.hasPrevious()), HttpStatus.OK);
     }
 
+    /*
+    Keyset pagination: ?after=<cursor from previous page>&limit=<1..100>.
+    Sort is optional (rows are ordered by id otherwise) and is carried by the cursor for the next pages.
+     */
+    private ResponseEntity<CursorReturn> scrollQuizzes(String after, Integer limit, String sortQuery) {
+        int defaultLimit = 10;
+        int maxLimit = 100;
+        int pageLimit = (limit != null) ? limit : defaultLimit;
+        if (pageLimit < 1 || pageLimit > maxLimit)
+            throw new NotValidParamsException("Limit should be between 1 and " + maxLimit + ".");
+
+        KeysetPage<QuizDTO> quizzes = quizService.scrollQuizzes(after, pageLimit, sortQuery);
+        return new ResponseEntity<>(
+                new CursorReturn(LocalDateTime.now(),
+                        "Pagination of quizzes is returned.",
+                        HttpStatus.OK.value(),
+                        true,
+                        quizzes.getContent(),
+                        quizzes.getContent().size(),
+                        quizzes.getNextCursor(),
+                        quizzes.hasNext()), HttpStatus.OK);
+    }
+
+    /*
+    Conditional GET: only the version of the quiz is read to build the ETag,
+    the quiz itself is loaded when the client does not hold the current version (If-None-Match).
+     */
     @GetMapping(path = "/quizzes/{quizid}")
-    public ResponseEntity<ResponseReturn> getQuiz(@PathVariable("quizid") int quizId){
+    public ResponseEntity<ResponseReturn> getQuiz(@PathVariable("quizid") int quizId, WebRequest webRequest){
+        long version = quizService.getQuizVersion(quizId)
+                .orElseThrow(() -> new NotFoundException("Quiz not found"));
+        String eTag = ETagUtil.of("quiz", quizId, version);
+        if (webRequest.checkNotModified(eTag))
+            return ETagUtil.notModified(eTag);
+
         Optional<QuizDTO> quizDTO = Optional.ofNullable(quizService.getQuiz(quizId)
                 .orElseThrow(() -> new NotFoundException("Quiz not found")));
 
+        return ETagUtil.ok(eTag, "A quiz is returned.", quizDTO);
+    }
+
+    /*
+    Quiz with its questions and their answers, instead of one request per question.
+    Unlike the export, the tree is built in memory and wrapped into ResponseReturn like the other responses:
+    it is one quiz, read by two queries, and its size is bounded by the questions of that quiz.
+     */
+    @GetMapping(path = "/quizzes/{quizid}/full")
+    public ResponseEntity<ResponseReturn> getFullQuiz(@PathVariable("quizid") int quizId){
+        QuizFullDTO quizFullDTO = quizService.getFullQuiz(quizId)
+                .orElseThrow(() -> new NotFoundException("Quiz not found"));
+
         return new ResponseEntity<>(new ResponseReturn(
                 LocalDateTime.now(),
-                "A quiz is returned.",
+                "A quiz with its questions and answers is returned.",
                 HttpStatus.OK.value(),
                 true,
-                quizDTO), HttpStatus.OK);
+                quizFullDTO), HttpStatus.OK);
     }
 
     @PostMapping(path = "/quizzes")
@@ -91,7 +147,7 @@ public class QuizController {
     public ResponseEntity<ResponseReturn> updateQuiz(@RequestParam("quizid") int quizId,
                                                      @Valid @RequestBody QuizDTO reqBody,
                                                      BindingResult bindingResult){
-        quizService.getQuiz(quizId).orElseThrow(()
+        QuizDTO currentQuiz = quizService.getQuiz(quizId).orElseThrow(()
                 -> new NotFoundException("Quiz not found"));
 
         if (bindingResult.hasErrors()) {
@@ -101,7 +157,7 @@ public class QuizController {
         if (quizService.notExistQuiz(reqBody).isPresent())
             throw new DuplicateException("Duplicate value found.");
 
-        QuizDTO updatedQuiz = quizService.updateQuiz(quizId, reqBody);
+        QuizDTO updatedQuiz = quizService.updateQuiz(currentQuiz, reqBody);
 
         return new ResponseEntity<>(new ResponseReturn(
                 LocalDateTime.now(),
@@ -12,9 +12,9 @@ public class QuizDTOMapper implements Function<Quiz, QuizDTO> {
                 quiz.getId(),
                 quiz.getValue(),
                 quiz.getType(),
-                quiz.getQuestions().size(),
-                quiz.getUpdatedAt(),
-                quiz.getCreatedAt()
+                quiz.getQuestionCount(),
+                quiz.getCreatedAt(),
+                quiz.getUpdatedAt()
         );
     }
 }
@@ -0,0 +1,24 @@
+package com.example.quiz_api_management.quiz;
+
+import com.example.quiz_api_management.question.QuestionFullDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/*
+The whole tree of a quiz (quiz -> questions -> answers) returned by one request,
+so that clients do not need one more request per question to render a quiz.
+ */
+@AllArgsConstructor
+@Data
+public class QuizFullDTO {
+    private int id;
+    private String value;
+    private String type;
+    private int questionCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<QuestionFullDTO> questions;
+}
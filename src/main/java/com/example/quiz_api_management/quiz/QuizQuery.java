@@ -1,13 +1,16 @@
 package com.example.quiz_api_management.quiz;
 
 public enum QuizQuery {
-    TYPE("type"),
-    COUNT("count");
+    TYPE("type", "type"),
+    COUNT("count", "questionCount");
 
     public final String quizProperty;
+    // Name of the attribute of Quiz entity that this option sorts on
+    public final String entityProperty;
 
-    QuizQuery(String quizProperty){
+    QuizQuery(String quizProperty, String entityProperty){
         this.quizProperty = quizProperty;
+        this.entityProperty = entityProperty;
     }
 
     public static boolean contains (String checkValid){
@@ -16,4 +19,11 @@ public enum QuizQuery {
         }
         return false;
     }
+
+    public static QuizQuery fromQuizProperty(String quizProperty){
+        for (QuizQuery quizFilter: QuizQuery.values()){
+            if(quizFilter.quizProperty.equals(quizProperty)) return quizFilter;
+        }
+        throw new IllegalArgumentException("Unknown quiz property " + quizProperty);
+    }
 }
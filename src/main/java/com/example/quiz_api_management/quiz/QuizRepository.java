@@ -3,8 +3,13 @@ package com.example.quiz_api_management.quiz;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface QuizRepository extends JpaRepository<Quiz, Integer> {
@@ -12,13 +17,79 @@ public interface QuizRepository extends JpaRepository<Quiz, Integer> {
 
     Optional<Quiz> findByValue(String value);
 
+    // Quiz and its questions in one statement, the back-reference of each question is the quiz itself
+    @Query(value = "SELECT DISTINCT quiz FROM Quiz quiz LEFT JOIN FETCH quiz.questions WHERE quiz.id = :quizId")
+    Optional<Quiz> findWithQuestionsById(@Param("quizId") int quizId);
+
     /*
     Customize query for getting list of quizzes by sorting number of questions
     This serves for pagination.
+    The number of questions is read from the denormalized column question_count (indexed with id),
+    so no subquery counting questions runs for every quiz row.
      */
-    @Query(value = "SELECT quiz FROM Quiz quiz ORDER BY (SELECT COUNT(question) FROM quiz.questions question) DESC")
+    @Query(value = "SELECT quiz FROM Quiz quiz ORDER BY quiz.questionCount DESC, quiz.id DESC")
     Page<Quiz> sortQuestionByCountDesc(String sortByCount, Pageable pageable);
 
-    @Query(value = "SELECT quiz FROM Quiz quiz ORDER BY (SELECT COUNT(question) FROM quiz.questions question) ASC")
+    @Query(value = "SELECT quiz FROM Quiz quiz ORDER BY quiz.questionCount ASC, quiz.id ASC")
     Page<Quiz> sortQuestionByCountAsc(String sortByCount, Pageable pageable);
+
+    /*
+    Queries for keyset pagination. They return a List so that no count query is issued,
+    and seek past the (sort key, id) of the last row of the previous page instead of skipping OFFSET rows.
+     */
+    List<Quiz> findAllBy(Pageable pageable);
+
+    List<Quiz> findByIdGreaterThan(int id, Pageable pageable);
+
+    /*
+    Seek on (type, id), type is not nullable: the predicate does not depend on the parameters,
+    so PostgreSQL reads the (type, id) index as a range starting at the cursor.
+     */
+    @Query(value = "SELECT quiz FROM Quiz quiz WHERE quiz.type > :type " +
+            "OR (quiz.type = :type AND quiz.id > :id) ORDER BY quiz.type ASC, quiz.id ASC")
+    List<Quiz> seekByTypeAsc(@Param("type") String type, @Param("id") int id, Pageable pageable);
+
+    @Query(value = "SELECT quiz FROM Quiz quiz WHERE quiz.type < :type " +
+            "OR (quiz.type = :type AND quiz.id < :id) ORDER BY quiz.type DESC, quiz.id DESC")
+    List<Quiz> seekByTypeDesc(@Param("type") String type, @Param("id") int id, Pageable pageable);
+
+    @Query(value = "SELECT quiz FROM Quiz quiz WHERE quiz.questionCount > :count " +
+            "OR (quiz.questionCount = :count AND quiz.id > :id) ORDER BY quiz.questionCount ASC, quiz.id ASC")
+    List<Quiz> seekByCountAsc(@Param("count") int count, @Param("id") int id, Pageable pageable);
+
+    @Query(value = "SELECT quiz FROM Quiz quiz WHERE quiz.questionCount < :count " +
+            "OR (quiz.questionCount = :count AND quiz.id < :id) ORDER BY quiz.questionCount DESC, quiz.id DESC")
+    List<Quiz> seekByCountDesc(@Param("count") int count, @Param("id") int id, Pageable pageable);
+
+    // Version of the quiz alone, it also tags the list of its questions
+    @Query(value = "SELECT quiz.version FROM Quiz quiz WHERE quiz.id = :quizId")
+    Optional<Long> findVersionById(@Param("quizId") int quizId);
+
+    /*
+    Adjust the counter in a single statement, delta is positive when questions are added and negative when removed.
+    It joins the transaction of the caller so the counter and the question rows are committed together.
+    The list of questions changes as well, so the version is bumped.
+     */
+    @Modifying
+    @Query(value = "UPDATE Quiz quiz SET quiz.questionCount = quiz.questionCount + :delta, quiz.version = quiz.version + 1 " +
+            "WHERE quiz.id = :quizId")
+    int incrementQuestionCount(@Param("quizId") int quizId, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "UPDATE Quiz quiz SET quiz.value = :value, quiz.updatedAt = :updatedAt, quiz.version = quiz.version + 1 " +
+            "WHERE quiz.id = :quizId")
+    int updateValue(@Param("quizId") int quizId, @Param("value") String value, @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Bump the version when a question of the quiz is modified
+    @Modifying
+    @Query(value = "UPDATE Quiz quiz SET quiz.version = quiz.version + 1 WHERE quiz.id = :quizId")
+    int incrementVersion(@Param("quizId") int quizId);
+
+    // Recompute every counter from the question table, used by the repair job.
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE quiz SET version = version + 1, question_count = " +
+            "(SELECT COUNT(*) FROM question WHERE question.quiz_id = quiz.id) " +
+            "WHERE question_count <> (SELECT COUNT(*) FROM question WHERE question.quiz_id = quiz.id)", nativeQuery = true)
+    int rebuildQuestionCounts();
 }
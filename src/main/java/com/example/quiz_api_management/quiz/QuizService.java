@@ -1,29 +1,120 @@
 package com.example.quiz_api_management.quiz;
 
+import com.example.quiz_api_management.answer.AnswerDTO;
+import com.example.quiz_api_management.answer.AnswerDTOMapper;
+import com.example.quiz_api_management.answer.AnswerRepository;
+import com.example.quiz_api_management.cache.ContentCache;
+import com.example.quiz_api_management.common.KeysetCursor;
+import com.example.quiz_api_management.common.KeysetPage;
 import com.example.quiz_api_management.common.OrderSort;
+import com.example.quiz_api_management.exception.NotFoundException;
+import com.example.quiz_api_management.exception.NotValidParamsException;
+import com.example.quiz_api_management.attempt.AnswerKeyRegistry;
+import com.example.quiz_api_management.leaderboard.LeaderboardService;
+import com.example.quiz_api_management.question.Question;
+import com.example.quiz_api_management.question.QuestionFullDTO;
+import com.example.quiz_api_management.question.QuestionRepository;
+import com.example.quiz_api_management.question.QuestionSampler;
+import com.example.quiz_api_management.search.SearchIndexService;
+import com.example.quiz_api_management.stats.QuestionStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class QuizService {
     private final QuizRepository quizRepository;
     private final QuizDTOMapper quizDTOMapper;
+    // Repository is enough to find questions of a quiz which is deleted, like AnswerService does with questions
+    private final QuestionRepository questionRepository;
+    private final AnswerRepository answerRepository;
+    private final AnswerDTOMapper answerDTOMapper;
+    private final ContentCache contentCache;
+    private final SearchIndexService searchIndexService;
+    private final QuestionSampler questionSampler;
+    private final AnswerKeyRegistry answerKeyRegistry;
+    private final LeaderboardService leaderboardService;
+    private final QuestionStatsService questionStatsService;
     @Autowired
-    public QuizService(QuizRepository quizRepository, QuizDTOMapper quizDTOMapper){
+    public QuizService(QuizRepository quizRepository, QuizDTOMapper quizDTOMapper,
+                       QuestionRepository questionRepository, AnswerRepository answerRepository,
+                       AnswerDTOMapper answerDTOMapper, ContentCache contentCache,
+                       SearchIndexService searchIndexService, QuestionSampler questionSampler,
+                       AnswerKeyRegistry answerKeyRegistry, LeaderboardService leaderboardService,
+                       QuestionStatsService questionStatsService){
         this.quizRepository = quizRepository;
         this.quizDTOMapper = quizDTOMapper;
+        this.questionRepository = questionRepository;
+        this.answerRepository = answerRepository;
+        this.answerDTOMapper = answerDTOMapper;
+        this.contentCache = contentCache;
+        this.searchIndexService = searchIndexService;
+        this.questionSampler = questionSampler;
+        this.answerKeyRegistry = answerKeyRegistry;
+        this.leaderboardService = leaderboardService;
+        this.questionStatsService = questionStatsService;
     }
 
+    // Read through the cache, its entry is evicted by updateQuiz and deleteQuiz
     public Optional<QuizDTO> getQuiz(int quizId) {
-        return quizRepository.findById(quizId).map(quizDTOMapper);
+        return contentCache.quizzes().get(quizId, id -> quizRepository.findById(id).map(quizDTOMapper));
+    }
+
+    public Optional<Long> getQuizVersion(int quizId) {
+        return quizRepository.findVersionById(quizId);
+    }
+
+    /*
+    The whole tree of a quiz is read with two statements whatever the number of questions:
+    one fetch join for the quiz and its questions, one for the answers of all these questions.
+    Both run in one read-only transaction so the answers resolve their question from the persistence context.
+     */
+    @Transactional(readOnly = true)
+    public Optional<QuizFullDTO> getFullQuiz(int quizId) {
+        Optional<Quiz> optionalQuiz = quizRepository.findWithQuestionsById(quizId);
+        if (optionalQuiz.isEmpty())
+            return Optional.empty();
+
+        Quiz quiz = optionalQuiz.get();
+        List<Question> questions = quiz.getQuestions().stream()
+                .sorted(Comparator.comparingInt(Question::getId))
+                .toList();
+        Map<Integer, List<AnswerDTO>> answersByQuestion = questions.isEmpty()
+                ? Map.of()
+                : answerRepository.findByQuestionIds(questions.stream().map(Question::getId).toList())
+                        .stream()
+                        .collect(Collectors.groupingBy(answer -> answer.getQuestion().getId(),
+                                Collectors.mapping(answerDTOMapper, Collectors.toList())));
+
+        List<QuestionFullDTO> questionsDTO = questions.stream()
+                .map(question -> new QuestionFullDTO(
+                        question.getId(),
+                        question.getValue(),
+                        question.getType(),
+                        question.getCreatedAt(),
+                        question.getUpdatedAt(),
+                        answersByQuestion.getOrDefault(question.getId(), List.of())))
+                .toList();
+        return Optional.of(new QuizFullDTO(
+                quiz.getId(),
+                quiz.getValue(),
+                quiz.getType(),
+                quiz.getQuestionCount(),
+                quiz.getCreatedAt(),
+                quiz.getUpdatedAt(),
+                questionsDTO));
     }
 
     public Optional<Quiz> notExistQuiz(QuizDTO reqBody){
@@ -31,27 +122,48 @@ public class QuizService {
     }
 
 
+    // The saved entity already holds its id (reserved from the sequence block), so nothing is read back
     public QuizDTO createQuiz(QuizDTO requestBody){
-        Quiz newQuiz = new Quiz(requestBody.getValue(), requestBody.getType());
-        quizRepository.save(newQuiz);
-        return quizRepository.findByValue(requestBody.getValue())
-                .stream()
-                .findAny()
-                .map(quizDTOMapper)
-                .get();
+        Quiz newQuiz = quizRepository.save(new Quiz(requestBody.getValue(), requestBody.getType()));
+        QuizDTO createdQuiz = quizDTOMapper.apply(newQuiz);
+        searchIndexService.indexQuiz(createdQuiz);
+        return createdQuiz;
     }
 
-    public QuizDTO updateQuiz(int quizId, QuizDTO requestBody) {
-        Quiz quiz = quizRepository.findById(quizId).get();
-        quiz.setValue(requestBody.getValue());
-        quiz.setUpdatedAt(LocalDateTime.now());
-        quizRepository.save(quiz);
-        Optional<Quiz> newQuiz = quizRepository.findById(quizId);
-        return newQuiz.isPresent() ? newQuiz.map(quizDTOMapper).get() : null;
+    /*
+    One UPDATE statement. The returned quiz is built from the current one, which the controller has already read
+    to check that the quiz exists. A quiz deleted since then is not updated, and not found.
+     */
+    @Transactional
+    public QuizDTO updateQuiz(QuizDTO currentQuiz, QuizDTO requestBody) {
+        int quizId = currentQuiz.getId();
+        LocalDateTime updatedAt = LocalDateTime.now();
+        if (quizRepository.updateValue(quizId, requestBody.getValue(), updatedAt) == 0)
+            throw new NotFoundException("Quiz not found");
+        contentCache.evictQuiz(quizId);
+        QuizDTO updatedQuiz = new QuizDTO(
+                quizId,
+                requestBody.getValue(),
+                currentQuiz.getType(),
+                currentQuiz.getQuestionCount(),
+                currentQuiz.getCreatedAt(),
+                updatedAt);
+        searchIndexService.indexQuiz(updatedQuiz);
+        return updatedQuiz;
     }
 
+    // The ids read and the rows deleted by cascade are the same, evictions run once they are committed
+    @Transactional
     public void deleteQuiz(int quizId) {
+        // Questions and answers are deleted by cascade, so they are evicted as well
+        List<Integer> questionIds = questionRepository.findIdsByQuizId(quizId);
         quizRepository.deleteById(quizId);
+        contentCache.evictQuizCascade(quizId, questionIds);
+        searchIndexService.removeQuiz(quizId);
+        questionSampler.invalidateQuiz(quizId);
+        answerKeyRegistry.invalidateQuiz(quizId);
+        leaderboardService.removeQuiz(quizId);
+        questionStatsService.removeQuestions(questionIds);
     }
 
     public boolean checkValidSortQuery(String sortQuery){
@@ -111,6 +223,61 @@ public class QuizService {
         }
     }
 
+    // Cursor mode of pagination, the sort of the cursor is kept so every page of one listing has the same order
+
+    public KeysetPage<QuizDTO> scrollQuizzes(String after, int limit, String sortQuery){
+        KeysetCursor cursor = (after != null) ? KeysetCursor.decode(after) : null;
+        String sort = (cursor != null) ? cursor.getSort() : (sortQuery != null ? sortQuery.toLowerCase() : null);
+        if (sort != null && !checkValidSortQuery(sort))
+            throw new NotValidParamsException("Check query for sorting.");
+
+        return KeysetPage.of(seekQuizzes(cursor, sort, limit + 1), limit,
+                last -> new KeysetCursor(sort, null, sortKey(last, sort), last.getId()),
+                quizzes -> quizzes.stream().map(quizDTOMapper).toList());
+    }
+
+    private List<Quiz> seekQuizzes(KeysetCursor cursor, String sort, int size){
+        if (sort == null) {
+            return (cursor == null)
+                    ? quizRepository.findAllBy(PageRequest.of(0, size, Sort.by("id")))
+                    : quizRepository.findByIdGreaterThan(cursor.getId(), PageRequest.of(0, size, Sort.by("id")));
+        }
+
+        QuizQuery option = QuizQuery.fromQuizProperty(sort.split(",")[0]);
+        boolean ascending = Objects.equals(sort.split(",")[1], OrderSort.ASC.levelOrder);
+        Pageable window = PageRequest.of(0, size);
+        if (cursor == null) {
+            Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+            return quizRepository.findAllBy(PageRequest.of(0, size,
+                    Sort.by(direction, option.entityProperty).and(Sort.by(direction, "id"))));
+        }
+        if (cursor.getKey() == null)
+            throw new NotValidParamsException("Cursor is not valid.");
+
+        if (option == QuizQuery.TYPE)
+            return ascending
+                    ? quizRepository.seekByTypeAsc(cursor.getKey(), cursor.getId(), window)
+                    : quizRepository.seekByTypeDesc(cursor.getKey(), cursor.getId(), window);
+
+        int count;
+        try {
+            count = Integer.parseInt(cursor.getKey());
+        } catch (NumberFormatException exception) {
+            throw new NotValidParamsException("Cursor is not valid.");
+        }
+        return ascending
+                ? quizRepository.seekByCountAsc(count, cursor.getId(), window)
+                : quizRepository.seekByCountDesc(count, cursor.getId(), window);
+    }
+
+    private String sortKey(Quiz quiz, String sort){
+        if (sort == null)
+            return null;
+        return QuizQuery.fromQuizProperty(sort.split(",")[0]) == QuizQuery.TYPE
+                ? quiz.getType()
+                : String.valueOf(quiz.getQuestionCount());
+    }
+
     public int getCurrentPage(Page<QuizDTO> paginationQuiz){
         return paginationQuiz.getNumber() + 1;
     }
@@ -0,0 +1,13 @@
+package com.example.quiz_api_management.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Projection read to rebuild the search index, without loading entities
+@AllArgsConstructor
+@Getter
+public class IndexedText {
+    private int id;
+    private int parentId;
+    private String value;
+}
@@ -0,0 +1,157 @@
+package com.example.quiz_api_management.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+In-memory inverted index ranked with BM25.
+
+Every document (a quiz, a question or an answer) is identified by a key combining its type and its id.
+For every term, the postings list maps the documents containing it to the number of occurrences.
+Documents also remember their children (questions of a quiz, answers of a question),
+so removing a parent removes its children like the cascades of the database.
+
+Searches share a read lock, updates take the write lock.
+ */
+public class InvertedIndex {
+    // Usual parameters of BM25: saturation of term frequency and normalization by length of document
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<Long, Set<Long>> children = new HashMap<>();
+    private long totalLength = 0;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public static long key(SearchDocumentType type, int id) {
+        return ((long) type.ordinal() << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    // Add a document or replace its text if it is already indexed
+    public void put(SearchDocumentType type, int id, int parentId, String text) {
+        long key = key(type, id);
+        List<String> terms = Tokenizer.tokenize(text);
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms)
+            frequencies.merge(term, 1, Integer::sum);
+
+        lock.writeLock().lock();
+        try {
+            removeTerms(key);
+            Document document = new Document(type, id, parentId, text, terms.size(), frequencies.keySet().toArray(String[]::new));
+            documents.put(key, document);
+            totalLength += document.length;
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, ignored -> new HashMap<>()).put(key, frequency));
+            SearchDocumentType parentType = parentType(type);
+            if (parentType != null)
+                children.computeIfAbsent(key(parentType, parentId), ignored -> new HashSet<>()).add(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Remove a document and all of its descendants
+    public void remove(SearchDocumentType type, int id) {
+        lock.writeLock().lock();
+        try {
+            removeCascade(key(type, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<SearchResult> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty())
+                return List.of();
+            double averageLength = (double) totalLength / documents.size();
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : queryTerms) {
+                Map<Long, Integer> termPostings = postings.get(term);
+                if (termPostings == null)
+                    continue;
+                double idf = Math.log(1 + (documents.size() - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+                termPostings.forEach((key, frequency) -> {
+                    int length = documents.get(key).length;
+                    double score = idf * frequency * (K1 + 1)
+                            / (frequency + K1 * (1 - B + B * length / averageLength));
+                    scores.merge(key, score, Double::sum);
+                });
+            }
+
+            // Keep the best documents only, the head of the queue is the worst of them
+            PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<Long, Double> score : scores.entrySet()) {
+                best.offer(score);
+                if (best.size() > limit)
+                    best.poll();
+            }
+            List<SearchResult> results = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                Map.Entry<Long, Double> score = best.poll();
+                Document document = documents.get(score.getKey());
+                results.add(new SearchResult(document.type.documentType, document.id, document.parentId,
+                        document.text, score.getValue()));
+            }
+            Collections.reverse(results);
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeCascade(long key) {
+        Set<Long> childKeys = children.remove(key);
+        if (childKeys != null)
+            childKeys.forEach(this::removeCascade);
+        Document document = documents.get(key);
+        removeTerms(key);
+        if (document != null) {
+            SearchDocumentType parentType = parentType(document.type);
+            if (parentType != null) {
+                Set<Long> siblings = children.get(key(parentType, document.parentId));
+                if (siblings != null)
+                    siblings.remove(key);
+            }
+        }
+    }
+
+    // Remove the postings of a document, its children are kept (used when its text is replaced)
+    private void removeTerms(long key) {
+        Document document = documents.remove(key);
+        if (document == null)
+            return;
+        totalLength -= document.length;
+        for (String term : document.terms) {
+            Map<Long, Integer> termPostings = postings.get(term);
+            termPostings.remove(key);
+            if (termPostings.isEmpty())
+                postings.remove(term);
+        }
+    }
+
+    private static SearchDocumentType parentType(SearchDocumentType type) {
+        return switch (type) {
+            case QUIZ -> null;
+            case QUESTION -> SearchDocumentType.QUIZ;
+            case ANSWER -> SearchDocumentType.QUESTION;
+        };
+    }
+
+    private record Document(SearchDocumentType type, int id, int parentId, String text, int length, String[] terms) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.quiz_api_management.search;
+
+import com.example.quiz_api_management.common.ResponseReturn;
+import com.example.quiz_api_management.exception.NotValidParamsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping(path = "/api/v1")
+public class SearchController {
+    private final SearchIndexService searchIndexService;
+
+    @Autowired
+    public SearchController(SearchIndexService searchIndexService) {
+        this.searchIndexService = searchIndexService;
+    }
+
+    // Quizzes, questions and answers matching the terms of q, best matches first
+    @GetMapping(path = "/search")
+    public ResponseEntity<ResponseReturn> search(@RequestParam(value = "q", required = false) String query,
+                                                 @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (query == null || query.isBlank())
+            throw new NotValidParamsException("Query for searching is empty.");
+        if (limit < 1 || limit > 100)
+            throw new NotValidParamsException("Limit should be between 1 and 100.");
+
+        return new ResponseEntity<>(new ResponseReturn(
+                LocalDateTime.now(),
+                "Search results are returned.",
+                HttpStatus.OK.value(),
+                true,
+                searchIndexService.search(query, limit)), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.quiz_api_management.search;
+
+public enum SearchDocumentType {
+    QUIZ("quiz"),
+    QUESTION("question"),
+    ANSWER("answer");
+
+    public final String documentType;
+
+    SearchDocumentType(String documentType) {
+        this.documentType = documentType;
+    }
+}
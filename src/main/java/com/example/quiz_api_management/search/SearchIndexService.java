@@ -0,0 +1,120 @@
+package com.example.quiz_api_management.search;
+
+import com.example.quiz_api_management.answer.AnswerDTO;
+import com.example.quiz_api_management.question.QuestionDTO;
+import com.example.quiz_api_management.quiz.QuizDTO;
+import com.example.quiz_api_management.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/*
+Full-text search over quizzes, questions and answers.
+
+The index is rebuilt from the database once the application is ready, then kept up to date
+by the create, update and delete methods of QuizService, QuestionService and AnswerService
+and by the batches of QuizImportService (after commit).
+Changes which arrive while the index is being rebuilt are recorded and replayed on the new index before it is used.
+ */
+@Service
+public class SearchIndexService {
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexService.class);
+
+    private final SearchRepository searchRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private volatile InvertedIndex index = new InvertedIndex();
+    // Not null while a rebuild is running, guarded by this
+    private List<Consumer<InvertedIndex>> pendingChanges = null;
+
+    @Autowired
+    public SearchIndexService(SearchRepository searchRepository, PlatformTransactionManager transactionManager) {
+        this.searchRepository = searchRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public List<SearchResult> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    public void indexQuiz(QuizDTO quiz) {
+        apply(index -> index.put(SearchDocumentType.QUIZ, quiz.getId(), 0, quiz.getValue()));
+    }
+
+    public void indexQuestion(QuestionDTO question) {
+        apply(index -> index.put(SearchDocumentType.QUESTION, question.getId(), question.getQuizId(), question.getValue()));
+    }
+
+    public void indexAnswer(AnswerDTO answer) {
+        apply(index -> index.put(SearchDocumentType.ANSWER, answer.getId(), answer.getQuestionId(), answer.getValue()));
+    }
+
+    // Rows inserted in bulk, indexed in one change once their batch is committed
+    public void indexAll(List<IndexedText> quizzes, List<IndexedText> questions, List<IndexedText> answers) {
+        apply(index -> {
+            quizzes.forEach(text -> index.put(SearchDocumentType.QUIZ, text.getId(), text.getParentId(), text.getValue()));
+            questions.forEach(text -> index.put(SearchDocumentType.QUESTION, text.getId(), text.getParentId(), text.getValue()));
+            answers.forEach(text -> index.put(SearchDocumentType.ANSWER, text.getId(), text.getParentId(), text.getValue()));
+        });
+    }
+
+    // Questions and answers of the quiz are removed as well
+    public void removeQuiz(int quizId) {
+        apply(index -> index.remove(SearchDocumentType.QUIZ, quizId));
+    }
+
+    // Answers of the question are removed as well
+    public void removeQuestion(int questionId) {
+        apply(index -> index.remove(SearchDocumentType.QUESTION, questionId));
+    }
+
+    public void removeAnswer(int answerId) {
+        apply(index -> index.remove(SearchDocumentType.ANSWER, answerId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        InvertedIndex rebuilt = new InvertedIndex();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            load(searchRepository.streamQuizTexts(), SearchDocumentType.QUIZ, rebuilt);
+            load(searchRepository.streamQuestionTexts(), SearchDocumentType.QUESTION, rebuilt);
+            load(searchRepository.streamAnswerTexts(), SearchDocumentType.ANSWER, rebuilt);
+        });
+        synchronized (this) {
+            pendingChanges.forEach(change -> change.accept(rebuilt));
+            pendingChanges = null;
+            index = rebuilt;
+        }
+        logger.info("Search index rebuilt with {} document(s) in {} ms", rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void load(Stream<IndexedText> texts, SearchDocumentType type, InvertedIndex target) {
+        try (texts) {
+            texts.forEach(text -> target.put(type, text.getId(), text.getParentId(), text.getValue()));
+        }
+    }
+
+    private void apply(Consumer<InvertedIndex> change) {
+        TransactionUtil.afterCommit(() -> {
+            synchronized (this) {
+                change.accept(index);
+                if (pendingChanges != null)
+                    pendingChanges.add(change);
+            }
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.quiz_api_management.search;
+
+import com.example.quiz_api_management.quiz.Quiz;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+
+import java.util.stream.Stream;
+
+// Streams of texts used to rebuild the search index at startup
+public interface SearchRepository extends Repository<Quiz, Integer> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "SELECT new com.example.quiz_api_management.search.IndexedText(quiz.id, 0, quiz.value) FROM Quiz quiz")
+    Stream<IndexedText> streamQuizTexts();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "SELECT new com.example.quiz_api_management.search.IndexedText(" +
+            "question.id, question.quiz.id, question.value) FROM Question question")
+    Stream<IndexedText> streamQuestionTexts();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "SELECT new com.example.quiz_api_management.search.IndexedText(" +
+            "answer.id, answer.question.id, answer.value) FROM Answer answer")
+    Stream<IndexedText> streamAnswerTexts();
+}
@@ -0,0 +1,15 @@
+package com.example.quiz_api_management.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class SearchResult {
+    private String type;
+    private int id;
+    // Quiz of a question, question of an answer, 0 for a quiz
+    private int parentId;
+    private String value;
+    private double score;
+}
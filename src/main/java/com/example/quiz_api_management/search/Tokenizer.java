@@ -0,0 +1,28 @@
+package com.example.quiz_api_management.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/*
+Splits a text into lower case terms made of letters and digits.
+"2 + 2", "2*2" and "2 * 2" all give the terms [2, 2], punctuation is never part of a term.
+ */
+public class Tokenizer {
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null)
+            return terms;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean partOfTerm = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (partOfTerm && start < 0)
+                start = i;
+            else if (!partOfTerm && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
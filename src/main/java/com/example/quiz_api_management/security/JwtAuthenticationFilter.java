@@ -0,0 +1,58 @@
+package com.example.quiz_api_management.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/*
+Stateless authentication of requests with "Authorization: Bearer <JWT>".
+A valid token authenticates the request only, nothing is stored in the session. An invalid, expired or revoked
+token is answered with 401, a request without a bearer token goes on to the other mechanisms (OAuth2 login).
+It is not a bean, otherwise Spring Boot would also register it in the servlet filters and run it twice.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtTokenService jwtTokenService;
+    private final TokenDenylist tokenDenylist;
+
+    public JwtAuthenticationFilter(JwtTokenService jwtTokenService, TokenDenylist tokenDenylist) {
+        this.jwtTokenService = jwtTokenService;
+        this.tokenDenylist = tokenDenylist;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Optional<VerifiedToken> verified = jwtTokenService.verify(header.substring(BEARER_PREFIX.length()).trim());
+        // A cached token is checked too, the cache holds verified signatures and not the revocations
+        if (verified.isEmpty() || tokenDenylist.isRevoked(verified.get())) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid, expired or revoked token");
+            return;
+        }
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(verified.get().authentication());
+        SecurityContextHolder.setContext(context);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
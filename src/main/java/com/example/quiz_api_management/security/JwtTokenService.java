@@ -0,0 +1,124 @@
+package com.example.quiz_api_management.security;
+
+import com.example.quiz_api_management.cache.DtoCache;
+import com.example.quiz_api_management.user.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+
+/*
+Signature and verification of the JWT returned by POST /api/v1/auth/signin (HS256).
+
+The key is read once at startup from jwt.secret (Base64, at least 256 bits) and the parser is built once with it.
+Without a secret a random key is generated: tokens are then only valid until the application restarts.
+
+A token carries everything needed to authenticate its requests (email as subject, id and roles of the user)
+and a random id (jti) by which a sign-out revokes it. Its time of issue, in milliseconds, tells if a later change
+of the user revoked it, see TokenDenylist.
+A request with a bearer token never reads the user. Verified tokens are cached by the SHA-256 digest of the token
+until the token expires: a client sending the same token again only costs a digest and a map lookup,
+not a Base64 decode, a signature check and a JSON parse. The raw token is never kept in memory.
+The cache is a DtoCache: when it is full, the least recently used token is dropped in constant time.
+jwt.cache.maximum-size=0 disables the cache.
+ */
+@Service
+public class JwtTokenService {
+    private static final Logger logger = LoggerFactory.getLogger(JwtTokenService.class);
+    public static final int EXPIRATION_MINUTES = 20;
+
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final int maximumSize;
+    private final DtoCache<String, VerifiedToken> verifiedTokens;
+
+    @Autowired
+    public JwtTokenService(@Value("${jwt.secret:}") String secret,
+                           @Value("${jwt.cache.maximum-size:10000}") int maximumSize) {
+        if (secret.isBlank()) {
+            logger.warn("jwt.secret is not set, tokens are signed with a random key and are lost on restart");
+            this.key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        } else {
+            this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        }
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.maximumSize = maximumSize;
+        this.verifiedTokens = new DtoCache<>("verified tokens", maximumSize, Duration.ofMinutes(EXPIRATION_MINUTES));
+    }
+
+    public String issue(int userId, String email, Collection<String> roles) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(email)
+                .claim("userId", userId)
+                .claim("roles", List.copyOf(roles))
+                .claim("issuedAtMillis", now)
+                .setExpiration(new Date(now + EXPIRATION_MINUTES * 60_000L))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    // The authentication granted by a token, empty when the token is malformed, forged or expired
+    public Optional<VerifiedToken> verify(String token) {
+        long now = System.currentTimeMillis();
+        if (maximumSize == 0)
+            return parse(token, now);
+        // A token cached before its expiration is still in the cache until its time to live is over
+        return verifiedTokens.get(digest(token), digest -> parse(token, now))
+                .filter(verified -> !verified.isExpired(now));
+    }
+
+    private Optional<VerifiedToken> parse(String token, long now) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Integer userId = claims.get("userId", Integer.class);
+            Long issuedAtMillis = claims.get("issuedAtMillis", Long.class);
+            if (claims.getId() == null || claims.getExpiration() == null || userId == null || issuedAtMillis == null)
+                return Optional.empty();
+            List<?> roles = claims.get("roles", List.class);
+            List<String> roleNames = (roles == null) ? List.of() : roles.stream().map(String::valueOf).toList();
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    claims.getSubject(), null, User.authoritiesOf(roleNames));
+            authentication.setDetails(userId);
+            VerifiedToken verified = new VerifiedToken(UUID.fromString(claims.getId()), userId, authentication,
+                    issuedAtMillis, claims.getExpiration().getTime());
+            return verified.isExpired(now) ? Optional.empty() : Optional.of(verified);
+        } catch (JwtException | IllegalArgumentException exception) {
+            return Optional.empty();
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    public long getHits() {
+        return verifiedTokens.stats().getHits();
+    }
+
+    public long getMisses() {
+        return verifiedTokens.stats().getMisses();
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.quiz_api_management.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Ids of the tokens revoked by a sign-out, kept until the tokens would have expired anyway.
+
+Ids are grouped in buckets by the minute their token expires. The expiration of a token is known once it is verified,
+so a check is the lookup of one bucket and of one id in it: two reads of concurrent maps, without lock,
+whatever the number of revoked tokens. A whole bucket is dropped once its minute is over, so the memory holds
+the revocations of one token lifetime at most (20 minutes).
+
+A change of the roles or the password of a user, or its deletion, revokes every token issued to the user until then:
+the user is kept with the time of the change for one token lifetime, and a token issued up to that time is rejected.
+This is one more map read per request, and the roles cached in verified tokens never outlive a change.
+
+When jwt.denylist.file is set, every revocation is appended to this file (expiration and id, 24 bytes;
+a user is written with the id 0-userId, which no random token id has) and the file is read at startup, so a sign-out survives a restart. The file is rewritten with the live entries
+when buckets are dropped, it does not grow beyond the live revocations either.
+ */
+@Component
+public class TokenDenylist {
+    private static final Logger logger = LoggerFactory.getLogger(TokenDenylist.class);
+    private static final long BUCKET_MILLIS = 60_000;
+    private static final long TOKEN_LIFETIME_MILLIS = JwtTokenService.EXPIRATION_MINUTES * 60_000L;
+    // Most significant bits of the ids written for users: the version of a random UUID is 4, never 0
+    private static final long USER_RECORD = 0;
+
+    private final Map<Long, Set<UUID>> buckets = new ConcurrentHashMap<>();
+    // Time of the last revocation of the tokens of a user, by user id
+    private final Map<Integer, Long> revokedUsers = new ConcurrentHashMap<>();
+    private final Path file;
+    // Appends and rewrites of the file only, checks never take this lock
+    private final Object fileLock = new Object();
+    private DataOutputStream output;
+
+    @Autowired
+    public TokenDenylist(@Value("${jwt.denylist.file:}") String file) {
+        this.file = file.isBlank() ? null : Path.of(file);
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        if (file == null)
+            return;
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        if (Files.exists(file)) {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                while (input.available() >= Long.BYTES * 3) {
+                    long expiresAtMillis = input.readLong();
+                    UUID tokenId = new UUID(input.readLong(), input.readLong());
+                    if (expiresAtMillis <= now)
+                        continue;
+                    if (tokenId.getMostSignificantBits() == USER_RECORD)
+                        revokedUsers.merge((int) tokenId.getLeastSignificantBits(), expiresAtMillis - TOKEN_LIFETIME_MILLIS, Math::max);
+                    else
+                        bucket(expiresAtMillis).add(tokenId);
+                    loaded++;
+                }
+            }
+        }
+        rewrite();
+        logger.info("{} revoked tokens loaded from {}", loaded, file);
+    }
+
+    public void revoke(UUID tokenId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis() || !bucket(expiresAtMillis).add(tokenId))
+            return;
+        append(tokenId, expiresAtMillis);
+    }
+
+    // Every token issued to the user until now is revoked, a token issued later is accepted
+    public void revokeUser(int userId) {
+        long now = System.currentTimeMillis();
+        revokedUsers.merge(userId, now, Math::max);
+        append(new UUID(USER_RECORD, userId), now + TOKEN_LIFETIME_MILLIS);
+    }
+
+    public boolean isRevoked(UUID tokenId, long expiresAtMillis) {
+        Set<UUID> bucket = buckets.get(expiresAtMillis / BUCKET_MILLIS);
+        return bucket != null && bucket.contains(tokenId);
+    }
+
+    // Revoked by a sign-out, or issued to its user before a change of the user
+    public boolean isRevoked(VerifiedToken token) {
+        if (isRevoked(token.tokenId(), token.expiresAtMillis()))
+            return true;
+        Long revokedAt = revokedUsers.get(token.userId());
+        return revokedAt != null && token.issuedAtMillis() <= revokedAt;
+    }
+
+    private void append(UUID id, long expiresAtMillis) {
+        if (file == null)
+            return;
+        synchronized (fileLock) {
+            try {
+                write(output, id, expiresAtMillis);
+                output.flush();
+            } catch (IOException exception) {
+                logger.error("Revoked token could not be written to {}", file, exception);
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // Buckets whose minute is over only hold expired tokens, which the filter already rejects, as do users revoked a lifetime ago
+    @Scheduled(fixedDelayString = "${jwt.denylist.sweep-interval:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        long currentBucket = now / BUCKET_MILLIS;
+        boolean swept = buckets.keySet().removeIf(bucket -> bucket < currentBucket);
+        swept |= revokedUsers.values().removeIf(revokedAt -> revokedAt + TOKEN_LIFETIME_MILLIS <= now);
+        if (swept && file != null) {
+            try {
+                rewrite();
+            } catch (IOException exception) {
+                logger.error("Denylist file {} could not be rewritten", file, exception);
+            }
+        }
+    }
+
+    private Set<UUID> bucket(long expiresAtMillis) {
+        return buckets.computeIfAbsent(expiresAtMillis / BUCKET_MILLIS, bucket -> ConcurrentHashMap.newKeySet());
+    }
+
+    /*
+    The live entries are written to a temporary file which then replaces the file, a crash keeps one of both whole.
+    An entry written with the expiration of the end of its bucket is still dropped with the same bucket.
+     */
+    private void rewrite() throws IOException {
+        synchronized (fileLock) {
+            if (output != null)
+                output.close();
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream rewritten = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                for (Map.Entry<Long, Set<UUID>> bucket : buckets.entrySet()) {
+                    long expiresAtMillis = (bucket.getKey() + 1) * BUCKET_MILLIS - 1;
+                    for (UUID tokenId : bucket.getValue())
+                        write(rewritten, tokenId, expiresAtMillis);
+                }
+                for (Map.Entry<Integer, Long> user : revokedUsers.entrySet())
+                    write(rewritten, new UUID(USER_RECORD, user.getKey()), user.getValue() + TOKEN_LIFETIME_MILLIS);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.toFile(), true)));
+        }
+    }
+
+    private static void write(DataOutputStream output, UUID tokenId, long expiresAtMillis) throws IOException {
+        output.writeLong(expiresAtMillis);
+        output.writeLong(tokenId.getMostSignificantBits());
+        output.writeLong(tokenId.getLeastSignificantBits());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized (fileLock) {
+            if (output != null)
+                output.close();
+        }
+    }
+}
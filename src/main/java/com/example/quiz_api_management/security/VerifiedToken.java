@@ -0,0 +1,16 @@
+package com.example.quiz_api_management.security;
+
+import org.springframework.security.core.Authentication;
+
+import java.util.UUID;
+
+/*
+Result of the verification of a bearer token: its id (jti) and the authentication it grants, until its expiration.
+The user and the time of issue tell if a later change of the user revoked it, see TokenDenylist.
+ */
+public record VerifiedToken(UUID tokenId, int userId, Authentication authentication, long issuedAtMillis,
+                            long expiresAtMillis) {
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.quiz_api_management.stats;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+// Persisted number of graded attempts which chose an answer
+@Entity
+@Table(name = "answer_stats", indexes = {
+        // Counts of the answers of one question
+        @Index(name = "idx_answer_stats_question", columnList = "question_id")
+})
+@Data
+public class AnswerStats {
+    @Id
+    @Column(name = "answer_id")
+    private int answerId;
+
+    @Column(name = "question_id", nullable = false)
+    private int questionId;
+
+    @Column(name = "chosen", nullable = false)
+    private long chosen;
+}
@@ -0,0 +1,13 @@
+package com.example.quiz_api_management.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// How many attempts of the question chose the answer, and which part of them (0..1)
+@Data
+@AllArgsConstructor
+public class AnswerStatsDTO {
+    private int answerId;
+    private long chosen;
+    private double chosenRate;
+}
@@ -0,0 +1,26 @@
+package com.example.quiz_api_management.stats;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/*
+Persisted counts of a question: how many graded attempts answered it and how many answered it correctly.
+Rows are only increased by the deltas flushed by QuestionStatsService, the question is a plain id like in quiz_attempt.
+ */
+@Entity
+@Table(name = "question_stats")
+@Data
+public class QuestionStats {
+    @Id
+    @Column(name = "question_id")
+    private int questionId;
+
+    @Column(name = "attempts", nullable = false)
+    private long attempts;
+
+    @Column(name = "correct", nullable = false)
+    private long correct;
+}
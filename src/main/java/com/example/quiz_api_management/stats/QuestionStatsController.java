@@ -0,0 +1,41 @@
+package com.example.quiz_api_management.stats;
+
+import com.example.quiz_api_management.answer.AnswerService;
+import com.example.quiz_api_management.common.ResponseReturn;
+import com.example.quiz_api_management.exception.NotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping(path = "/api/v1/")
+public class QuestionStatsController {
+    private final QuestionStatsService questionStatsService;
+    private final AnswerService answerService;
+
+    @Autowired
+    public QuestionStatsController(QuestionStatsService questionStatsService, AnswerService answerService) {
+        this.questionStatsService = questionStatsService;
+        this.answerService = answerService;
+    }
+
+    // Correct rate of the question and how often each of its answers is chosen in graded attempts
+    @GetMapping(path = "/questions/{questionid}/stats")
+    public ResponseEntity<ResponseReturn> getQuestionStats(@PathVariable("questionid") int questionId) {
+        answerService.getQuestionVersion(questionId).orElseThrow(()
+                -> new NotFoundException("Question not found"));
+
+        return new ResponseEntity<>(new ResponseReturn(
+                LocalDateTime.now(),
+                "Statistics of the question are returned.",
+                HttpStatus.OK.value(),
+                true,
+                questionStatsService.getStats(questionId)), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.quiz_api_management.stats;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Item analysis of a question: persisted counts merged with the counts not flushed yet
+@Data
+@AllArgsConstructor
+public class QuestionStatsDTO {
+    private int questionId;
+    private long attempts;
+    private long correct;
+    private double correctRate;
+    private List<AnswerStatsDTO> answers;
+}
@@ -0,0 +1,16 @@
+package com.example.quiz_api_management.stats;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+// Reads of the persisted counts, the deltas are written with JDBC batches by QuestionStatsService
+public interface QuestionStatsRepository extends Repository<QuestionStats, Integer> {
+    Optional<QuestionStats> findById(int questionId);
+
+    @Query(value = "SELECT stats FROM AnswerStats stats WHERE stats.questionId = :questionId")
+    List<AnswerStats> findAnswerStatsByQuestionId(@Param("questionId") int questionId);
+}
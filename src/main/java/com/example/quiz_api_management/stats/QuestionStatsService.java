@@ -0,0 +1,271 @@
+package com.example.quiz_api_management.stats;
+
+import com.example.quiz_api_management.answer.AnswerService;
+import com.example.quiz_api_management.attempt.GradingListener;
+import com.example.quiz_api_management.util.TransactionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+Per question and per answer statistics of the graded attempts (item analysis).
+
+Grading only increments LongAdder counters in memory, so concurrent submissions of the same question
+do not contend on one database row. Each counter remembers how much of it is already in the database (flushed),
+and a scheduled job writes the deltas with JDBC batches of upserts, which add the delta to the row or insert it.
+A failed flush keeps its deltas, they are written by the next one.
+
+Counters of a question with nothing to write are dropped by the flush, and the counters of deleted questions
+after the commit of the delete, so only the questions graded recently stay in memory. Grading which read the counters
+just before they were dropped may still count in them: dropped counters are kept aside and flushed like the others,
+and only forgotten once they are idle RETIRE_GRACE_NANOS after they were dropped. Grading never takes a count back,
+so the deltas never see a count and not its withdrawal, which a LongAdder sum could show.
+
+Reads merge the persisted row with the delta not flushed yet. The flush holds the write lock while it writes the
+deltas and moves the flushed marks, so a read never counts a delta twice nor misses one; grading takes no lock.
+ */
+@Service
+public class QuestionStatsService implements GradingListener {
+    private static final Logger logger = LoggerFactory.getLogger(QuestionStatsService.class);
+    // INSERT ... ON CONFLICT on PostgreSQL, the standard MERGE elsewhere (the in-memory database of the tests)
+    private static final String UPSERT_QUESTION_POSTGRESQL = "INSERT INTO question_stats (question_id, attempts, correct) VALUES (?, ?, ?) " +
+            "ON CONFLICT (question_id) DO UPDATE SET attempts = question_stats.attempts + EXCLUDED.attempts, " +
+            "correct = question_stats.correct + EXCLUDED.correct";
+    private static final String UPSERT_QUESTION_STANDARD = "MERGE INTO question_stats " +
+            "USING (VALUES (CAST(? AS INTEGER), CAST(? AS BIGINT), CAST(? AS BIGINT))) AS delta (question_id, attempts, correct) " +
+            "ON question_stats.question_id = delta.question_id " +
+            "WHEN MATCHED THEN UPDATE SET attempts = question_stats.attempts + delta.attempts, correct = question_stats.correct + delta.correct " +
+            "WHEN NOT MATCHED THEN INSERT (question_id, attempts, correct) VALUES (delta.question_id, delta.attempts, delta.correct)";
+    private static final String UPSERT_ANSWER_POSTGRESQL = "INSERT INTO answer_stats (answer_id, question_id, chosen) VALUES (?, ?, ?) " +
+            "ON CONFLICT (answer_id) DO UPDATE SET chosen = answer_stats.chosen + EXCLUDED.chosen";
+    private static final String UPSERT_ANSWER_STANDARD = "MERGE INTO answer_stats " +
+            "USING (VALUES (CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS BIGINT))) AS delta (answer_id, question_id, chosen) " +
+            "ON answer_stats.answer_id = delta.answer_id " +
+            "WHEN MATCHED THEN UPDATE SET chosen = answer_stats.chosen + delta.chosen " +
+            "WHEN NOT MATCHED THEN INSERT (answer_id, question_id, chosen) VALUES (delta.answer_id, delta.question_id, delta.chosen)";
+    private static final int BATCH_SIZE = 500;
+    // Far longer than grading takes between reading the counters of a question and counting in them
+    private static final long RETIRE_GRACE_NANOS = 1_000_000_000L;
+
+    private final QuestionStatsRepository questionStatsRepository;
+    private final AnswerService answerService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Integer, QuestionCounters> counters = new ConcurrentHashMap<>();
+    // Counters dropped by a flush, only read and changed under the flush lock
+    private final List<RetiredCounters> retired = new ArrayList<>();
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private volatile Boolean postgresql;
+
+    @Autowired
+    public QuestionStatsService(QuestionStatsRepository questionStatsRepository, AnswerService answerService,
+                                JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.questionStatsRepository = questionStatsRepository;
+        this.answerService = answerService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void questionGraded(int questionId, boolean correct) {
+        QuestionCounters question = countersOf(questionId);
+        question.attempts.increment();
+        if (correct)
+            question.correct.increment();
+    }
+
+    @Override
+    public void answerChosen(int questionId, int answerId) {
+        countersOf(questionId).answers.computeIfAbsent(answerId, id -> new Counter()).increment();
+    }
+
+    // Questions deleted with their quiz or alone, their counts not flushed yet are dropped with them
+    public void removeQuestions(Collection<Integer> questionIds) {
+        TransactionUtil.afterCommit(() -> {
+            questionIds.forEach(counters::remove);
+            flushLock.writeLock().lock();
+            try {
+                retired.removeIf(dropped -> questionIds.contains(dropped.questionId));
+            } finally {
+                flushLock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Whether counters of the question are in memory
+    boolean isCounted(int questionId) {
+        return counters.containsKey(questionId);
+    }
+
+    private QuestionCounters countersOf(int questionId) {
+        QuestionCounters question = counters.get(questionId);
+        return (question != null) ? question : counters.computeIfAbsent(questionId, id -> new QuestionCounters());
+    }
+
+    // Every answer of the question is listed, also the ones never chosen
+    public QuestionStatsDTO getStats(int questionId) {
+        int[] answerIds = answerService.getAnswerIds(questionId);
+        long attempts;
+        long correct;
+        Map<Integer, Long> chosen = new HashMap<>();
+        flushLock.readLock().lock();
+        try {
+            Optional<QuestionStats> persisted = questionStatsRepository.findById(questionId);
+            attempts = persisted.map(QuestionStats::getAttempts).orElse(0L);
+            correct = persisted.map(QuestionStats::getCorrect).orElse(0L);
+            questionStatsRepository.findAnswerStatsByQuestionId(questionId)
+                    .forEach(stats -> chosen.put(stats.getAnswerId(), stats.getChosen()));
+            List<QuestionCounters> live = new ArrayList<>(1);
+            Optional.ofNullable(counters.get(questionId)).ifPresent(live::add);
+            retired.stream().filter(dropped -> dropped.questionId == questionId).forEach(dropped -> live.add(dropped.counters));
+            for (QuestionCounters question : live) {
+                attempts += question.attempts.delta();
+                correct += question.correct.delta();
+                question.answers.forEach((answerId, counter) -> chosen.merge(answerId, counter.delta(), Long::sum));
+            }
+        } finally {
+            flushLock.readLock().unlock();
+        }
+
+        List<AnswerStatsDTO> answers = new ArrayList<>(answerIds.length);
+        for (int answerId : answerIds) {
+            long count = chosen.getOrDefault(answerId, 0L);
+            answers.add(new AnswerStatsDTO(answerId, count, rate(count, attempts)));
+        }
+        return new QuestionStatsDTO(questionId, attempts, correct, rate(correct, attempts), answers);
+    }
+
+    private static double rate(long count, long attempts) {
+        return (attempts == 0) ? 0 : (double) count / attempts;
+    }
+
+    // Default is every 10 seconds, it can be changed with property stats.flush-interval (milliseconds)
+    @Scheduled(fixedDelayString = "${stats.flush-interval:10000}")
+    public void flush() {
+        flushLock.writeLock().lock();
+        try {
+            List<QuestionDelta> questions = new ArrayList<>();
+            List<AnswerDelta> answers = new ArrayList<>();
+            long now = System.nanoTime();
+            // Dropped counters still counted in are written, the others are forgotten once their grace is over
+            retired.removeIf(dropped -> !collect(dropped.questionId, dropped.counters, questions, answers)
+                    && now - dropped.retiredAtNanos >= RETIRE_GRACE_NANOS);
+            counters.forEach((questionId, question) -> {
+                if (!collect(questionId, question, questions, answers) && counters.remove(questionId, question))
+                    retired.add(new RetiredCounters(questionId, question, now));
+            });
+            if (questions.isEmpty() && answers.isEmpty())
+                return;
+
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!questions.isEmpty())
+                    writeQuestions(questions);
+                if (!answers.isEmpty())
+                    writeAnswers(answers);
+            });
+            // Marks are moved only once the deltas are committed
+            questions.forEach(delta -> {
+                delta.counters.attempts.flushed += delta.attempts;
+                delta.counters.correct.flushed += delta.correct;
+            });
+            answers.forEach(delta -> delta.counter.flushed += delta.chosen);
+        } catch (RuntimeException exception) {
+            logger.error("Statistics could not be flushed, they are kept for the next flush", exception);
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    // Add the deltas of the counters of a question, false when they have nothing to write
+    private static boolean collect(int questionId, QuestionCounters question,
+                                   List<QuestionDelta> questions, List<AnswerDelta> answers) {
+        long attempts = question.attempts.delta();
+        long correct = question.correct.delta();
+        int answerCount = answers.size();
+        if (attempts != 0 || correct != 0)
+            questions.add(new QuestionDelta(questionId, question, attempts, correct));
+        question.answers.forEach((answerId, counter) -> {
+            long chosen = counter.delta();
+            if (chosen != 0)
+                answers.add(new AnswerDelta(answerId, questionId, counter, chosen));
+        });
+        return attempts != 0 || correct != 0 || answers.size() > answerCount;
+    }
+
+    private void writeQuestions(List<QuestionDelta> questions) {
+        jdbcTemplate.batchUpdate(isPostgresql() ? UPSERT_QUESTION_POSTGRESQL : UPSERT_QUESTION_STANDARD,
+                questions, BATCH_SIZE, (statement, delta) -> {
+                    statement.setInt(1, delta.questionId);
+                    statement.setLong(2, delta.attempts);
+                    statement.setLong(3, delta.correct);
+                });
+    }
+
+    private void writeAnswers(List<AnswerDelta> answers) {
+        jdbcTemplate.batchUpdate(isPostgresql() ? UPSERT_ANSWER_POSTGRESQL : UPSERT_ANSWER_STANDARD,
+                answers, BATCH_SIZE, (statement, delta) -> {
+                    statement.setInt(1, delta.answerId);
+                    statement.setInt(2, delta.questionId);
+                    statement.setLong(3, delta.chosen);
+                });
+    }
+
+    private boolean isPostgresql() {
+        Boolean isPostgresql = postgresql;
+        if (isPostgresql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            isPostgresql = "PostgreSQL".equalsIgnoreCase(product);
+            postgresql = isPostgresql;
+        }
+        return isPostgresql;
+    }
+
+    // Counts graded since the last flush are written before the database is closed
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // Live count and the part of it which is already in the database
+    private static class Counter {
+        private final LongAdder value = new LongAdder();
+        // Only moved by the flush, under the write lock, and read under the read lock
+        private long flushed;
+
+        void increment() {
+            value.increment();
+        }
+
+        long delta() {
+            return value.sum() - flushed;
+        }
+    }
+
+    private static class QuestionCounters {
+        private final Counter attempts = new Counter();
+        private final Counter correct = new Counter();
+        private final Map<Integer, Counter> answers = new ConcurrentHashMap<>();
+    }
+
+    private record RetiredCounters(int questionId, QuestionCounters counters, long retiredAtNanos) {
+    }
+
+    private record QuestionDelta(int questionId, QuestionCounters counters, long attempts, long correct) {
+    }
+
+    private record AnswerDelta(int answerId, int questionId, Counter counter, long chosen) {
+    }
+}
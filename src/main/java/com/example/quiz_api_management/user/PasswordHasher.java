@@ -0,0 +1,122 @@
+package com.example.quiz_api_management.user;
+
+import com.example.quiz_api_management.exception.ServiceUnavailableException;
+import com.example.quiz_api_management.util.PasswordUtil;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Executor of the BCrypt work (hash of a new password, check of a sign-in), kept away from the request threads.
+
+A hash costs tens of milliseconds of CPU on purpose, so a storm of sign-ins at the start of an exam would take every core
+from the reads of quizzes. Hashes run on a fixed number of threads (by default half of the cores, at least one) with a
+bounded queue in front of them. When the queue is full, the request is rejected at once with 503 and Retry-After instead
+of waiting: a client retrying later costs nothing, a growing queue would only make every sign-in late.
+The request thread waits for its hash, so a sign-in takes as long as before when the executor is not saturated.
+ */
+@Component
+public class PasswordHasher {
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final int queueCapacity;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maximumQueueWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maximumHashNanos = new LongAccumulator(Math::max, 0);
+
+    @Autowired
+    public PasswordHasher(@Value("${passwords.hasher.threads:0}") int threads,
+                          @Value("${passwords.hasher.queue-capacity:32}") int queueCapacity) {
+        this.threads = (threads > 0) ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> PasswordUtil.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> PasswordUtil.matches(rawPassword, encodedPassword));
+    }
+
+    private <T> T run(Callable<T> hash) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return hash.call();
+                } finally {
+                    record(startedAt - submittedAt, System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many sign-in requests, please retry.", RETRY_AFTER_SECONDS);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException exception) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Password check was interrupted, please retry.", RETRY_AFTER_SECONDS);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
+    private void record(long waitNanos, long elapsedNanos) {
+        completed.increment();
+        queueWaitNanos.add(waitNanos);
+        hashNanos.add(elapsedNanos);
+        maximumQueueWaitNanos.accumulate(waitNanos);
+        maximumHashNanos.accumulate(elapsedNanos);
+    }
+
+    public PasswordHasherStats stats() {
+        long count = completed.sum();
+        return new PasswordHasherStats(
+                threads,
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                queueCapacity,
+                count,
+                rejected.sum(),
+                (count == 0) ? 0 : queueWaitNanos.sum() / 1_000_000.0 / count,
+                maximumQueueWaitNanos.get() / 1_000_000.0,
+                (count == 0) ? 0 : hashNanos.sum() / 1_000_000.0 / count,
+                maximumHashNanos.get() / 1_000_000.0);
+    }
+
+    // Hashes already queued are finished, the request threads waiting for them get their answer
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.quiz_api_management.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Snapshot of the counters of PasswordHasher, returned by GET /api/v1/metrics/passwords
+@Data
+@AllArgsConstructor
+public class PasswordHasherStats {
+    private int threads;
+    private int activeThreads;
+    private int queueDepth;
+    private int queueCapacity;
+    private long completed;
+    private long rejected;
+    private double averageQueueWaitMillis;
+    private double maximumQueueWaitMillis;
+    private double averageHashMillis;
+    private double maximumHashMillis;
+}
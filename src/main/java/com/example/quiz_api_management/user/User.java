@@ -1,6 +1,5 @@
 package com.example.quiz_api_management.user;
 
-import com.example.quiz_api_management.util.PasswordUtil;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -23,7 +22,7 @@ public class User implements UserDetails {
     @SequenceGenerator(
             name = "user_sequence",
             sequenceName = "user_sequence",
-            allocationSize = 1
+            allocationSize = 50
     )
 
     @GeneratedValue(
@@ -67,14 +66,15 @@ public class User implements UserDetails {
     @Column(name ="is_deleted")
     private boolean isDeleted;
 
-    //
+    // Role names in lower case (student, teacher, coordinator), they grant ROLE_<NAME> authorities
     @ElementCollection
     private Set<String> roles;
 
-    public User(String userName, String email, String password, String firstName, String lastName, LocalDate birthday) {
+    // The password is already encoded, BCrypt runs on PasswordHasher and not inside the constructor
+    public User(String userName, String email, String encodedPassword, String firstName, String lastName, LocalDate birthday) {
         this.userName = userName;
         this.email = email;
-        this.password = PasswordUtil.encode(password);
+        this.password = encodedPassword;
         this.firstName = firstName;
         this.lastName = lastName;
         this.birthday = birthday;
@@ -84,9 +84,17 @@ public class User implements UserDetails {
     }
 
 
+    // Authorities granted by role names, "teacher" grants ROLE_TEACHER so that @PreAuthorize("hasRole('TEACHER')") matches
+    public static List<GrantedAuthority> authoritiesOf(Collection<String> roles) {
+        return roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))
+                .toList();
+    }
+
+    // Authorities of the roles of the user, it used to return a placeholder which no @PreAuthorize could match
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority("userRole.name()"));
+        return (roles != null) ? authoritiesOf(roles) : List.of();
     }
 
     @Override
@@ -1,6 +1,8 @@
 package com.example.quiz_api_management.user;
 
 import com.example.quiz_api_management.common.AuthToken;
+import com.example.quiz_api_management.common.CursorReturn;
+import com.example.quiz_api_management.common.KeysetPage;
 import com.example.quiz_api_management.common.ResponseReturn;
 import com.example.quiz_api_management.exception.DuplicateException;
 import com.example.quiz_api_management.exception.NotFoundException;
@@ -10,17 +12,20 @@ import com.example.quiz_api_management.util.RequestBodyError;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
 
 @RestController
 @RequestMapping(path = "/api/v1")
 public class UserController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
     private final UserService userService;
 
     @Autowired
@@ -28,16 +33,54 @@ public class UserController {
         this.userService = userService;
     }
 
+    /*
+    Keyset pagination of users: ?after=<cursor from previous page>&limit=<1..100>, ordered by id.
+    isDeleted and role filter the listing, they are carried by the cursor for the next pages.
+    It replaces the listing of the whole table in one response.
+     */
     @GetMapping(path = "/users")
-    public ResponseEntity<ResponseReturn> getAllUsers() {
-        List<UserDTO> users = userService.getUsers();
+    public ResponseEntity<CursorReturn> getUsers(@RequestParam(value = "after", required = false) String after,
+                                                 @RequestParam(value = "limit", required = false) Integer limit,
+                                                 @RequestParam(value = "isDeleted", required = false) Boolean isDeleted,
+                                                 @RequestParam(value = "role", required = false) String role) {
+        int defaultLimit = 20;
+        int maxLimit = 100;
+        int pageLimit = (limit != null) ? limit : defaultLimit;
+        if (pageLimit < 1 || pageLimit > maxLimit)
+            throw new NotValidParamsException("Limit should be between 1 and " + maxLimit + ".");
+
+        KeysetPage<UserListDTO> users = userService.scrollUsers(after, pageLimit, isDeleted, validRole(role));
+        return new ResponseEntity<>(
+                new CursorReturn(LocalDateTime.now(),
+                        "Pagination of users is returned.",
+                        HttpStatus.OK.value(),
+                        true,
+                        users.getContent(),
+                        users.getContent().size(),
+                        users.getNextCursor(),
+                        users.hasNext()), HttpStatus.OK);
+    }
 
-        return new ResponseEntity<>(new ResponseReturn(
-                LocalDateTime.now(),
-                "User is returned",
-                HttpStatus.OK.value(),
-                true,
-                users), HttpStatus.OK);
+    /*
+    Export of the users as NDJSON with the same filters as the listing, for coordinators only. The response is not
+    wrapped into ResponseReturn: it is written page by page while the users are read, so its size is not bounded by the memory.
+     */
+    @PreAuthorize("hasRole('COORDINATOR')")
+    @GetMapping(path = "/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(value = "isDeleted", required = false) Boolean isDeleted,
+                                                             @RequestParam(value = "role", required = false) String role) {
+        String roleFilter = validRole(role);
+        StreamingResponseBody body = output -> userService.writeUsersNdjson(output, isDeleted, roleFilter);
+        return ResponseEntity.status(HttpStatus.OK).contentType(NDJSON).body(body);
+    }
+
+    // Roles are stored in lower case, see addRole and db/user_roles.sql
+    private String validRole(String role) {
+        if (role == null)
+            return null;
+        if (!userService.checkValidRole(role))
+            throw new NotValidParamsException("Role does not exist");
+        return role.toLowerCase();
     }
 
 
@@ -77,9 +120,9 @@ public class UserController {
     @PutMapping(path = "/users/{userid}")
     public ResponseEntity<ResponseReturn> updateUser(@PathVariable("userid") int userId,
                                                      @Valid @RequestBody UserDTO reqBody) {
-        userService.getUser(userId).orElseThrow(() -> new NotFoundException("User not found"));
+        UserDTO currentUser = userService.getUser(userId).orElseThrow(() -> new NotFoundException("User not found"));
 
-        UserDTO updatedUser = userService.updateUser(userId, reqBody);
+        UserDTO updatedUser = userService.updateUser(currentUser, reqBody);
 
         return new ResponseEntity<>(new ResponseReturn(
                 LocalDateTime.now(),
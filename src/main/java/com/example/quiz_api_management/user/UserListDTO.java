@@ -0,0 +1,16 @@
+package com.example.quiz_api_management.user;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// A user of the listing and of the export, with its roles next to the fields of UserDTO
+@Data
+@AllArgsConstructor
+public class UserListDTO {
+    @JsonUnwrapped
+    private UserDTO user;
+    private List<String> roles;
+}
@@ -1,8 +1,15 @@
 package com.example.quiz_api_management.user;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,4 +22,30 @@ public interface UserRepository extends JpaRepository<User, Integer> {
 
     Optional<User> findByEmailAndPassword(String email, String password);
 
+    // Role names of a user, put into the token at sign-in
+    @Query(value = "SELECT r FROM User u JOIN u.roles r WHERE u.id = :userId")
+    List<String> findRolesById(@Param("userId") int userId);
+
+    /*
+    Keyset page of users after the given id, ordered by id. isDeleted and role are optional filters (null for all).
+    Users are read as DTOs, so neither the entities nor their collection of roles are loaded.
+     */
+    @Query(value = "SELECT new com.example.quiz_api_management.user.UserDTO(u.id, u.userName, u.email, u.firstName, " +
+            "u.lastName, u.birthday, u.createdAt, u.updatedAt, u.isDeleted) FROM User u " +
+            "WHERE u.id > :afterId AND (:isDeleted IS NULL OR u.isDeleted = :isDeleted) " +
+            "AND (:role IS NULL OR :role MEMBER OF u.roles) ORDER BY u.id")
+    List<UserDTO> seekUsers(@Param("afterId") int afterId, @Param("isDeleted") Boolean isDeleted,
+                            @Param("role") String role, Pageable pageable);
+
+    // Roles of a page of users with one query
+    @Query(value = "SELECT new com.example.quiz_api_management.user.UserRole(u.id, r) FROM User u JOIN u.roles r " +
+            "WHERE u.id IN :userIds")
+    List<UserRole> findRolesByIds(@Param("userIds") Collection<Integer> userIds);
+
+    @Modifying
+    @Query(value = "UPDATE User u SET u.firstName = :firstName, u.lastName = :lastName, u.birthday = :birthday, " +
+            "u.updatedAt = :updatedAt WHERE u.id = :userId")
+    int updateProfile(@Param("userId") int userId, @Param("firstName") String firstName, @Param("lastName") String lastName,
+                      @Param("birthday") LocalDate birthday, @Param("updatedAt") LocalDate updatedAt);
+
 }
@@ -0,0 +1,5 @@
+package com.example.quiz_api_management.user;
+
+// One role of a user, read for a whole page of users with one query instead of one collection per user
+public record UserRole(int userId, String role) {
+}
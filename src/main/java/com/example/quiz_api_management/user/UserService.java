@@ -1,35 +1,54 @@
 package com.example.quiz_api_management.user;
 
 
+import com.example.quiz_api_management.cache.UserDetailsCache;
 import com.example.quiz_api_management.common.AuthToken;
-import com.example.quiz_api_management.util.PasswordUtil;
+import com.example.quiz_api_management.common.KeysetCursor;
+import com.example.quiz_api_management.common.KeysetPage;
+import com.example.quiz_api_management.exception.NotValidParamsException;
+import com.example.quiz_api_management.security.JwtTokenService;
+import com.example.quiz_api_management.security.TokenDenylist;
+import com.example.quiz_api_management.util.TransactionUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import io.jsonwebtoken.*;
-
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
-import java.time.ZonedDateTime;
-import java.util.Date;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final UserDTOMapper userDTOMapper;
+    private final PasswordHasher passwordHasher;
+    private final JwtTokenService jwtTokenService;
+    private final TokenDenylist tokenDenylist;
+    private final ObjectMapper objectMapper;
+    private final UserDetailsCache userDetailsCache;
+    private static final int EXPORT_PAGE_SIZE = 1000;
 
     @Autowired
-    public UserService(UserRepository userRepository, UserDTOMapper userDTOMapper){
+    public UserService(UserRepository userRepository, UserDTOMapper userDTOMapper, PasswordHasher passwordHasher,
+                       JwtTokenService jwtTokenService, TokenDenylist tokenDenylist, ObjectMapper objectMapper,
+                       UserDetailsCache userDetailsCache){
         this.userRepository = userRepository;
         this.userDTOMapper = userDTOMapper;
+        this.passwordHasher = passwordHasher;
+        this.jwtTokenService = jwtTokenService;
+        this.tokenDenylist = tokenDenylist;
+        this.objectMapper = objectMapper;
+        this.userDetailsCache = userDetailsCache;
     }
 
 
@@ -37,86 +56,179 @@ public class UserService implements UserDetailsService {
         return Optional.of(userRepository.findByEmail(email));
     }
 
+    /*
+    Id of the signed in user: a JWT carries it in the details of its authentication,
+    other logins are matched by email (the email attribute of an OAuth2 login).
+     */
+    public Optional<Integer> getUserId(Authentication authentication) {
+        if (authentication == null)
+            return Optional.empty();
+        if (authentication.getDetails() instanceof Integer userId)
+            return Optional.of(userId);
+        String email = (authentication.getPrincipal() instanceof OAuth2User oauth2User)
+                ? oauth2User.getAttribute("email")
+                : authentication.getName();
+        return Optional.ofNullable(userRepository.findByEmail(email)).map(User::getId);
+    }
+
+    /*
+    The password is checked on PasswordHasher, which rejects the sign-in with 503 when it is saturated.
+    The user read by email is returned directly instead of being read again by email and password.
+     */
     public Optional<UserDTO> checkEmailAndPassWord(String email, String password){
-        String encodedPassword = userRepository.findByEmail(email).getPassword();
-        if (PasswordUtil.matches(password, encodedPassword))
-            return userRepository
-                    .findByEmailAndPassword(email, encodedPassword)
-                    .map(userDTOMapper);
-        else
+        User user = userRepository.findByEmail(email);
+        if (user == null || !passwordHasher.matches(password, user.getPassword()))
             return Optional.empty();
+        return Optional.of(userDTOMapper.apply(user));
+    }
+
+    /*
+    Keyset page of users ordered by id, with their roles read by one query for the whole page.
+    The filters are taken from the cursor when it is given, so that every page of one listing has the same filters.
+     */
+    public KeysetPage<UserListDTO> scrollUsers(String after, int limit, Boolean isDeleted, String role){
+        KeysetCursor cursor = (after != null) ? KeysetCursor.decode(after) : null;
+        UserFilter filter = (cursor != null) ? UserFilter.decode(cursor.getFilter()) : new UserFilter(isDeleted, role);
+
+        List<UserDTO> users = userRepository.seekUsers((cursor != null) ? cursor.getId() : 0,
+                filter.isDeleted(), filter.role(), PageRequest.of(0, limit + 1));
+        return KeysetPage.of(users, limit,
+                last -> new KeysetCursor(null, filter.encode(), null, last.getId()), this::withRoles);
+    }
+
+    /*
+    Export of the users as NDJSON, one line per user with its roles.
+    Users are read by keyset pages of EXPORT_PAGE_SIZE, each with one query for the roles of the page,
+    so only one page is held in memory whatever the number of users and no transaction stays open during the export.
+     */
+    public void writeUsersNdjson(OutputStream output, Boolean isDeleted, String role) throws IOException {
+        int afterId = 0;
+        List<UserDTO> users;
+        do {
+            users = userRepository.seekUsers(afterId, isDeleted, role, PageRequest.of(0, EXPORT_PAGE_SIZE));
+            for (UserListDTO user : withRoles(users)) {
+                output.write(objectMapper.writeValueAsBytes(user));
+                output.write('\n');
+            }
+            output.flush();
+            if (!users.isEmpty())
+                afterId = users.get(users.size() - 1).getId();
+        } while (users.size() == EXPORT_PAGE_SIZE);
     }
 
-    public List<UserDTO> getUsers(){
-        return userRepository.findAll().stream().map(userDTOMapper).toList();
+    private List<UserListDTO> withRoles(List<UserDTO> users){
+        if (users.isEmpty())
+            return List.of();
+        Map<Integer, List<String>> roles = new HashMap<>();
+        userRepository.findRolesByIds(users.stream().map(UserDTO::getId).toList())
+                .forEach(userRole -> roles.computeIfAbsent(userRole.userId(), id -> new ArrayList<>()).add(userRole.role()));
+        return users.stream()
+                .map(user -> new UserListDTO(user, roles.getOrDefault(user.getId(), List.of())))
+                .toList();
     }
 
     public Optional<UserDTO> getUser(int userId){
         return userRepository.findById(userId).map(userDTOMapper);
     }
 
+    /*
+    The saved entity is returned directly. It used to be read back by email and raw password,
+    which never matched the encoded password stored.
+     */
     public UserDTO createUser(User reqBody){
-        User newUser = new User(reqBody.getUserName(), reqBody.getEmail(), reqBody.getPassword(),
+        User newUser = new User(reqBody.getUserName(), reqBody.getEmail(), passwordHasher.encode(reqBody.getPassword()),
                 reqBody.getFirstName(), reqBody.getLastName(), reqBody.getBirthday());
-        userRepository.save(newUser);
-        return userRepository.findByEmailAndPassword(reqBody.getEmail(), reqBody.getPassword())
-                .stream().findAny()
-                .map(userDTOMapper).orElse(null);
-    }
-
-    public UserDTO updateUser(int userId, UserDTO reqBody){
-        User user = userRepository.findById(userId).get();
-        user.setFirstName(reqBody.getFirstName());
-        user.setLastName(reqBody.getLastName());
-        user.setBirthday(reqBody.getBirthday());
-        user.setUpdatedAt(LocalDate.now());
-        userRepository.save(user);
-        Optional<User> newUser = userRepository.findById(userId);
-        return newUser.map(userDTOMapper).orElse(null);
+        return userDTOMapper.apply(userRepository.save(newUser));
+    }
+
+    // One UPDATE statement, the returned user is built from the current one read by the controller
+    @Transactional
+    public UserDTO updateUser(UserDTO currentUser, UserDTO reqBody){
+        LocalDate updatedAt = LocalDate.now();
+        userRepository.updateProfile(currentUser.getId(), reqBody.getFirstName(), reqBody.getLastName(),
+                reqBody.getBirthday(), updatedAt);
+        return new UserDTO(
+                currentUser.getId(),
+                currentUser.getUserName(),
+                currentUser.getEmail(),
+                reqBody.getFirstName(),
+                reqBody.getLastName(),
+                reqBody.getBirthday(),
+                currentUser.getCreatedAt(),
+                updatedAt,
+                currentUser.isDeleted());
     }
 
+    // Same statements as deleteById, the loaded user gives the email of its cached UserDetails and revokes its tokens
+    @Transactional
     public void deleteUser(int userId){
-        userRepository.deleteById(userId);
+        userRepository.findById(userId).ifPresent(user -> {
+            userRepository.delete(user);
+            userChanged(user);
+        });
     }
 
+    /*
+    Signed token accepted as a bearer credential by JwtAuthenticationFilter. It carries the id, the email and the roles
+    of the user, so its requests are authenticated without reading the user. The whole UserDTO used to be put in
+    an unsigned token, which the filter could not trust.
+     */
     public AuthToken returnJWT(Optional<UserDTO> existUser) {
-        int TWENTY_MINUTES = 20;
-        String jwtToken = Jwts.builder()
-                .setSubject(existUser.get().getUserName())
-                .claim("User", existUser)
-                .setExpiration(Date.from(ZonedDateTime.now().plusMinutes(TWENTY_MINUTES).toInstant()))
-                .compact();
-        return new AuthToken("JWT", jwtToken, TWENTY_MINUTES *60);
+        UserDTO user = existUser.get();
+        String jwtToken = jwtTokenService.issue(user.getId(), user.getEmail(),
+                userDetailsCache.getRoles(user.getId(), userRepository::findRolesById).names());
+        return new AuthToken("JWT", jwtToken, JwtTokenService.EXPIRATION_MINUTES * 60);
     }
 
 
 
+    /*
+    The token is revoked until it expires, the filter then rejects it on every request.
+    A token which is not valid is already rejected, there is nothing to revoke.
+     */
     public void signOut(AuthToken authToken){
+        if (authToken.getToken() == null)
+            return;
+        jwtTokenService.verify(authToken.getToken())
+                .ifPresent(verified -> tokenDenylist.revoke(verified.tokenId(), verified.expiresAtMillis()));
         int EXPIRED_SECOND = 0;
         authToken.setExpirationTime(EXPIRED_SECOND);
     }
 
+    // The cached UserDetails hold the old password and the tokens were signed in with it, both go with the change
     public void changePassword(Optional<UserDTO> existUser, UserPassword userPassword){
         User user = userRepository.findById(existUser.get().getId()).get();
-        user.setPassword(userPassword.getPassword());
+        // The new password is encoded like the one of a sign-up, it used to be stored as sent
+        user.setPassword(passwordHasher.encode(userPassword.getPassword()));
         userRepository.save(user);
+        userChanged(user);
     }
 
+    /*
+    Read through UserDetailsCache: an authentication of a cached user reads nothing.
+    On a miss the user is read by email and its roles by one query, the lazy collection is not loaded outside a transaction.
+    A copy is returned, so an erase of the credentials by the caller does not reach the cached UserDetails.
+     */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        UserDetails userDetails = userDetailsCache.getUserDetails(email, this::readUserDetails)
+                .orElseThrow(() -> new UsernameNotFoundException("No User Found"));
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails).build();
+    }
+
+    private Optional<UserDetails> readUserDetails(String email) {
         User user = userRepository.findByEmail(email);
-        if(user == null){
-            throw new UsernameNotFoundException("No User Found");
-        }
-        return new org.springframework.security.core.userdetails.User(
+        if (user == null)
+            return Optional.empty();
+        return Optional.of(new org.springframework.security.core.userdetails.User(
                 user.getEmail(),
                 user.getPassword(),
                 user.isEnabled(),
                 true,
                 true,
                 true,
-                user.getAuthorities()
-        );
+                userDetailsCache.getRoles(user.getId(), userRepository::findRolesById).authorities()
+        ));
     }
 
 
@@ -128,9 +240,14 @@ public class UserService implements UserDetailsService {
         return new AuthToken(tokenType, accessToken, expiredTime);
     }
 
+    // Roles are stored in lower case so that the listing can filter on them. The change used to be lost without a transaction
+    @Transactional
     public void addRole(int userId, String role) {
         Optional<User> user = userRepository.findById(userId);
-        user.ifPresent(value -> value.getRoles().add(role));
+        user.ifPresent(value -> {
+            if (value.getRoles().add(role.toLowerCase()))
+                userChanged(value);
+        });
     }
 
     public boolean checkValidRole(String role){
@@ -146,8 +263,36 @@ public class UserService implements UserDetailsService {
     }
 
     // Method for removing a role from a user
+    @Transactional
     public void removeRole(int userId, String role) {
         Optional<User> user = userRepository.findById(userId);
-        user.ifPresent(value -> value.getRoles().remove(role));
+        user.ifPresent(value -> {
+            if (value.getRoles().remove(role.toLowerCase()))
+                userChanged(value);
+        });
+    }
+
+    /*
+    The cached UserDetails and roles of the user are evicted, and the tokens issued to it until now are revoked:
+    they carry the old roles, and the filter trusts them without reading the user. The user signs in again.
+     */
+    private void userChanged(User user) {
+        userDetailsCache.evictUser(user.getId(), user.getEmail());
+        TransactionUtil.afterCommit(() -> tokenDenylist.revokeUser(user.getId()));
+    }
+
+    // Filters of the listing of users, carried by the cursor as "isDeleted,role" where an empty part is no filter
+    private record UserFilter(Boolean isDeleted, String role) {
+        String encode() {
+            return (isDeleted != null ? isDeleted.toString() : "") + "," + (role != null ? role : "");
+        }
+
+        static UserFilter decode(String filter) {
+            String[] parts = (filter != null) ? filter.split(",", 2) : new String[0];
+            if (parts.length != 2)
+                throw new NotValidParamsException("Cursor is not valid.");
+            return new UserFilter(parts[0].isEmpty() ? null : Boolean.valueOf(parts[0]),
+                    parts[1].isEmpty() ? null : parts[1]);
+        }
     }
 }
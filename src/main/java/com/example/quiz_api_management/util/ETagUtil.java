@@ -0,0 +1,29 @@
+package com.example.quiz_api_management.util;
+
+import com.example.quiz_api_management.common.ResponseReturn;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+public class ETagUtil {
+    /*
+    Strong ETag of a resource, built from its id and the version column of the entity.
+    The resource name keeps ETags of different representations (a quiz, its list of questions) apart.
+     */
+    public static String of(String resource, int id, long version) {
+        return "\"" + resource + "-" + id + "-" + version + "\"";
+    }
+
+    /*
+    Response of a conditional GET. A strong ETag promises the same body for the same version,
+    so the envelope has no timestamp of the response, the Date header gives it.
+     */
+    public static ResponseEntity<ResponseReturn> ok(String eTag, String message, Object data) {
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag).body(
+                new ResponseReturn(null, message, HttpStatus.OK.value(), true, data));
+    }
+
+    // Response of a conditional GET whose If-None-Match matches the current ETag, without body
+    public static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+}
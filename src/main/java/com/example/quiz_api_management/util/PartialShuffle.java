@@ -0,0 +1,25 @@
+package com.example.quiz_api_management.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class PartialShuffle {
+    /*
+    First count values of a Fisher-Yates shuffle of values, in O(count) whatever the length of values.
+    Only the swapped positions are remembered, the array itself is never modified so it can be shared (cached).
+    The same random seed over the same array always gives the same values in the same order.
+     */
+    public static int[] first(int[] values, int count, Random random) {
+        int size = Math.min(count, values.length);
+        Map<Integer, Integer> swapped = new HashMap<>();
+        int[] shuffled = new int[size];
+        for (int i = 0; i < size; i++) {
+            int j = i + random.nextInt(values.length - i);
+            int picked = swapped.getOrDefault(j, j);
+            swapped.put(j, swapped.getOrDefault(i, i));
+            shuffled[i] = values[picked];
+        }
+        return shuffled;
+    }
+}
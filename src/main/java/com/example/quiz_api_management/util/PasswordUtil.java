@@ -2,6 +2,7 @@ package com.example.quiz_api_management.util;
 
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+// BCrypt itself, called on the threads of PasswordHasher and not on request threads
 public class PasswordUtil {
     private static final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
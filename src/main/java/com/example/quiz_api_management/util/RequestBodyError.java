@@ -2,6 +2,8 @@ package com.example.quiz_api_management.util;
 
 import com.example.quiz_api_management.common.RequiredFieldSignal;
 import com.example.quiz_api_management.common.ResponseReturn;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -13,13 +15,36 @@ import java.util.List;
 public class RequestBodyError {
     public static ResponseEntity<ResponseReturn> returnRequiredFields(BindingResult bindingResult){
         List<RequiredFieldSignal> requiredFieldSignals = new ArrayList<>();
-        String errorMessage = "";
         bindingResult.getFieldErrors().forEach(
                 fieldError -> {
                     requiredFieldSignals.add(
                             new RequiredFieldSignal(fieldError.getField(), fieldError.getDefaultMessage()));
                 }
         );
+        return returnRequiredFields(requiredFieldSignals);
+    }
+
+    /*
+    Bodies which are lists are not validated by @Valid, so every item is validated here.
+    Fields are prefixed by the index of their item, e.g. [3].value
+     */
+    public static List<RequiredFieldSignal> validateItems(Validator validator, List<?> items){
+        List<RequiredFieldSignal> requiredFieldSignals = new ArrayList<>();
+        for (int index = 0; index < items.size(); index++) {
+            Object item = items.get(index);
+            if (item == null) {
+                requiredFieldSignals.add(new RequiredFieldSignal("[" + index + "]", "must not be null"));
+                continue;
+            }
+            for (ConstraintViolation<Object> violation : validator.validate(item))
+                requiredFieldSignals.add(new RequiredFieldSignal(
+                        "[" + index + "]." + violation.getPropertyPath(), violation.getMessage()));
+        }
+        return requiredFieldSignals;
+    }
+
+    public static ResponseEntity<ResponseReturn> returnRequiredFields(List<RequiredFieldSignal> requiredFieldSignals){
+        String errorMessage = "";
         for (RequiredFieldSignal requiredFieldSignal : requiredFieldSignals){
             errorMessage += "Field required: "+ requiredFieldSignal.getField() +
                     ", cause: "+ requiredFieldSignal.getCause() + ". ";
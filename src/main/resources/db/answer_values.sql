@@ -0,0 +1,8 @@
+-- Run once on an existing database: answers are unique per question ignoring case.
+-- The index is the backstop of the duplicate checks of AnswerService when two requests add the same value at once.
+-- Answers which already collide keep their value for the first one (lowest id), the others get their id appended.
+UPDATE answer SET value = LEFT(value, 240) || ' (' || id || ')'
+WHERE id IN (SELECT id FROM (SELECT id, ROW_NUMBER() OVER (PARTITION BY question_id, LOWER(value) ORDER BY id) AS position
+                             FROM answer) ranked
+             WHERE position > 1);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_answer_question_value ON answer (question_id, LOWER(value));
@@ -0,0 +1,3 @@
+-- Version columns used as ETags by the conditional GETs of quizzes, questions and answers.
+ALTER TABLE quiz ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE question ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
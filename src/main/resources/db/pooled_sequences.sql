@@ -0,0 +1,8 @@
+-- Run once on an existing database before starting the version with allocationSize = 50.
+-- Entities reserve ids by blocks of 50 (pooled-lo), so the increment of every sequence must be 50.
+-- Hibernate refuses to start when the increment in database differs from allocationSize.
+-- The next values start after the ids already used, nothing is reused.
+ALTER SEQUENCE quiz_sequence INCREMENT BY 50;
+ALTER SEQUENCE question_sequence INCREMENT BY 50;
+ALTER SEQUENCE answer_sequence INCREMENT BY 50;
+ALTER SEQUENCE user_sequence INCREMENT BY 50;
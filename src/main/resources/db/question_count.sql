@@ -0,0 +1,5 @@
+-- Run once on an existing database: every quiz keeps its number of questions in question_count.
+-- QuestionService maintains it from then on and QuestionCountRepairJob fixes rows written outside the services.
+ALTER TABLE quiz ADD COLUMN IF NOT EXISTS question_count INTEGER NOT NULL DEFAULT 0;
+UPDATE quiz SET question_count = (SELECT COUNT(*) FROM question WHERE question.quiz_id = quiz.id);
+CREATE INDEX IF NOT EXISTS idx_quiz_question_count ON quiz (question_count, id);
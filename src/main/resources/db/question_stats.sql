@@ -0,0 +1,13 @@
+-- Answer statistics, increased by the deltas flushed by QuestionStatsService. Question and answer are plain ids,
+-- like in quiz_attempt. The primary keys are the conflict targets of the upserts of the flush.
+CREATE TABLE IF NOT EXISTS question_stats (
+    question_id INTEGER PRIMARY KEY,
+    attempts BIGINT NOT NULL,
+    correct BIGINT NOT NULL
+);
+CREATE TABLE IF NOT EXISTS answer_stats (
+    answer_id INTEGER PRIMARY KEY,
+    question_id INTEGER NOT NULL,
+    chosen BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_answer_stats_question ON answer_stats (question_id);
@@ -0,0 +1,8 @@
+-- Run once on an existing database: questions are unique per quiz.
+-- The index is the backstop of the duplicate checks of QuestionService when two requests add the same value at once.
+-- Questions which already collide keep their value for the first one (lowest id), the others get their id appended.
+UPDATE question SET value = LEFT(value, 240) || ' (' || id || ')'
+WHERE id IN (SELECT id FROM (SELECT id, ROW_NUMBER() OVER (PARTITION BY quiz_id, value ORDER BY id) AS position
+                             FROM question) ranked
+             WHERE position > 1);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_question_quiz_value ON question (quiz_id, value);
@@ -0,0 +1,13 @@
+-- Attempts of quizzes, written in batches by AttemptStore. Quiz and user are plain ids, without foreign keys,
+-- so attempts are inserted without reading them and are kept when a quiz is deleted.
+CREATE SEQUENCE IF NOT EXISTS attempt_sequence INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS quiz_attempt (
+    id BIGINT PRIMARY KEY,
+    quiz_id INTEGER NOT NULL,
+    user_id INTEGER NOT NULL,
+    correct_answers INTEGER NOT NULL,
+    total_questions INTEGER NOT NULL,
+    score DOUBLE PRECISION NOT NULL,
+    submitted_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_attempt_quiz_score ON quiz_attempt (quiz_id, score);
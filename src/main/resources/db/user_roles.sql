@@ -0,0 +1,9 @@
+-- Run once on an existing database: roles are stored in lower case, the role filter of the listing and export matches them so.
+-- A user holding the same role in several cases keeps one, the lower case one when it has it.
+DELETE FROM user_roles
+WHERE (user_id, roles) IN (SELECT user_id, roles
+                           FROM (SELECT user_id, roles, ROW_NUMBER() OVER (PARTITION BY user_id, LOWER(roles)
+                                                                           ORDER BY roles = LOWER(roles) DESC, roles) AS position
+                                 FROM user_roles) ranked
+                           WHERE position > 1);
+UPDATE user_roles SET roles = LOWER(roles) WHERE roles <> LOWER(roles);
@@ -0,0 +1,31 @@
+package com.example.quiz_api_management;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Counts the SQL statements sent by Hibernate, registered in the test application.properties.
+Calls to sequences are not counted: ids are reserved by blocks of 50, so whether a call happens
+depends on the rows inserted before, not on the code under test.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    @Override
+    public String inspect(String sql) {
+        String statement = sql.toLowerCase(Locale.ROOT);
+        if (!statement.contains("next value for") && !statement.contains("nextval("))
+            COUNT.incrementAndGet();
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.set(0);
+    }
+
+    public static int count() {
+        return COUNT.get();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.quiz_api_management.answer;
+
+import com.example.quiz_api_management.SqlStatementCounter;
+import com.example.quiz_api_management.question.Question;
+import com.example.quiz_api_management.question.QuestionRepository;
+import com.example.quiz_api_management.quiz.QuizRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/*
+Timings of AnswerService on large questions, printed and not asserted: mvn test -Pbenchmark
+The behavior they measure is asserted by AnswerServiceTests.
+ */
+@SpringBootTest
+class AnswerServiceBenchmarks {
+    @Autowired
+    private AnswerService answerService;
+    @Autowired
+    private AnswerRepository answerRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private QuizRepository quizRepository;
+
+    @Test
+    void duplicateChecksOfNewValues() {
+        int numberOfAnswers = 10_000;
+        int checks = 1_000;
+        Question question = new LargeQuestionFixture(quizRepository, questionRepository, answerRepository)
+                .create("Benchmarked duplicate checks", numberOfAnswers);
+        answerService.existAnswer(question.getId(), "Answer 0");
+
+        SqlStatementCounter.reset();
+        long start = System.nanoTime();
+        for (int i = 0; i < checks; i++)
+            answerService.existAnswer(question.getId(), "New answer " + i);
+        long elapsedMicros = (System.nanoTime() - start) / 1_000;
+        System.out.printf("%d checks of new values among %d answers: %d queries, %d us%n",
+                checks, numberOfAnswers, SqlStatementCounter.count(), elapsedMicros);
+    }
+
+    // A page of a seeded shuffle next to the previous path (every answer loaded, shuffled and mapped)
+    @Test
+    void shufflePageAgainstWholeShuffle() {
+        int numberOfAnswers = 10_000;
+        Question question = new LargeQuestionFixture(quizRepository, questionRepository, answerRepository)
+                .create("Benchmarked shuffle", numberOfAnswers);
+        answerService.shuffleAnswers(question.getId(), 42L, 1, 20);
+
+        long start = System.nanoTime();
+        answerService.shuffleAnswers(question.getId(), 42L, 2, 20);
+        long pageMicros = (System.nanoTime() - start) / 1_000;
+
+        start = System.nanoTime();
+        List<Answer> loaded = answerRepository.findAnswersByQuestion(Optional.of(question));
+        Collections.shuffle(loaded);
+        loaded.stream().map(Answer::getId).toList();
+        long previousMicros = (System.nanoTime() - start) / 1_000;
+        System.out.printf("Shuffle of %d answers: page of 20 in %d us, previous path in %d us%n",
+                numberOfAnswers, pageMicros, previousMicros);
+    }
+}
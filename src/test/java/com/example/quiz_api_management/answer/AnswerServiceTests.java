@@ -0,0 +1,180 @@
+package com.example.quiz_api_management.answer;
+
+import com.example.quiz_api_management.SqlStatementCounter;
+import com.example.quiz_api_management.common.BatchItemResult;
+import com.example.quiz_api_management.common.BatchResult;
+import com.example.quiz_api_management.question.Question;
+import com.example.quiz_api_management.question.QuestionRepository;
+import com.example.quiz_api_management.quiz.Quiz;
+import com.example.quiz_api_management.quiz.QuizRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AnswerServiceTests {
+    @Autowired
+    private AnswerService answerService;
+    @Autowired
+    private AnswerRepository answerRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private QuizRepository quizRepository;
+
+    private LargeQuestionFixture largeQuestion() {
+        return new LargeQuestionFixture(quizRepository, questionRepository, answerRepository);
+    }
+
+    // Insert or update of the answer, plus the version of its question
+    @Test
+    void createAndUpdateDoNotReadBack() {
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of written answers", "10 minutes"));
+        Question question = questionRepository.save(new Question("Question of written answers", "multiple", quiz));
+
+        SqlStatementCounter.reset();
+        AnswerDTO created = answerService.createAnswer(Optional.of(question),
+                new AnswerDTO(0, "Written answer", true, false, null, null, question.getId()));
+        assertEquals(2, SqlStatementCounter.count());
+        assertTrue(created.getId() > 0);
+
+        SqlStatementCounter.reset();
+        AnswerDTO updated = answerService.updateAnswer(created,
+                new AnswerDTO(0, "Written answer renamed", false, false, null, null, question.getId()));
+        assertEquals(2, SqlStatementCounter.count());
+        assertEquals(LocalDate.now(), updated.getUpdatedAt());
+        Answer answer = answerRepository.findById(created.getId()).orElseThrow();
+        assertEquals("Written answer renamed", answer.getValue());
+        assertEquals(false, answer.isCorrect());
+    }
+
+    /*
+    200 answers, one already in the question and one repeated in the request in another case: one query for duplicates,
+    one insert statement prepared once and executed in JDBC batches, and one update of the version of the question.
+     */
+    @Test
+    void bulkCreateReportsDuplicatesAndBatchesInserts() {
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of bulk answers", "10 minutes"));
+        Question question = questionRepository.save(new Question("Question of bulk answers", "multiple", quiz));
+        answerRepository.save(new Answer("Bulk answer 0", true, question));
+        List<AnswerDTO> answers = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+            answers.add(new AnswerDTO(0, "Bulk answer " + i, false, false, null, null, question.getId()));
+        answers.add(new AnswerDTO(0, "BULK ANSWER 1", false, false, null, null, question.getId()));
+
+        SqlStatementCounter.reset();
+        BatchResult result = answerService.createAnswers(question, answers);
+        assertEquals(3, SqlStatementCounter.count());
+
+        assertEquals(199, result.getCreated());
+        assertEquals(2, result.getRejected());
+        assertEquals(BatchItemResult.DUPLICATE, result.getItems().get(0).getStatus());
+        assertEquals(BatchItemResult.CREATED, result.getItems().get(1).getStatus());
+        assertEquals(BatchItemResult.DUPLICATE, result.getItems().get(200).getStatus());
+        assertEquals(200, answerRepository.findIdsByQuestionId(question.getId()).size());
+        assertEquals(result.getItems().get(1).getId(), answerRepository.findIdsByQuestionId(question.getId()).get(1));
+        // The created values are duplicates for the next checks
+        assertTrue(answerService.existAnswer(question.getId(), "bulk answer 199"));
+    }
+
+    /*
+    Duplicate checks on a question with 10k answers: the filter is built with one query of values,
+    then new values are answered without any query (up to the 1% false positives of the filter)
+    and a duplicate, whatever its case, is confirmed by one probe, no answer entity is loaded.
+     */
+    @Test
+    void duplicateChecksOfLargeQuestionRarelyQueryDatabase() {
+        int numberOfAnswers = 10_000;
+        Question question = largeQuestion().create("Question of many answers", numberOfAnswers);
+
+        SqlStatementCounter.reset();
+        assertTrue(answerService.existAnswer(question.getId(), "Answer 42"));
+        // Values of the question and the probe confirming the duplicate
+        assertEquals(2, SqlStatementCounter.count());
+
+        int checks = 1_000;
+        SqlStatementCounter.reset();
+        for (int i = 0; i < checks; i++)
+            assertFalse(answerService.existAnswer(question.getId(), "New answer " + i));
+        assertTrue(SqlStatementCounter.count() < checks / 20,
+                "False positives should stay close to 1%, queries: " + SqlStatementCounter.count());
+
+        SqlStatementCounter.reset();
+        assertTrue(answerService.existAnswer(question.getId(), "ANSWER " + (numberOfAnswers - 1)));
+        assertEquals(1, SqlStatementCounter.count());
+
+        // A value added after commit is in the filter whatever its case
+        answerService.createAnswer(Optional.of(question), new AnswerDTO(0, "Added Answer", false, false, null, null, question.getId()));
+        assertTrue(answerService.existAnswer(question.getId(), "added answer"));
+    }
+
+    /*
+    Seeded shuffle of a question with 10k answers: the same seed gives the same order, a page is the matching part
+    of the whole shuffle, and once the ids are cached a page costs one statement reading only its answers.
+     */
+    @Test
+    void seededShuffleReadsOnlyRequestedPage() {
+        int numberOfAnswers = 10_000;
+        Question question = largeQuestion().create("Question of shuffled answers", numberOfAnswers);
+
+        List<Integer> firstPage = ids(answerService.shuffleAnswers(question.getId(), 42L, 1, 20));
+        SqlStatementCounter.reset();
+        List<Integer> secondPage = ids(answerService.shuffleAnswers(question.getId(), 42L, 2, 20));
+        assertEquals(1, SqlStatementCounter.count());
+
+        assertEquals(firstPage, ids(answerService.shuffleAnswers(question.getId(), 42L, 1, 20)));
+        List<Integer> wholeShuffle = ids(answerService.shuffleAnswers(question.getId(), 42L, 1, null));
+        assertEquals(numberOfAnswers, wholeShuffle.size());
+        assertEquals(firstPage, wholeShuffle.subList(0, 20));
+        assertEquals(secondPage, wholeShuffle.subList(20, 40));
+        assertTrue(answerService.shuffleAnswers(question.getId(), 42L, numberOfAnswers / 20 + 1, 20).isEmpty());
+    }
+
+    /*
+    Lookup of one answer of a question with 10k answers: one keyed statement instead of loading the answers,
+    an answer of another question is not found, and the delete reuses the found answer (delete and version, no select).
+     */
+    @Test
+    void answerOfQuestionIsFoundByKeyAndDeletedWithoutReload() {
+        int numberOfAnswers = 10_000;
+        Question question = largeQuestion().create("Question of keyed answers", numberOfAnswers);
+        Question otherQuestion = questionRepository.save(new Question("Other question of keyed answers", "multiple", question.getQuiz()));
+        int answerId = answerRepository.findIdsByQuestionId(question.getId()).get(numberOfAnswers / 2);
+
+        assertTrue(answerService.getAnswer(otherQuestion.getId(), answerId).isEmpty());
+        SqlStatementCounter.reset();
+        AnswerDTO found = answerService.getAnswer(question.getId(), answerId).orElseThrow();
+        assertEquals(1, SqlStatementCounter.count());
+        assertEquals("Answer " + numberOfAnswers / 2, found.getValue());
+        // Cached now, still checked against the question
+        assertTrue(answerService.getAnswer(otherQuestion.getId(), answerId).isEmpty());
+
+        // The found answer is updated without being read again: the answer and the version of its question
+        SqlStatementCounter.reset();
+        AnswerDTO updated = answerService.updateAnswer(found,
+                new AnswerDTO(0, "Keyed answer", false, false, null, null, question.getId()));
+        assertEquals(2, SqlStatementCounter.count());
+        assertEquals(found.getCreatedAt(), updated.getCreatedAt());
+        found = answerService.getAnswer(question.getId(), answerId).orElseThrow();
+        assertEquals("Keyed answer", found.getValue());
+
+        SqlStatementCounter.reset();
+        answerService.deleteAnswer(found);
+        assertEquals(2, SqlStatementCounter.count());
+        assertTrue(answerRepository.findById(answerId).isEmpty());
+        assertTrue(answerService.getAnswer(question.getId(), answerId).isEmpty());
+    }
+
+    private static List<Integer> ids(List<AnswerDTO> answers) {
+        return answers.stream().map(AnswerDTO::getId).toList();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.quiz_api_management.answer;
+
+import com.example.quiz_api_management.question.Question;
+import com.example.quiz_api_management.question.QuestionRepository;
+import com.example.quiz_api_management.quiz.Quiz;
+import com.example.quiz_api_management.quiz.QuizRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+A quiz with one question of many answers, shared by the tests and benchmarks of large questions.
+The answers are "Answer 0" to "Answer n-1" in the order of their ids, the first one is correct.
+ */
+class LargeQuestionFixture {
+    private final QuizRepository quizRepository;
+    private final QuestionRepository questionRepository;
+    private final AnswerRepository answerRepository;
+
+    LargeQuestionFixture(QuizRepository quizRepository, QuestionRepository questionRepository,
+                         AnswerRepository answerRepository) {
+        this.quizRepository = quizRepository;
+        this.questionRepository = questionRepository;
+        this.answerRepository = answerRepository;
+    }
+
+    Question create(String name, int numberOfAnswers) {
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of " + name, "60 minutes"));
+        Question question = questionRepository.save(new Question(name, "multiple", quiz));
+        List<Answer> answers = new ArrayList<>(numberOfAnswers);
+        for (int i = 0; i < numberOfAnswers; i++)
+            answers.add(new Answer("Answer " + i, i == 0, question));
+        answerRepository.saveAll(answers);
+        return question;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.quiz_api_management.attempt;
+
+import com.example.quiz_api_management.answer.Answer;
+import com.example.quiz_api_management.answer.AnswerRepository;
+import com.example.quiz_api_management.question.Question;
+import com.example.quiz_api_management.question.QuestionRepository;
+import com.example.quiz_api_management.quiz.Quiz;
+import com.example.quiz_api_management.quiz.QuizRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+Timings of grading, printed and not asserted: mvn test -Pbenchmark
+The behavior they measure is asserted by AttemptServiceTests.
+ */
+@SpringBootTest
+class AttemptServiceBenchmarks {
+    @Autowired
+    private AttemptService attemptService;
+    @Autowired
+    private AnswerRepository answerRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private QuizRepository quizRepository;
+
+    // Throughput of grading on one thread, for a quiz of 50 questions with 4 answers each (the store is not included)
+    @Test
+    void gradingThroughput() {
+        int questions = 50;
+        int submissions = 200_000;
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of graded throughput", "60 minutes"));
+        Map<Integer, int[]> answers = new HashMap<>();
+        for (int i = 0; i < questions; i++) {
+            Question question = questionRepository.save(new Question("Throughput question " + i, "single", quiz));
+            List<Answer> options = (List<Answer>) answerRepository.saveAll(List.of(
+                    new Answer("A", true, question), new Answer("B", false, question),
+                    new Answer("C", false, question), new Answer("D", false, question)));
+            answers.put(question.getId(), new int[]{options.get(i % 4).getId()});
+        }
+        AttemptDTO attempt = new AttemptDTO(answers);
+        AnswerKey key = attemptService.getAnswerKey(quiz.getId()).orElseThrow();
+
+        long start = System.nanoTime();
+        int correct = 0;
+        for (int i = 0; i < submissions; i++)
+            correct += AttemptService.grade(key, 1, attempt, LocalDateTime.now()).getCorrectAnswers();
+        long elapsedNanos = System.nanoTime() - start;
+        System.out.printf("%d attempts of %d questions graded in %d ms (%d attempts/s), %d correct answers%n",
+                submissions, questions, elapsedNanos / 1_000_000, submissions * 1_000_000_000L / elapsedNanos, correct);
+    }
+
+    /*
+    Scaling of batch grading over 1, 2, 4 and N worker threads (N = number of cores), for 200k attempts
+    of a quiz of 50 questions. Each pool is warmed up first, the best of 3 runs is printed.
+     */
+    @Test
+    void batchGradingScalesWithWorkers() {
+        int questions = 50;
+        int submissions = 200_000;
+        List<Integer> questionIds = new ArrayList<>();
+        List<KeyAnswer> correctAnswers = new ArrayList<>();
+        for (int i = 0; i < questions; i++) {
+            questionIds.add(i);
+            correctAnswers.add(new KeyAnswer(i, i * 4, true));
+        }
+        AnswerKey key = AnswerKey.compile(1, questionIds, correctAnswers);
+        List<ProctoredAttemptDTO> attempts = new ArrayList<>(submissions);
+        for (int i = 0; i < submissions; i++) {
+            Map<Integer, int[]> answers = new HashMap<>();
+            for (int question = 0; question < questions; question++)
+                answers.put(question, new int[]{question * 4 + (i + question) % 4});
+            attempts.add(new ProctoredAttemptDTO(i, answers));
+        }
+
+        TreeSet<Integer> workers = new TreeSet<>(List.of(1, 2, 4, Runtime.getRuntime().availableProcessors()));
+        for (int parallelism : workers) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            AttemptResult[] results = new AttemptResult[submissions];
+            long bestNanos = Long.MAX_VALUE;
+            BatchGrader.grade(pool, key, attempts, 0, submissions, results, LocalDateTime.now(), null);
+            for (int run = 0; run < 3; run++) {
+                long start = System.nanoTime();
+                BatchGrader.grade(pool, key, attempts, 0, submissions, results, LocalDateTime.now(), null);
+                bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+            }
+            pool.shutdown();
+            System.out.printf("Batch grading with %d workers: %d attempts in %d ms (%d attempts/s)%n",
+                    parallelism, submissions, bestNanos / 1_000_000, submissions * 1_000_000_000L / bestNanos);
+        }
+    }
+}
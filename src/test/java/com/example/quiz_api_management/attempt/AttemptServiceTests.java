@@ -0,0 +1,248 @@
+package com.example.quiz_api_management.attempt;
+
+import com.example.quiz_api_management.SqlStatementCounter;
+import com.example.quiz_api_management.answer.Answer;
+import com.example.quiz_api_management.answer.AnswerDTO;
+import com.example.quiz_api_management.answer.AnswerRepository;
+import com.example.quiz_api_management.answer.AnswerService;
+import com.example.quiz_api_management.exception.ServiceUnavailableException;
+import com.example.quiz_api_management.question.Question;
+import com.example.quiz_api_management.question.QuestionRepository;
+import com.example.quiz_api_management.quiz.Quiz;
+import com.example.quiz_api_management.quiz.QuizRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AttemptServiceTests {
+    @Autowired
+    private AttemptService attemptService;
+    @Autowired
+    private AnswerService answerService;
+    @Autowired
+    private AnswerRepository answerRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private AttemptStore attemptStore;
+    @Autowired
+    private AttemptRepository attemptRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void answerKeyMatchesExactSetOfCorrectAnswers() {
+        AnswerKey key = AnswerKey.compile(1, List.of(10, 11, 12, 13), List.of(
+                new KeyAnswer(10, 100, true), new KeyAnswer(10, 101, false),
+                new KeyAnswer(11, 200, true), new KeyAnswer(11, 300, true),
+                new KeyAnswer(13, 500, true)));
+
+        assertEquals(1, key.grade(Map.of(10, new int[]{100})));
+        // Every correct answer and only them, in any order and with repeated ids
+        assertEquals(1, key.grade(Map.of(11, new int[]{300, 200, 300})));
+        assertEquals(0, key.grade(Map.of(11, new int[]{200})));
+        assertEquals(0, key.grade(Map.of(11, new int[]{200, 300, 301})));
+        assertEquals(0, key.grade(Map.of(10, new int[]{99})));
+        // A question without correct answer is answered by choosing nothing
+        assertEquals(1, key.grade(Map.of(12, new int[]{})));
+        assertEquals(0, key.grade(Map.of(12, new int[]{120})));
+        // Questions of other quizzes are ignored
+        assertEquals(0, key.grade(Map.of(99, new int[]{100})));
+        assertEquals(4, key.grade(Map.of(10, new int[]{100}, 11, new int[]{200, 300}, 12, new int[]{}, 13, new int[]{500})));
+        assertEquals(4, key.getQuestionCount());
+    }
+
+    // The key holds the correct ids themselves, ids far apart cost no more than close ones
+    @Test
+    void answerKeyGradesIdsFarApart() {
+        AnswerKey key = AnswerKey.compile(1, List.of(10), List.of(
+                new KeyAnswer(10, 1, true), new KeyAnswer(10, 1_000_000, false),
+                new KeyAnswer(10, Integer.MAX_VALUE, true)));
+
+        assertEquals(1, key.grade(Map.of(10, new int[]{Integer.MAX_VALUE, 1})));
+        assertEquals(0, key.grade(Map.of(10, new int[]{1, 1_000_000, Integer.MAX_VALUE})));
+        assertEquals(0, key.grade(Map.of(10, new int[]{1, 1})));
+        assertEquals(0, key.grade(Map.of(10, new int[]{Integer.MIN_VALUE, 1, Integer.MAX_VALUE})));
+    }
+
+    /*
+    Once the key of the quiz is compiled, attempts are graded without any statement, their inserts are written behind.
+    Changing which answer is correct replaces the key after commit.
+     */
+    @Test
+    void gradingUsesCompiledKeyUntilAnswersChange() {
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of attempts", "10 minutes"));
+        Question single = questionRepository.save(new Question("Single choice of attempts", "single", quiz));
+        Question multiple = questionRepository.save(new Question("Multiple choice of attempts", "multiple", quiz));
+        Answer right = answerRepository.save(new Answer("Right", true, single));
+        Answer wrong = answerRepository.save(new Answer("Wrong", false, single));
+        Answer first = answerRepository.save(new Answer("First", true, multiple));
+        Answer second = answerRepository.save(new Answer("Second", true, multiple));
+
+        Map<Integer, int[]> answers = new HashMap<>();
+        answers.put(single.getId(), new int[]{right.getId()});
+        answers.put(multiple.getId(), new int[]{first.getId()});
+        AttemptDTO attempt = new AttemptDTO(answers);
+
+        AttemptResult result = attemptService.submitAttempt(quiz.getId(), 7, attempt).orElseThrow();
+        assertEquals(7, result.getUserId());
+        assertEquals(1, result.getCorrectAnswers());
+        assertEquals(2, result.getTotalQuestions());
+        assertEquals(50.0, result.getScore());
+
+        attemptStore.flush();
+        SqlStatementCounter.reset();
+        for (int i = 0; i < 100; i++)
+            attemptService.submitAttempt(quiz.getId(), 7, attempt);
+        assertEquals(0, SqlStatementCounter.count());
+        long stored = attemptRepository.count();
+        attemptStore.flush();
+        assertEquals(stored + 100, attemptRepository.count());
+
+        answerService.updateAnswer(answerService.getAnswer(multiple.getId(), second.getId()).orElseThrow(),
+                new AnswerDTO(0, "Second", false, false, null, null, multiple.getId()));
+        assertEquals(100.0, attemptService.submitAttempt(quiz.getId(), 7, attempt).orElseThrow().getScore());
+        assertTrue(attemptService.submitAttempt(-1, 7, attempt).isEmpty());
+        attemptStore.flush();
+    }
+
+    // Results of a batch are streamed in the order of the request, followed by the summary
+    @Test
+    void batchGradingStreamsResultsInOrder() throws IOException {
+        AnswerKey key = AnswerKey.compile(1, List.of(10), List.of(new KeyAnswer(10, 100, true)));
+        List<ProctoredAttemptDTO> attempts = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++)
+            attempts.add(new ProctoredAttemptDTO(i, Map.of(10, new int[]{(i % 2 == 0) ? 100 : 101})));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        attemptService.gradeBatch(key, attempts, output);
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(attempts.size() + 1, lines.length);
+        assertTrue(lines[0].contains("\"userId\":0,") && lines[0].contains("\"score\":100.0"));
+        assertTrue(lines[9_999].contains("\"userId\":9999,") && lines[9_999].contains("\"score\":0.0"));
+        assertTrue(lines[10_000].contains("\"graded\":10000"));
+        attemptStore.flush();
+    }
+
+    /*
+    A batch graded by 4 workers gives the results of one worker, in the slots of the request,
+    and the listener called concurrently by the workers sees every question of every attempt.
+     */
+    @Test
+    void parallelBatchGradingKeepsOrderAndResults() {
+        int questions = 5;
+        int submissions = 5_000;
+        List<Integer> questionIds = new ArrayList<>();
+        List<KeyAnswer> correctAnswers = new ArrayList<>();
+        for (int i = 0; i < questions; i++) {
+            questionIds.add(i);
+            correctAnswers.add(new KeyAnswer(i, i * 4, true));
+        }
+        AnswerKey key = AnswerKey.compile(1, questionIds, correctAnswers);
+        List<ProctoredAttemptDTO> attempts = new ArrayList<>(submissions);
+        for (int i = 0; i < submissions; i++) {
+            Map<Integer, int[]> answers = new HashMap<>();
+            for (int question = 0; question < questions; question++)
+                answers.put(question, new int[]{question * 4 + (i + question) % 4});
+            attempts.add(new ProctoredAttemptDTO(i, answers));
+        }
+        LocalDateTime submittedAt = LocalDateTime.now();
+
+        AttemptResult[] sequential = new AttemptResult[submissions];
+        ForkJoinPool single = new ForkJoinPool(1);
+        BatchGrader.grade(single, key, attempts, 0, submissions, sequential, submittedAt, null);
+        single.shutdown();
+
+        AttemptResult[] parallel = new AttemptResult[submissions];
+        LongAdder graded = new LongAdder();
+        LongAdder correct = new LongAdder();
+        GradingListener listener = new GradingListener() {
+            @Override
+            public void questionGraded(int questionId, boolean isCorrect) {
+                graded.increment();
+                if (isCorrect)
+                    correct.increment();
+            }
+
+            @Override
+            public void answerChosen(int questionId, int answerId) {
+            }
+        };
+        ForkJoinPool pool = new ForkJoinPool(4);
+        BatchGrader.grade(pool, key, attempts, 0, submissions, parallel, submittedAt, listener);
+        pool.shutdown();
+
+        int correctQuestions = 0;
+        for (int i = 0; i < submissions; i++) {
+            assertEquals(i, parallel[i].getUserId());
+            assertEquals(sequential[i].getCorrectAnswers(), parallel[i].getCorrectAnswers());
+            // Question q of attempt i is right when (i + q) % 4 == 0
+            int expected = 0;
+            for (int question = 0; question < questions; question++)
+                if ((i + question) % 4 == 0)
+                    expected++;
+            assertEquals(expected, parallel[i].getCorrectAnswers());
+            correctQuestions += expected;
+        }
+        assertEquals((long) submissions * questions, graded.sum());
+        assertEquals(correctQuestions, correct.sum());
+    }
+
+    /*
+    Write-behind store with batches of 50 and a flush interval of 50 ms: 120 attempts are written in batches,
+    by size then by time, and attempts still queued at shutdown are written before it returns.
+     */
+    @Test
+    void attemptsAreWrittenBehindInBatches() throws InterruptedException {
+        AttemptStore store = new AttemptStore(attemptRepository, transactionManager, 1000, 50,
+                Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofSeconds(5));
+        long stored = attemptRepository.count();
+        for (int i = 0; i < 120; i++)
+            store.add(new AttemptResult(-2, i, 1, 1, 100.0, LocalDateTime.now()));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (store.stats().getPersisted() < 120 && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        AttemptStoreStats stats = store.stats();
+        assertEquals(120, stats.getPersisted());
+        assertEquals(0, stats.getQueueDepth());
+        // 50 + 50 + 20 when the attempts are queued within one interval, more batches on a slow machine
+        assertTrue(stats.getFlushes() >= 3);
+        assertTrue(stats.getAverageBatchSize() <= 50);
+        assertEquals(stored + 120, attemptRepository.count());
+
+        store = new AttemptStore(attemptRepository, transactionManager, 1000, 50,
+                Duration.ofHours(1), Duration.ofMillis(100), Duration.ofSeconds(5));
+        for (int i = 0; i < 30; i++)
+            store.add(new AttemptResult(-2, i, 1, 1, 100.0, LocalDateTime.now()));
+        store.shutdown();
+        assertEquals(30, store.stats().getPersisted());
+        assertEquals(stored + 150, attemptRepository.count());
+        // A stopped store refuses a batch before its response starts, and its attempts once streaming
+        AttemptStore stopped = store;
+        assertThrows(ServiceUnavailableException.class, stopped::checkRunning);
+        assertThrows(ServiceUnavailableException.class,
+                () -> stopped.put(new AttemptResult(-2, 0, 1, 1, 100.0, LocalDateTime.now())));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.quiz_api_management.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DtoCacheTests {
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        DtoCache<Integer, String> cache = new DtoCache<>("test", 2, Duration.ofHours(1));
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1, id -> load(loads, "one"));
+        cache.get(2, id -> load(loads, "two"));
+        // 1 is read again, so 2 is the least recently used when 3 comes in
+        cache.get(1, id -> load(loads, "one"));
+        cache.get(3, id -> load(loads, "three"));
+        assertEquals(3, loads.get());
+
+        cache.get(1, id -> load(loads, "one"));
+        cache.get(3, id -> load(loads, "three"));
+        assertEquals(3, loads.get());
+        cache.get(2, id -> load(loads, "two"));
+        assertEquals(4, loads.get());
+
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.getSize());
+        assertEquals(2, stats.getEvictions());
+        assertEquals(3, stats.getHits());
+        assertEquals(4, stats.getMisses());
+    }
+
+    @Test
+    void expiresAfterTimeToLive() {
+        DtoCache<Integer, String> expiring = new DtoCache<>("test", 10, Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+        expiring.get(1, id -> load(loads, "one"));
+        expiring.get(1, id -> load(loads, "one"));
+        assertEquals(2, loads.get());
+        assertEquals(1, expiring.stats().getEvictions());
+
+        DtoCache<Integer, String> lasting = new DtoCache<>("test", 10, Duration.ofHours(1));
+        lasting.get(1, id -> load(loads, "one"));
+        lasting.get(1, id -> load(loads, "one"));
+        assertEquals(3, loads.get());
+    }
+
+    // Absent rows are not cached, the next read queries again
+    @Test
+    void doesNotCacheMissingValues() {
+        DtoCache<Integer, String> cache = new DtoCache<>("test", 10, Duration.ofHours(1));
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1, id -> { loads.incrementAndGet(); return Optional.empty(); });
+        assertEquals("one", cache.get(1, id -> load(loads, "one")).orElseThrow());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidationsDropMatchingEntries() {
+        DtoCache<Integer, String> cache = new DtoCache<>("test", 10, Duration.ofHours(1));
+        AtomicInteger loads = new AtomicInteger();
+        for (int id = 1; id <= 4; id++) {
+            String value = (id % 2 == 0) ? "even" : "odd";
+            cache.get(id, key -> load(loads, value));
+        }
+        cache.invalidate(1);
+        cache.invalidateIf("even"::equals);
+        assertEquals(1, cache.stats().getSize());
+        assertEquals(3, cache.stats().getInvalidations());
+        assertEquals("odd", cache.get(3, key -> load(loads, "reloaded")).orElseThrow());
+    }
+
+    /*
+    A reader loads the old row while a writer commits and invalidates the key: the old row is returned
+    to that reader, but must not be stored, otherwise it would be served until the time to live.
+     */
+    @Test
+    void loadRacingWithInvalidationIsNotStored() throws Exception {
+        DtoCache<Integer, String> cache = new DtoCache<>("test", 10, Duration.ofHours(1));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+
+        CompletableFuture<Optional<String>> reader = CompletableFuture.supplyAsync(() -> cache.get(1, id -> {
+            loading.countDown();
+            await(invalidated);
+            return Optional.of("old");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        cache.invalidate(1);
+        invalidated.countDown();
+
+        assertEquals("old", reader.get(5, TimeUnit.SECONDS).orElseThrow());
+        assertEquals(0, cache.stats().getSize());
+        assertEquals("new", cache.get(1, id -> Optional.of("new")).orElseThrow());
+        assertEquals("new", cache.get(1, id -> Optional.of("newer")).orElseThrow());
+    }
+
+    // The generation is shared by every key, so a load is also dropped after a cascade on other keys
+    @Test
+    void loadRacingWithCascadeIsNotStored() {
+        DtoCache<Integer, String> cache = new DtoCache<>("test", 10, Duration.ofHours(1));
+        cache.get(1, id -> {
+            cache.invalidateIf(value -> true);
+            return Optional.of("old");
+        });
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    private static Optional<String> load(AtomicInteger loads, String value) {
+        loads.incrementAndGet();
+        return Optional.of(value);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.quiz_api_management.common;
+
+import com.example.quiz_api_management.exception.NotValidParamsException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTests {
+
+    @Test
+    void decodesWhatItEncodes() {
+        KeysetCursor cursor = KeysetCursor.decode(new KeysetCursor("value,desc", "multiple", "Wh?t/is+ü", 42).encode());
+        assertEquals("value,desc", cursor.getSort());
+        assertEquals("multiple", cursor.getFilter());
+        assertEquals("Wh?t/is+ü", cursor.getKey());
+        assertEquals(42, cursor.getId());
+    }
+
+    // A NULL sort key is a position in the block of NULL keys, it must not come back as "null" or ""
+    @Test
+    void keepsNullFields() {
+        KeysetCursor cursor = KeysetCursor.decode(new KeysetCursor("type,asc", null, null, 7).encode());
+        assertEquals("type,asc", cursor.getSort());
+        assertNull(cursor.getFilter());
+        assertNull(cursor.getKey());
+        assertEquals(7, cursor.getId());
+    }
+
+    @Test
+    void rejectsTamperedCursor() {
+        String encoded = new KeysetCursor(null, null, null, 1).encode();
+        assertThrows(NotValidParamsException.class, () -> KeysetCursor.decode("not a cursor"));
+        assertThrows(NotValidParamsException.class, () -> KeysetCursor.decode(encoded.substring(0, 2)));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.quiz_api_management.export;
+
+import com.example.quiz_api_management.quiz.QuizRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+Export of a large bank under a small heap: mvn test -Pbenchmark
+The benchmark profile runs this class alone in a JVM capped at 64 MB (see pom.xml). The database is an H2 file,
+so the rows are not held in the heap by the database itself; only the export can run out of memory.
+The shape of the exported lines is asserted by ExportServiceTests.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:file:./target/export-benchmark;MODE=PostgreSQL;" +
+        "NON_KEYWORDS=VALUE,USER;DB_CLOSE_ON_EXIT=FALSE")
+class ExportServiceBenchmarks {
+    // Far above the ids given by the sequences, so the rows of the benchmark never collide with other rows
+    private static final int FIRST_ID = 50_000_000;
+    private static final int QUIZZES = 5_000;
+    private static final int QUESTIONS_PER_QUIZ = 100;
+    private static final int ANSWERS_PER_QUESTION = 2;
+    // Rows sent per batch while the bank is inserted, so the insert does not fill the small heap either
+    private static final int INSERT_CHUNK = 10_000;
+
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 500k questions with 1M answers, streamed to an output which only counts lines
+    @Test
+    void exportOfHalfAMillionQuestionsInSmallHeap() {
+        insertBank();
+        long quizzes = quizRepository.count();
+        LineCountingOutputStream output = new LineCountingOutputStream();
+
+        long start = System.nanoTime();
+        exportService.writeNdjson(output);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(quizzes, output.lines);
+        System.out.printf("Export of %d quizzes and %d questions with a heap of %d MB: %d ms, %d MB written%n",
+                quizzes, QUIZZES * QUESTIONS_PER_QUIZ, Runtime.getRuntime().maxMemory() / (1024 * 1024),
+                elapsedMillis, output.bytes / (1024 * 1024));
+    }
+
+    private void insertBank() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Date today = Date.valueOf(LocalDate.now());
+        List<Object[]> quizzes = new ArrayList<>(QUIZZES);
+        for (int i = 0; i < QUIZZES; i++)
+            quizzes.add(new Object[]{FIRST_ID + i, "Exported quiz " + i, "10 minutes", QUESTIONS_PER_QUIZ, now, now});
+        jdbcTemplate.batchUpdate("INSERT INTO quiz (id, value, type, question_count, version, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, 0, ?, ?)", quizzes);
+
+        List<Object[]> questions = new ArrayList<>(INSERT_CHUNK);
+        List<Object[]> answers = new ArrayList<>(INSERT_CHUNK);
+        for (int i = 0; i < QUIZZES * QUESTIONS_PER_QUIZ; i++) {
+            int questionId = FIRST_ID + i;
+            questions.add(new Object[]{questionId, "Exported question " + i, "single", now, now, FIRST_ID + i / QUESTIONS_PER_QUIZ});
+            for (int j = 0; j < ANSWERS_PER_QUESTION; j++)
+                answers.add(new Object[]{FIRST_ID + i * ANSWERS_PER_QUESTION + j, "Exported answer " + j, j == 0, today, today, questionId});
+            if (questions.size() == INSERT_CHUNK || i == QUIZZES * QUESTIONS_PER_QUIZ - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO question (id, value, type, created_at, updated_at, version, quiz_id) " +
+                        "VALUES (?, ?, ?, ?, ?, 0, ?)", questions);
+                jdbcTemplate.batchUpdate("INSERT INTO answer (id, value, is_correct, is_removed, created_at, updated_at, question_id) " +
+                        "VALUES (?, ?, ?, FALSE, ?, ?, ?)", answers);
+                questions.clear();
+                answers.clear();
+            }
+        }
+    }
+
+    // Keeps nothing of what is written
+    private static class LineCountingOutputStream extends OutputStream {
+        private long lines = 0;
+        private long bytes = 0;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n')
+                lines++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            bytes += length;
+            for (int i = offset; i < offset + length; i++)
+                if (buffer[i] == '\n')
+                    lines++;
+        }
+    }
+}
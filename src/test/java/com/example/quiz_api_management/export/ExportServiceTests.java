@@ -0,0 +1,40 @@
+package com.example.quiz_api_management.export;
+
+import com.example.quiz_api_management.quiz.QuizRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ExportServiceTests {
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportsOneLinePerQuizWithQuestionsAndAnswers() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exportService.writeNdjson(output);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(quizRepository.count(), lines.size());
+        for (String line : lines) {
+            JsonNode quiz = objectMapper.readTree(line);
+            assertTrue(quiz.has("id"));
+            for (JsonNode question : quiz.get("questions"))
+                assertTrue(question.get("answers").isArray());
+        }
+    }
+}
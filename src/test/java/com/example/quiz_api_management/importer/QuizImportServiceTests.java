@@ -0,0 +1,185 @@
+package com.example.quiz_api_management.importer;
+
+import com.example.quiz_api_management.attempt.AnswerKeyRegistry;
+import com.example.quiz_api_management.cache.ContentCache;
+import com.example.quiz_api_management.question.QuestionSampler;
+import com.example.quiz_api_management.quiz.Quiz;
+import com.example.quiz_api_management.quiz.QuizRepository;
+import com.example.quiz_api_management.quiz.QuizService;
+import com.example.quiz_api_management.search.SearchIndexService;
+import com.example.quiz_api_management.search.SearchResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class QuizImportServiceTests {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private QuestionSampler questionSampler;
+    @Autowired
+    private AnswerKeyRegistry answerKeyRegistry;
+    @Autowired
+    private ContentCache contentCache;
+    @Autowired
+    private QuizService quizService;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Test
+    void importsQuizzesQuestionsAndAnswers() {
+        ImportReport report = importer(3).importQuizzes(stream("""
+                {"quizzes": [
+                  {"quiz_name": "Clean import 1", "type": "10 minutes", "created_date": "2022-09-07", "questions": [
+                    {"question_name": "2 + 2 ?", "type": "Multiple", "answers": [
+                      {"answer_name": "4", "is_correct": true}, {"answer_name": "5", "is_correct": false}]},
+                    {"question_name": "Which zebrafish ?", "type": "long"}]},
+                  {"quiz_name": "Clean import 2"}
+                ]}
+                """));
+
+        assertTrue(report.isCompleted());
+        assertEquals(List.of(), report.getErrors());
+        assertEquals(2, report.getImportedQuizzes());
+        assertEquals(2, report.getImportedQuestions());
+        assertEquals(2, report.getImportedAnswers());
+
+        Quiz first = quizRepository.findByValue("Clean import 1").orElseThrow();
+        assertEquals("10 minutes", first.getType());
+        assertEquals(2, first.getQuestionCount());
+        assertEquals("2022-09-07", first.getCreatedAt().toLocalDate().toString());
+        assertEquals("multiple", jdbcTemplate.queryForObject(
+                "SELECT type FROM question WHERE quiz_id = ? AND value = '2 + 2 ?'", String.class, first.getId()));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM answer a JOIN question q ON a.question_id = q.id " +
+                "WHERE q.quiz_id = ? AND a.is_correct", Integer.class, first.getId()));
+        assertEquals(0, quizRepository.findByValue("Clean import 2").orElseThrow().getQuestionCount());
+
+        // Every committed batch is indexed
+        List<SearchResult> results = searchIndexService.search("clean import", 10);
+        assertEquals(2, results.stream().filter(result -> result.getType().equals("quiz")).count());
+        SearchResult question = searchIndexService.search("zebrafish", 10).get(0);
+        assertEquals("question", question.getType());
+        assertEquals(first.getId(), question.getParentId());
+    }
+
+    /*
+    The first batch (the quiz with a type too long for its column and its first question) is rolled back.
+    The answer of that question and the next question of the quiz are rejected instead of breaking the
+    next batch on their foreign key, the following quiz is imported.
+     */
+    @Test
+    void rolledBackBatchRejectsChildrenOfItsRows() {
+        ImportReport report = importer(2).importQuizzes(stream("""
+                {"quizzes": [
+                  {"quiz_name": "Broken import", "type": "%s", "questions": [
+                    {"question_name": "Lost 1", "type": "short", "answers": [{"answer_name": "Lost", "is_correct": true}]},
+                    {"question_name": "Lost 2", "type": "short", "answers": [{"answer_name": "Lost", "is_correct": true}]}]},
+                  {"quiz_name": "After broken import", "questions": [
+                    {"question_name": "Kept", "type": "short", "answers": [{"answer_name": "Kept", "is_correct": true}]}]}
+                ]}
+                """.formatted("x".repeat(300))));
+
+        assertTrue(report.isCompleted());
+        assertEquals(1, report.getImportedQuizzes());
+        assertEquals(1, report.getImportedQuestions());
+        assertEquals(1, report.getImportedAnswers());
+        assertEquals(2, report.getRejectedRecords());
+        assertTrue(report.getErrors().get(0).startsWith("Batch 1 was rolled back, 2 record(s)"));
+        assertTrue(report.getErrors().get(1).startsWith("quizzes[0].questions[0].answers[0]: its parent was rolled back"));
+        assertTrue(report.getErrors().get(2).startsWith("quizzes[0].questions[1]: its parent was rolled back"));
+        assertTrue(quizRepository.findByValue("Broken import").isEmpty());
+        assertTrue(searchIndexService.search("broken lost", 10).stream()
+                .noneMatch(result -> result.getValue().equals("Broken import") || result.getValue().startsWith("Lost")));
+        assertEquals(1, quizRepository.findByValue("After broken import").orElseThrow().getQuestionCount());
+    }
+
+    // Names are checked against the database and against the batch which is not written yet
+    @Test
+    void rejectsDuplicateQuizNames() {
+        quizRepository.save(new Quiz("Imported twice", "15 minutes"));
+        ImportReport report = importer(2).importQuizzes(stream("""
+                {"quizzes": [
+                  {"quiz_name": "Imported twice"},
+                  {"quiz_name": "Twice in file"},
+                  {"quiz_name": "Twice in file"},
+                  {"quiz_name": "Once in file"},
+                  {"quiz_name": "Once in file"}
+                ]}
+                """));
+
+        assertEquals(2, report.getImportedQuizzes());
+        assertEquals(3, report.getRejectedRecords());
+        assertEquals(List.of("quizzes[0]: duplicate quiz_name", "quizzes[2]: duplicate quiz_name",
+                "quizzes[4]: duplicate quiz_name"), report.getErrors());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM quiz WHERE value = 'Twice in file'", Integer.class));
+    }
+
+    // A quiz read between two batches is cached with the counter of the first one, the second batch evicts it
+    @Test
+    void committedBatchEvictsCachedParents() {
+        String firstPart = """
+                {"quizzes": [{"quiz_name": "Imported in two batches", "questions": [
+                  {"question_name": "First", "type": "short", "answers": [{"answer_name": "Yes", "is_correct": true}]},
+                """;
+        String secondPart = """
+                  {"question_name": "Second", "type": "short"},
+                  {"question_name": "Third", "type": "short"}
+                ]}]}
+                """;
+        AtomicInteger countBetweenBatches = new AtomicInteger(-1);
+        InputStream input = new SequenceInputStream(new Enumeration<>() {
+            private int part = 0;
+
+            @Override
+            public boolean hasMoreElements() {
+                return part < 2;
+            }
+
+            // The parser only asks for the second part once the first batch is committed
+            @Override
+            public InputStream nextElement() {
+                if (part++ == 0)
+                    return stream(firstPart);
+                int quizId = quizRepository.findByValue("Imported in two batches").orElseThrow().getId();
+                countBetweenBatches.set(quizService.getQuiz(quizId).orElseThrow().getQuestionCount());
+                return stream(secondPart);
+            }
+        });
+
+        ImportReport report = importer(2).importQuizzes(input);
+        assertEquals(List.of(), report.getErrors());
+        assertEquals(1, countBetweenBatches.get());
+        int quizId = quizRepository.findByValue("Imported in two batches").orElseThrow().getId();
+        assertEquals(3, quizService.getQuiz(quizId).orElseThrow().getQuestionCount());
+    }
+
+    private QuizImportService importer(int batchSize) {
+        return new QuizImportService(jdbcTemplate, transactionTemplate, objectMapper, batchSize,
+                questionSampler, answerKeyRegistry, contentCache, searchIndexService);
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
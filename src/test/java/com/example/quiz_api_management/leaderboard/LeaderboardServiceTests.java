@@ -0,0 +1,107 @@
+package com.example.quiz_api_management.leaderboard;
+
+import com.example.quiz_api_management.attempt.Attempt;
+import com.example.quiz_api_management.attempt.AttemptDTO;
+import com.example.quiz_api_management.attempt.AttemptRepository;
+import com.example.quiz_api_management.attempt.AttemptResult;
+import com.example.quiz_api_management.attempt.AttemptService;
+import com.example.quiz_api_management.attempt.AttemptStore;
+import com.example.quiz_api_management.answer.Answer;
+import com.example.quiz_api_management.answer.AnswerRepository;
+import com.example.quiz_api_management.question.Question;
+import com.example.quiz_api_management.question.QuestionRepository;
+import com.example.quiz_api_management.quiz.Quiz;
+import com.example.quiz_api_management.quiz.QuizRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class LeaderboardServiceTests {
+    @Autowired
+    private LeaderboardService leaderboardService;
+    @Autowired
+    private AttemptService attemptService;
+    @Autowired
+    private AttemptStore attemptStore;
+    @Autowired
+    private AttemptRepository attemptRepository;
+    @Autowired
+    private AnswerRepository answerRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private LeaderboardRepository leaderboardRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Stored attempts rebuild the leaderboard on its first query, later attempts update it in memory
+    @Test
+    void leaderboardIsRebuiltFromStoredAttemptsThenUpdatedLive() {
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of leaderboard", "10 minutes"));
+        Question question = questionRepository.save(new Question("Question of leaderboard", "single", quiz));
+        Answer right = answerRepository.save(new Answer("Right", true, question));
+        LocalDateTime submittedAt = LocalDateTime.now().minusHours(1);
+        attemptRepository.saveAll(List.of(
+                new Attempt(new AttemptResult(quiz.getId(), 1, 0, 1, 0.0, submittedAt)),
+                new Attempt(new AttemptResult(quiz.getId(), 2, 1, 1, 100.0, submittedAt)),
+                new Attempt(new AttemptResult(quiz.getId(), 1, 0, 1, 0.0, submittedAt.plusMinutes(1)))));
+
+        QuizLeaderboard leaderboard = leaderboardService.getLeaderboard(quiz.getId()).orElseThrow();
+        assertEquals(2, leaderboard.participants());
+        assertEquals(2, leaderboardService.rankOf(leaderboard, 1).orElseThrow().getRank());
+
+        attemptService.submitAttempt(quiz.getId(), 1, new AttemptDTO(Map.of(question.getId(), new int[]{right.getId()})));
+        attemptService.submitAttempt(quiz.getId(), 3, new AttemptDTO(Map.of(question.getId(), new int[]{})));
+        List<LeaderboardRank> top = leaderboardService.top(leaderboard, 10);
+        // User 2 was first with the same score, both share the first rank
+        assertEquals(List.of(2, 1, 3), top.stream().map(LeaderboardRank::getUserId).toList());
+        assertEquals(List.of(1L, 1L, 3L), top.stream().map(LeaderboardRank::getRank).toList());
+        assertTrue(leaderboardService.rankOf(leaderboard, 4).isEmpty());
+        assertTrue(leaderboardService.getLeaderboard(-1).isEmpty());
+        attemptStore.flush();
+    }
+
+    /*
+    With a budget of 3 users, the leaderboard of a second quiz of 2 users drops the one read before,
+    which is rebuilt when it is queried again. Rebuilds run on the rebuild thread, the query waits for them.
+     */
+    @Test
+    void leaderboardsAreDroppedBeyondUsersBudget() {
+        LeaderboardService service = new LeaderboardService(leaderboardRepository, quizRepository, attemptStore,
+                transactionManager, 10, 10, 3, 0, Duration.ofSeconds(5), 1);
+        LocalDateTime submittedAt = LocalDateTime.now().minusHours(1);
+        Quiz first = quizRepository.save(new Quiz("First quiz of budget", "10 minutes"));
+        Quiz second = quizRepository.save(new Quiz("Second quiz of budget", "10 minutes"));
+        for (Quiz quiz : List.of(first, second))
+            attemptRepository.saveAll(List.of(
+                    new Attempt(new AttemptResult(quiz.getId(), 1, 0, 1, 0.0, submittedAt)),
+                    new Attempt(new AttemptResult(quiz.getId(), 2, 1, 1, 100.0, submittedAt))));
+
+        try {
+            assertEquals(2, service.getLeaderboard(first.getId()).orElseThrow().participants());
+            assertTrue(service.isKept(first.getId()));
+            assertEquals(2, service.getLeaderboard(second.getId()).orElseThrow().participants());
+            assertFalse(service.isKept(first.getId()));
+            assertTrue(service.isKept(second.getId()));
+
+            assertEquals(1, service.rankOf(service.getLeaderboard(first.getId()).orElseThrow(), 2).orElseThrow().getRank());
+            assertTrue(service.isKept(first.getId()));
+            assertFalse(service.isKept(second.getId()));
+        } finally {
+            service.shutdown();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.quiz_api_management.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Contention on one leaderboard, printed and not asserted: mvn test -Pbenchmark
+The consistency of the ranking under contention is asserted by QuizLeaderboardTests.
+ */
+class QuizLeaderboardBenchmarks {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    // 8 writers record attempts of 100k users while 2 readers query the top 10 and ranks
+    @Test
+    void concurrentWritersAndReaders() throws InterruptedException {
+        int users = 100_000;
+        int writers = 8;
+        int updatesPerWriter = 200_000;
+        QuizLeaderboard leaderboard = new QuizLeaderboard(100);
+        CountDownLatch done = new CountDownLatch(writers);
+        AtomicLong reads = new AtomicLong();
+        AtomicLong readNanos = new AtomicLong();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int writer = 0; writer < writers; writer++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < updatesPerWriter; i++)
+                    leaderboard.update(new LeaderboardEntry(random.nextInt(users),
+                            random.nextInt(QuizLeaderboard.MAXIMUM_SCORE + 1), START));
+                done.countDown();
+            }));
+        }
+        for (int reader = 0; reader < 2; reader++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (done.getCount() > 0) {
+                    long start = System.nanoTime();
+                    leaderboard.top(10);
+                    LeaderboardEntry entry = leaderboard.get(random.nextInt(users));
+                    if (entry != null)
+                        leaderboard.rankOf(entry.score());
+                    readNanos.addAndGet(System.nanoTime() - start);
+                    reads.incrementAndGet();
+                }
+            }));
+        }
+
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        done.await();
+        long writeNanos = System.nanoTime() - start;
+        for (Thread thread : threads)
+            thread.join();
+
+        long updates = (long) writers * updatesPerWriter;
+        System.out.printf("%d writers: %d updates in %d ms (%d updates/s), %d reads of top 10 + rank, %d ns on average%n",
+                writers, updates, writeNanos / 1_000_000, updates * 1_000_000_000L / writeNanos,
+                reads.get(), (reads.get() == 0) ? 0 : readNanos.get() / reads.get());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.quiz_api_management.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuizLeaderboardTests {
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    @Test
+    void ranksBestAttemptOfEachUser() {
+        QuizLeaderboard leaderboard = new QuizLeaderboard(3);
+        leaderboard.update(new LeaderboardEntry(1, 5000, START));
+        leaderboard.update(new LeaderboardEntry(2, 8000, START.plusMinutes(1)));
+        leaderboard.update(new LeaderboardEntry(3, 8000, START));
+        leaderboard.update(new LeaderboardEntry(4, 2000, START));
+        // A worse attempt and the same attempt again change nothing, a better one replaces the previous
+        leaderboard.update(new LeaderboardEntry(2, 1000, START.plusMinutes(2)));
+        leaderboard.update(new LeaderboardEntry(3, 8000, START));
+        leaderboard.update(new LeaderboardEntry(1, 9000, START.plusMinutes(3)));
+
+        assertEquals(4, leaderboard.participants());
+        List<LeaderboardEntry> top = leaderboard.top(10);
+        // The top keeps 3 entries, the earliest submission wins a tie
+        assertEquals(List.of(1, 3, 2), top.stream().map(LeaderboardEntry::userId).toList());
+        assertEquals(1, leaderboard.rankOf(leaderboard.get(1).score()));
+        assertEquals(2, leaderboard.rankOf(leaderboard.get(3).score()));
+        assertEquals(2, leaderboard.rankOf(leaderboard.get(2).score()));
+        assertEquals(4, leaderboard.rankOf(leaderboard.get(4).score()));
+        assertEquals(List.of(1, 3), leaderboard.top(2).stream().map(LeaderboardEntry::userId).toList());
+    }
+
+    /*
+    Writer threads record attempts of 10k users of one quiz while readers query the top 10 and ranks.
+    Once the writers are done, the top and the ranks match the best scores recorded.
+     */
+    @Test
+    void concurrentWritersKeepRankingConsistent() throws InterruptedException {
+        int users = 10_000;
+        int writers = 4;
+        int updatesPerWriter = 20_000;
+        QuizLeaderboard leaderboard = new QuizLeaderboard(100);
+        int[][] bestScores = new int[writers][users];
+        CountDownLatch done = new CountDownLatch(writers);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int writer = 0; writer < writers; writer++) {
+            int[] best = bestScores[writer];
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < updatesPerWriter; i++) {
+                    int userId = random.nextInt(users);
+                    int score = random.nextInt(QuizLeaderboard.MAXIMUM_SCORE + 1);
+                    best[userId] = Math.max(best[userId], score);
+                    leaderboard.update(new LeaderboardEntry(userId, score, START));
+                }
+                done.countDown();
+            }));
+        }
+        for (int reader = 0; reader < 2; reader++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (done.getCount() > 0) {
+                    leaderboard.top(10);
+                    LeaderboardEntry entry = leaderboard.get(random.nextInt(users));
+                    if (entry != null)
+                        leaderboard.rankOf(entry.score());
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        for (Thread thread : threads)
+            thread.join();
+
+        int[] expected = new int[users];
+        for (int[] best : bestScores)
+            for (int userId = 0; userId < users; userId++)
+                expected[userId] = Math.max(expected[userId], best[userId]);
+        int[] usersByScore = new int[QuizLeaderboard.MAXIMUM_SCORE + 2];
+        for (int userId = 0; userId < users; userId++) {
+            LeaderboardEntry entry = leaderboard.get(userId);
+            if (entry != null) {
+                assertEquals(expected[userId], entry.score());
+                usersByScore[entry.score()]++;
+            }
+        }
+        // Rank of a score is 1 + the number of users above it
+        long above = 0;
+        for (int score = QuizLeaderboard.MAXIMUM_SCORE; score >= 0; score--) {
+            if (usersByScore[score] > 0)
+                assertEquals(1 + above, leaderboard.rankOf(score));
+            above += usersByScore[score];
+        }
+        List<LeaderboardEntry> top = leaderboard.top(100);
+        assertEquals(100, top.size());
+        assertEquals(1, leaderboard.rankOf(top.get(0).score()));
+        assertTrue(leaderboard.rankOf(top.get(99).score()) <= 100);
+    }
+}
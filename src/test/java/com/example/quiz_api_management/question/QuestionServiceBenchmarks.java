@@ -0,0 +1,100 @@
+package com.example.quiz_api_management.question;
+
+import com.example.quiz_api_management.SqlStatementCounter;
+import com.example.quiz_api_management.quiz.Quiz;
+import com.example.quiz_api_management.quiz.QuizRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Insert throughput of questions, printed and not asserted: mvn test -Pbenchmark
+The statements of the bulk create are asserted by QuestionServiceTests.
+
+allocationSize is fixed by the entities, so the previous path (allocationSize = 1, no JDBC batching) is replayed
+with plain JDBC: one nextval on a sequence which increments by 1 and one insert statement per question,
+in one transaction like saveAll.
+ */
+@SpringBootTest
+class QuestionServiceBenchmarks {
+    private static final int SEEDED_QUESTIONS = 10_000;
+    // MAX_BATCH_SIZE of questions:batch
+    private static final int BATCH_QUESTIONS = 1000;
+
+    @Autowired
+    private QuestionService questionService;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Startup seeding: saveAll of the repository with pooled-lo ids and batches of 50
+    @Test
+    void seedingWithPooledIdsAgainstOneIdPerInsert() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS benchmark_question_sequence INCREMENT BY 1");
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of seeded questions", "10 minutes"));
+        List<Question> questions = new ArrayList<>(SEEDED_QUESTIONS);
+        for (int i = 0; i < SEEDED_QUESTIONS; i++)
+            questions.add(new Question("Seeded question " + i, "single", quiz));
+
+        long previousNanos = insertOneByOne(quiz, "Previous seeded question ", SEEDED_QUESTIONS);
+
+        SqlStatementCounter.reset();
+        long start = System.nanoTime();
+        questionRepository.saveAll(questions);
+        long pooledNanos = System.nanoTime() - start;
+
+        print("Seeding", SEEDED_QUESTIONS, pooledNanos, SqlStatementCounter.count(), previousNanos);
+    }
+
+    // questions:batch: one query for the duplicates, the inserts in batches and one update of the counter of the quiz
+    @Test
+    void bulkCreateWithPooledIdsAgainstOneIdPerInsert() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS benchmark_question_sequence INCREMENT BY 1");
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of bulk created questions", "10 minutes"));
+        List<QuestionDTO> questions = new ArrayList<>(BATCH_QUESTIONS);
+        for (int i = 0; i < BATCH_QUESTIONS; i++)
+            questions.add(new QuestionDTO(0, "Bulk created question " + i, "single", null, null, quiz.getId()));
+
+        long previousNanos = insertOneByOne(quiz, "Previous bulk created question ", BATCH_QUESTIONS);
+
+        SqlStatementCounter.reset();
+        long start = System.nanoTime();
+        questionService.createQuestions(quiz, questions);
+        long pooledNanos = System.nanoTime() - start;
+
+        print("Bulk create", BATCH_QUESTIONS, pooledNanos, SqlStatementCounter.count(), previousNanos);
+    }
+
+    private long insertOneByOne(Quiz quiz, String prefix, int count) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long start = System.nanoTime();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < count; i++) {
+                Long id = jdbcTemplate.queryForObject("SELECT nextval('benchmark_question_sequence')", Long.class);
+                jdbcTemplate.update("INSERT INTO question (id, value, type, created_at, updated_at, version, quiz_id) " +
+                        "VALUES (?, ?, ?, ?, ?, 0, ?)", 60_000_000 + id, prefix + i, "single", now, now, quiz.getId());
+            }
+        });
+        return System.nanoTime() - start;
+    }
+
+    private static void print(String path, int count, long pooledNanos, long statements, long previousNanos) {
+        System.out.printf("%s of %d questions: %.0f inserts/s with pooled ids and batches (%d statements), " +
+                        "%.0f inserts/s with one id and one insert each (%d statements)%n",
+                path, count, count * 1_000_000_000.0 / pooledNanos, statements,
+                count * 1_000_000_000.0 / previousNanos, 2L * count);
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.quiz_api_management.question;
+
+import com.example.quiz_api_management.SqlStatementCounter;
+import com.example.quiz_api_management.common.BatchItemResult;
+import com.example.quiz_api_management.common.BatchResult;
+import com.example.quiz_api_management.common.KeysetPage;
+import com.example.quiz_api_management.quiz.Quiz;
+import com.example.quiz_api_management.quiz.QuizRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+class QuestionServiceTests {
+    @Autowired
+    private QuestionService questionService;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    // Insert of the question and update of the counter of its quiz, then update of the question and version of its quiz
+    @Test
+    void createAndUpdateDoNotReadBack() {
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of written questions", "10 minutes"));
+
+        SqlStatementCounter.reset();
+        QuestionDTO created = questionService.createQuestion(Optional.of(quiz),
+                new QuestionDTO(0, "Written question", "short", null, null, quiz.getId()));
+        assertEquals(2, SqlStatementCounter.count());
+        assertTrue(created.getId() > 0);
+        assertEquals(quiz.getId(), created.getQuizId());
+
+        SqlStatementCounter.reset();
+        QuestionDTO updated = questionService.updateQuestion(created,
+                new QuestionDTO(0, "Written question renamed", "long", null, null, quiz.getId()));
+        assertEquals(2, SqlStatementCounter.count());
+        assertEquals("long", updated.getType());
+        assertEquals("Written question renamed", questionRepository.findById(created.getId()).orElseThrow().getValue());
+    }
+
+    // A question without value is answered with its field errors before the duplicate check reads the value
+    @Test
+    void createWithoutValueIsBadRequest() throws Exception {
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of invalid questions", "10 minutes"));
+        // Controllers only, the security filters are not part of this context
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        mockMvc.perform(post("/api/v1/quiz/" + quiz.getId() + "/questions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\": \"short\"}"))
+                .andExpect(status().isBadRequest());
+        assertEquals(0, quizRepository.findById(quiz.getId()).orElseThrow().getQuestionCount());
+    }
+
+    /*
+    200 questions, one already in the quiz and one repeated in the request: one query for duplicates,
+    one insert statement prepared once and executed in JDBC batches, and one update of the counter of the quiz.
+     */
+    @Test
+    void bulkCreateReportsDuplicatesAndBatchesInserts() {
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of bulk questions", "10 minutes"));
+        questionRepository.save(new Question("Bulk question 0", "short", quiz));
+        List<QuestionDTO> questions = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+            questions.add(new QuestionDTO(0, "Bulk question " + i, "short", null, null, quiz.getId()));
+        questions.add(new QuestionDTO(0, "Bulk question 1", "short", null, null, quiz.getId()));
+
+        SqlStatementCounter.reset();
+        BatchResult result = questionService.createQuestions(quiz, questions);
+        assertEquals(3, SqlStatementCounter.count());
+
+        assertEquals(199, result.getCreated());
+        assertEquals(2, result.getRejected());
+        assertEquals(BatchItemResult.DUPLICATE, result.getItems().get(0).getStatus());
+        assertEquals(BatchItemResult.CREATED, result.getItems().get(1).getStatus());
+        assertEquals(BatchItemResult.DUPLICATE, result.getItems().get(200).getStatus());
+        // The question saved directly by the repository is not counted
+        assertEquals(199, quizRepository.findById(quiz.getId()).orElseThrow().getQuestionCount());
+    }
+
+    // Seeded samples are reproducible, and once the pool is loaded a sample reads only the sampled questions
+    @Test
+    void sampleIsReproducibleWithSeedAndReadsOnlySampledQuestions() {
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of sampled questions", "10 minutes"));
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < 60; i++)
+            questions.add(new Question("Sampled question " + i, i % 2 == 0 ? "short" : "long", quiz));
+        questionRepository.saveAll(questions);
+
+        List<QuestionDTO> first = questionService.sampleQuestions(10, "short", quiz.getId(), 42L);
+        SqlStatementCounter.reset();
+        List<QuestionDTO> second = questionService.sampleQuestions(10, "short", quiz.getId(), 42L);
+        assertEquals(1, SqlStatementCounter.count());
+
+        assertEquals(10, first.size());
+        assertEquals(first.stream().map(QuestionDTO::getId).toList(), second.stream().map(QuestionDTO::getId).toList());
+        assertEquals(10, new HashSet<>(first.stream().map(QuestionDTO::getId).toList()).size());
+        first.forEach(question -> {
+            assertEquals("short", question.getType());
+            assertEquals(quiz.getId(), question.getQuizId());
+        });
+        assertNotEquals(first.stream().map(QuestionDTO::getId).toList(),
+                questionService.sampleQuestions(10, "short", quiz.getId(), 7L).stream().map(QuestionDTO::getId).toList());
+        // A pool smaller than n is returned whole
+        assertEquals(30, questionService.sampleQuestions(100, "long", quiz.getId(), null).size());
+    }
+
+    // Pools are bounded, the least recently sampled pool is dropped and loaded again by its next sample
+    @Test
+    void samplerKeepsOnlyRecentlySampledPools() {
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of bounded pools", "10 minutes"));
+        questionRepository.saveAll(List.of(new Question("Pooled question 0", "short", quiz),
+                new Question("Pooled question 1", "long", quiz)));
+        QuestionSampler sampler = new QuestionSampler(questionRepository, 2);
+
+        sampler.sample(1, "short", quiz.getId(), null);
+        sampler.sample(1, "long", quiz.getId(), null);
+        SqlStatementCounter.reset();
+        sampler.sample(1, "short", quiz.getId(), null);
+        assertEquals(0, SqlStatementCounter.count());
+
+        // The pool of the whole quiz drops the pool of long questions, sampled before the short ones
+        sampler.sample(1, null, quiz.getId(), null);
+        SqlStatementCounter.reset();
+        sampler.sample(1, "short", quiz.getId(), null);
+        assertEquals(0, SqlStatementCounter.count());
+        sampler.sample(1, "long", quiz.getId(), null);
+        assertEquals(1, SqlStatementCounter.count());
+    }
+
+    // Pages of two of one type walk ties in both orders without skipping or repeating
+    @Test
+    void keysetPagesWalkTies() {
+        Quiz quiz = quizRepository.save(new Quiz("Keyset questions", "10 minutes"));
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            questions.add(new Question("Keyset tie", "long", quiz));
+        questions.add(new Question("Keyset single", "long", quiz));
+        questionRepository.saveAll(questions);
+
+        Comparator<Question> byValue = Comparator.comparing(Question::getValue);
+        List<Question> longQuestions = questionRepository.findAll().stream()
+                .filter(question -> question.getType().equals("long")).toList();
+        List<Integer> ascending = longQuestions.stream()
+                .sorted(byValue.thenComparing(Question::getId)).map(Question::getId).toList();
+        List<Integer> descending = longQuestions.stream()
+                .sorted(byValue.thenComparing(Question::getId).reversed()).map(Question::getId).toList();
+
+        assertEquals(ascending, scrollAll("long", "value,asc"));
+        assertEquals(descending, scrollAll("long", "value,desc"));
+    }
+
+    private List<Integer> scrollAll(String filter, String sort) {
+        List<Integer> ids = new ArrayList<>();
+        KeysetPage<QuestionDTO> page = questionService.scrollQuestions(null, 2, filter, sort);
+        page.getContent().forEach(question -> ids.add(question.getId()));
+        while (page.hasNext()) {
+            page = questionService.scrollQuestions(page.getNextCursor(), 2, null, null);
+            page.getContent().forEach(question -> ids.add(question.getId()));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.quiz_api_management.quiz;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Sort of quizzes by number of questions, printed and not asserted: mvn test -Pbenchmark
+The counter itself is asserted by QuizServiceTests.
+ */
+@SpringBootTest
+class QuizServiceBenchmarks {
+    // Far above the ids given by the sequences, so the rows of the benchmark never collide with other rows
+    private static final int FIRST_ID = 50_000_000;
+    private static final int QUIZZES = 100_000;
+    private static final int RUNS = 10;
+    // The id bound differs on every run, so the database cannot answer it from the result of the previous run
+    private static final String CORRELATED_COUNT = "SELECT quiz.id FROM quiz WHERE quiz.id > ? " +
+            "ORDER BY (SELECT COUNT(*) FROM question WHERE question.quiz_id = quiz.id) DESC, quiz.id DESC LIMIT 20";
+
+    @Autowired
+    private QuizService quizService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /*
+    100k quizzes with 0 to 4 questions each: first page of 20 quizzes sorted by count, read by the question_count index
+    and by a correlated COUNT of the questions of every quiz as before.
+     */
+    @Test
+    void counterSortAgainstCorrelatedCount() {
+        insertQuizzes();
+        try {
+            quizService.scrollQuizzes(null, 20, "count,desc");
+            jdbcTemplate.queryForList(CORRELATED_COUNT, Integer.class, -1);
+
+            long start = System.nanoTime();
+            for (int run = 0; run < RUNS; run++)
+                quizService.scrollQuizzes(null, 20, "count,desc");
+            long counterNanos = (System.nanoTime() - start) / RUNS;
+
+            start = System.nanoTime();
+            for (int run = 0; run < RUNS; run++)
+                jdbcTemplate.queryForList(CORRELATED_COUNT, Integer.class, -2 - run);
+            long correlatedNanos = (System.nanoTime() - start) / RUNS;
+
+            System.out.printf("First page of %d quizzes sorted by count: %.2f ms with question_count, %.2f ms with a correlated COUNT%n",
+                    QUIZZES, counterNanos / 1_000_000.0, correlatedNanos / 1_000_000.0);
+        } finally {
+            jdbcTemplate.update("DELETE FROM question WHERE quiz_id >= ?", FIRST_ID);
+            jdbcTemplate.update("DELETE FROM quiz WHERE id >= ?", FIRST_ID);
+        }
+    }
+
+    private void insertQuizzes() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> quizzes = new ArrayList<>(QUIZZES);
+        List<Object[]> questions = new ArrayList<>();
+        for (int i = 0; i < QUIZZES; i++) {
+            int quizId = FIRST_ID + i;
+            int count = i % 5;
+            quizzes.add(new Object[]{quizId, "Benchmark quiz " + i, "10 minutes", count, now, now});
+            for (int j = 0; j < count; j++)
+                questions.add(new Object[]{FIRST_ID + questions.size(), "Benchmark question " + j, "single", now, now, quizId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO quiz (id, value, type, question_count, version, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, 0, ?, ?)", quizzes);
+        jdbcTemplate.batchUpdate("INSERT INTO question (id, value, type, created_at, updated_at, version, quiz_id) " +
+                "VALUES (?, ?, ?, ?, ?, 0, ?)", questions);
+    }
+}
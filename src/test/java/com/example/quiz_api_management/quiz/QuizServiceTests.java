@@ -0,0 +1,193 @@
+package com.example.quiz_api_management.quiz;
+
+import com.example.quiz_api_management.SqlStatementCounter;
+import com.example.quiz_api_management.common.KeysetPage;
+import com.example.quiz_api_management.exception.NotFoundException;
+import com.example.quiz_api_management.answer.Answer;
+import com.example.quiz_api_management.answer.AnswerRepository;
+import com.example.quiz_api_management.question.Question;
+import com.example.quiz_api_management.question.QuestionDTO;
+import com.example.quiz_api_management.question.QuestionRepository;
+import com.example.quiz_api_management.question.QuestionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+class QuizServiceTests {
+    @Autowired
+    private QuizService quizService;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private AnswerRepository answerRepository;
+    @Autowired
+    private QuestionService questionService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private QuestionCountRepairJob questionCountRepairJob;
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Test
+    void fullQuizUsesConstantNumberOfStatements() {
+        Quiz smallQuiz = createQuiz("Small quiz", 1);
+        Quiz largeQuiz = createQuiz("Large quiz", 25);
+
+        assertEquals(2, countStatements(smallQuiz.getId(), 1));
+        assertEquals(2, countStatements(largeQuiz.getId(), 25));
+    }
+
+    @Test
+    void versionChangesWithQuizAndItsQuestions() {
+        Quiz quiz = createQuiz("Versioned quiz", 1);
+        long created = quizService.getQuizVersion(quiz.getId()).orElseThrow();
+
+        quizService.updateQuiz(quizService.getQuiz(quiz.getId()).orElseThrow(), new QuizDTO("Versioned quiz renamed", "15 minutes"));
+        long updated = quizService.getQuizVersion(quiz.getId()).orElseThrow();
+        assertTrue(updated > created);
+
+        QuestionDTO question = new QuestionDTO(0, "New question", "short", null, null, quiz.getId());
+        questionService.createQuestion(Optional.of(quizRepository.findById(quiz.getId()).orElseThrow()), question);
+        assertTrue(quizService.getQuizVersion(quiz.getId()).orElseThrow() > updated);
+    }
+
+    // A strong ETag stands for one body: two responses of the same version are identical
+    @Test
+    void sameETagReturnsSameBody() throws Exception {
+        // Controllers only, the security filters are not part of this context
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        String path = "/api/v1/quizzes/" + createQuiz("Tagged quiz", 1).getId();
+        MockHttpServletResponse first = mockMvc.perform(get(path)).andExpect(status().isOk()).andReturn().getResponse();
+        Thread.sleep(5);
+        MockHttpServletResponse second = mockMvc.perform(get(path)).andExpect(status().isOk()).andReturn().getResponse();
+
+        assertEquals(first.getHeader(HttpHeaders.ETAG), second.getHeader(HttpHeaders.ETAG));
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertFalse(first.getContentAsString().contains("timestamp"));
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void createAndUpdateSendOneStatementEach() {
+        SqlStatementCounter.reset();
+        QuizDTO created = quizService.createQuiz(new QuizDTO("Written quiz", "10 minutes"));
+        assertEquals(1, SqlStatementCounter.count());
+        assertTrue(created.getId() > 0);
+
+        SqlStatementCounter.reset();
+        QuizDTO updated = quizService.updateQuiz(created, new QuizDTO("Written quiz renamed", "10 minutes"));
+        assertEquals(1, SqlStatementCounter.count());
+        assertEquals("Written quiz renamed", updated.getValue());
+        assertEquals("Written quiz renamed", quizRepository.findById(created.getId()).orElseThrow().getValue());
+    }
+
+    // The counter follows the service writes, a question written around the service is fixed by the repair job
+    @Test
+    void questionCountIsMaintainedAndRepaired() {
+        QuizDTO quiz = quizService.createQuiz(new QuizDTO("Counted quiz", "10 minutes"));
+        Optional<Quiz> entity = quizRepository.findById(quiz.getId());
+        QuestionDTO first = questionService.createQuestion(entity, new QuestionDTO(0, "Counted 1", "short", null, null, quiz.getId()));
+        questionService.createQuestion(entity, new QuestionDTO(0, "Counted 2", "short", null, null, quiz.getId()));
+        assertEquals(2, quizService.getQuiz(quiz.getId()).orElseThrow().getQuestionCount());
+
+        questionService.deleteQuestion(first.getId());
+        assertEquals(1, quizService.getQuiz(quiz.getId()).orElseThrow().getQuestionCount());
+
+        questionRepository.save(new Question("Counted 3", "short", entity.get()));
+        assertEquals(1, quizService.getQuiz(quiz.getId()).orElseThrow().getQuestionCount());
+        assertTrue(questionCountRepairJob.repair() >= 1);
+        // The cached quiz is evicted, the repaired counter is served at once
+        assertEquals(2, quizService.getQuiz(quiz.getId()).orElseThrow().getQuestionCount());
+        assertEquals(0, questionCountRepairJob.repair());
+    }
+
+    // The cached quiz still exists after a delete around the service, the update finds nothing and fails
+    @Test
+    void updateOfDeletedQuizIsNotFound() {
+        QuizDTO created = quizService.createQuiz(new QuizDTO("Deleted behind the cache", "10 minutes"));
+        QuizDTO cached = quizService.getQuiz(created.getId()).orElseThrow();
+        quizRepository.deleteById(created.getId());
+
+        assertTrue(quizService.getQuiz(created.getId()).isPresent());
+        assertThrows(NotFoundException.class,
+                () -> quizService.updateQuiz(cached, new QuizDTO("Deleted renamed", "10 minutes")));
+        assertTrue(quizRepository.findByValue("Deleted renamed").isEmpty());
+    }
+
+    // Pages of three walk ties in both orders without skipping or repeating a quiz
+    @Test
+    void keysetPagesWalkTies() {
+        for (int i = 0; i < 4; i++)
+            quizRepository.save(new Quiz("Tied quiz " + i, "keyset tie"));
+        quizRepository.save(new Quiz("Single quiz", "keyset single"));
+
+        Comparator<Quiz> byType = Comparator.comparing(Quiz::getType);
+        List<Integer> ascending = quizRepository.findAll().stream()
+                .sorted(byType.thenComparing(Quiz::getId)).map(Quiz::getId).toList();
+        List<Integer> descending = quizRepository.findAll().stream()
+                .sorted(byType.thenComparing(Quiz::getId).reversed()).map(Quiz::getId).toList();
+
+        assertEquals(ascending, scrollAll("type,asc"));
+        assertEquals(descending, scrollAll("type,desc"));
+    }
+
+    private List<Integer> scrollAll(String sort) {
+        List<Integer> ids = new ArrayList<>();
+        KeysetPage<QuizDTO> page = quizService.scrollQuizzes(null, 3, sort);
+        page.getContent().forEach(quiz -> ids.add(quiz.getId()));
+        while (page.hasNext()) {
+            page = quizService.scrollQuizzes(page.getNextCursor(), 3, null);
+            page.getContent().forEach(quiz -> ids.add(quiz.getId()));
+        }
+        return ids;
+    }
+
+    private long countStatements(int quizId, int expectedQuestions) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        QuizFullDTO quiz = quizService.getFullQuiz(quizId).orElseThrow();
+        assertEquals(expectedQuestions, quiz.getQuestions().size());
+        quiz.getQuestions().forEach(question -> assertEquals(3, question.getAnswers().size()));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Quiz createQuiz(String value, int numberOfQuestions) {
+        Quiz quiz = quizRepository.save(new Quiz(value, "15 minutes"));
+        List<Question> questions = new ArrayList<>();
+        List<Answer> answers = new ArrayList<>();
+        for (int i = 0; i < numberOfQuestions; i++) {
+            Question question = new Question("Question " + i, "multiple", quiz);
+            questions.add(question);
+            for (int j = 0; j < 3; j++)
+                answers.add(new Answer("Answer " + j, j == 0, question));
+        }
+        questionRepository.saveAll(questions);
+        answerRepository.saveAll(answers);
+        return quiz;
+    }
+}
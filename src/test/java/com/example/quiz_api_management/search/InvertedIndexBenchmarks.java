@@ -0,0 +1,63 @@
+package com.example.quiz_api_management.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+Search latency on a large index, printed and not asserted: mvn test -Pbenchmark
+The ranking is asserted by InvertedIndexTests. The index holds about 1M documents, give the JVM a heap of 2 GB or more.
+ */
+class InvertedIndexBenchmarks {
+    private static final int QUIZZES = 20_000;
+    private static final int QUESTIONS_PER_QUIZ = 50;
+    private static final int VOCABULARY = 20_000;
+    private static final int WORDS_PER_QUESTION = 8;
+    private static final int QUERIES = 2_000;
+
+    // 20k quizzes of 50 questions, then two-word queries whose words are as frequent as in the questions
+    @Test
+    void searchLatencyOnOneMillionDocuments() {
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++)
+            words[i] = "word" + Integer.toString(i, 36);
+        Random random = new Random(42);
+
+        // Same work as SearchIndexService.rebuild once the texts are read
+        long start = System.nanoTime();
+        InvertedIndex index = new InvertedIndex();
+        int questionId = 0;
+        for (int quizId = 1; quizId <= QUIZZES; quizId++) {
+            index.put(SearchDocumentType.QUIZ, quizId, 0, "Quiz " + text(words, random, 3));
+            for (int i = 0; i < QUESTIONS_PER_QUIZ; i++)
+                index.put(SearchDocumentType.QUESTION, ++questionId, quizId, text(words, random, WORDS_PER_QUESTION));
+        }
+        long rebuildMillis = (System.nanoTime() - start) / 1_000_000;
+
+        for (int i = 0; i < QUERIES / 10; i++)
+            index.search(text(words, random, 2), 20);
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String query = text(words, random, 2);
+            start = System.nanoTime();
+            index.search(query, 20);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+
+        System.out.printf("Index of %d documents built in %d ms, %d searches of 2 words: p50 %.3f ms, p99 %.3f ms%n",
+                index.size(), rebuildMillis, QUERIES,
+                latencies[QUERIES / 2] / 1_000_000.0, latencies[QUERIES * 99 / 100] / 1_000_000.0);
+    }
+
+    // Words are skewed towards the head of the vocabulary, like the words of real questions
+    private static String text(String[] words, Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            double skewed = Math.pow(random.nextDouble(), 3);
+            text.append(words[(int) (skewed * words.length)]).append(' ');
+        }
+        return text.toString();
+    }
+}
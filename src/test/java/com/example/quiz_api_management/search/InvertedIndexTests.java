@@ -0,0 +1,56 @@
+package com.example.quiz_api_management.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTests {
+
+    @Test
+    void ranksDocumentsMatchingMoreTermsFirst() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(SearchDocumentType.QUIZ, 1, 0, "Java Quiz");
+        index.put(SearchDocumentType.QUESTION, 10, 1, "Is Java object-oriented programming language ?");
+        index.put(SearchDocumentType.QUESTION, 11, 1, "What is a programming language ?");
+        index.put(SearchDocumentType.ANSWER, 100, 11, "Python");
+
+        List<SearchResult> results = index.search("java programming", 10);
+
+        assertEquals(3, results.size());
+        assertEquals("question", results.get(0).getType());
+        assertEquals(10, results.get(0).getId());
+        assertTrue(results.get(0).getScore() > results.get(1).getScore());
+        assertEquals(1, index.search("JAVA", 1).size());
+    }
+
+    @Test
+    void removingQuizRemovesItsQuestionsAndAnswers() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(SearchDocumentType.QUIZ, 1, 0, "Java Quiz");
+        index.put(SearchDocumentType.QUESTION, 10, 1, "Java question");
+        index.put(SearchDocumentType.ANSWER, 100, 10, "Java answer");
+        index.put(SearchDocumentType.QUIZ, 2, 0, "Java again");
+
+        index.remove(SearchDocumentType.QUIZ, 1);
+
+        assertEquals(1, index.size());
+        assertEquals(2, index.search("java", 10).get(0).getId());
+    }
+
+    @Test
+    void replacingTextDropsOldTerms() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(SearchDocumentType.QUESTION, 10, 1, "Spring Boot");
+        index.put(SearchDocumentType.ANSWER, 100, 10, "Yes");
+        index.put(SearchDocumentType.QUESTION, 10, 1, "Hibernate");
+
+        assertTrue(index.search("spring", 10).isEmpty());
+        assertEquals(1, index.search("hibernate", 10).size());
+        // Children of a document are kept when its text is replaced
+        index.remove(SearchDocumentType.QUESTION, 10);
+        assertEquals(0, index.size());
+    }
+}
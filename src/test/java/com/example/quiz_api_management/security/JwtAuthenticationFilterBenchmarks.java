@@ -0,0 +1,65 @@
+package com.example.quiz_api_management.security;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/*
+Timings of the filter with and without the cache of verified tokens, printed and not asserted: mvn test -Pbenchmark
+The verifications skipped by the cache are asserted by JwtAuthenticationFilterTests.
+ */
+class JwtAuthenticationFilterBenchmarks {
+
+    /*
+    Authenticated GETs through the filter with 100 clients sending their token again and again,
+    with the cache of verified tokens and with a verification of the signature on every request.
+     */
+    @Test
+    void cacheOfVerifiedTokensAgainstVerificationPerRequest() throws ServletException, IOException {
+        String secret = "c2VjcmV0LWtleS1vZi10aGUtYmVuY2htYXJrLW9mLWp3dC1maWx0ZXI=";
+        JwtTokenService cached = new JwtTokenService(secret, 10_000);
+        JwtTokenService uncached = new JwtTokenService(secret, 0);
+        List<String> tokens = IntStream.range(0, 100)
+                .mapToObj(id -> cached.issue(id, "client" + id + "@gmail.com", List.of("student")))
+                .toList();
+
+        TokenDenylist denylist = new TokenDenylist("");
+
+        int requests = 100_000;
+        run(new JwtAuthenticationFilter(cached, denylist), tokens, requests / 10);
+        run(new JwtAuthenticationFilter(uncached, denylist), tokens, requests / 10);
+        long cachedNanos = run(new JwtAuthenticationFilter(cached, denylist), tokens, requests);
+        long uncachedNanos = run(new JwtAuthenticationFilter(uncached, denylist), tokens, requests);
+
+        System.out.printf("Authenticated GETs: %d requests/s with the cache of verified tokens, %d requests/s without%n",
+                requests * 1_000_000_000L / cachedNanos, requests * 1_000_000_000L / uncachedNanos);
+    }
+
+    private static long run(JwtAuthenticationFilter filter, List<String> tokens, int requests) throws ServletException, IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/quizzes/1");
+            request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.get(i % tokens.size()));
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain() {
+                @Override
+                public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse) {
+                    if (SecurityContextHolder.getContext().getAuthentication() == null)
+                        throw new IllegalStateException("Request is not authenticated");
+                }
+            };
+            filter.doFilter(request, response, chain);
+        }
+        return System.nanoTime() - start;
+    }
+}
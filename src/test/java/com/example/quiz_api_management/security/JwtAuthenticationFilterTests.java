@@ -0,0 +1,178 @@
+package com.example.quiz_api_management.security;
+
+import com.example.quiz_api_management.quiz.QuizRepository;
+import com.example.quiz_api_management.user.User;
+import com.example.quiz_api_management.user.UserRepository;
+import com.example.quiz_api_management.user.UserService;
+import com.example.quiz_api_management.util.PasswordUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class JwtAuthenticationFilterTests {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenService jwtTokenService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void signedInTokenAuthenticatesRequestsWithoutSession() throws Exception {
+        User user = new User("jwtuser", "jwtuser@gmail.com", PasswordUtil.encode("secret1"),
+                "aaaaa", "bbbbb", LocalDate.of(1999, 1, 1));
+        user.setRoles(new HashSet<>(Set.of("teacher")));
+        userRepository.save(user);
+        String quizPath = "/api/v1/quizzes/" + quizRepository.findAll().get(0).getId();
+
+        String body = mockMvc.perform(post("/api/v1/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"jwtuser@gmail.com\",\"password\":\"secret1\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode authToken = objectMapper.readTree(body).get("data");
+        String token = authToken.get("token").asText();
+
+        VerifiedToken verified = jwtTokenService.verify(token).orElseThrow();
+        assertEquals("jwtuser@gmail.com", verified.authentication().getName());
+        assertEquals("ROLE_TEACHER", verified.authentication().getAuthorities().iterator().next().getAuthority());
+
+        long hits = jwtTokenService.getHits();
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = mockMvc.perform(get(quizPath).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            assertTrue(response.getHeaders(HttpHeaders.SET_COOKIE).isEmpty());
+        }
+        assertEquals(hits + 3, jwtTokenService.getHits());
+
+        String forged = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        mockMvc.perform(get(quizPath).header(HttpHeaders.AUTHORIZATION, "Bearer " + forged))
+                .andExpect(status().isUnauthorized());
+        // Without a token the request goes on to the OAuth2 login
+        mockMvc.perform(get(quizPath)).andExpect(status().is3xxRedirection());
+
+        // Once signed out, the token is rejected even though it is cached as verified
+        mockMvc.perform(post("/api/v1/auth/signout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(authToken.toString()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(quizPath).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    // Removing a role revokes the tokens already issued with it, a new sign-in gets a token with the current roles
+    @Test
+    void changesOfUserRevokeItsTokens() throws Exception {
+        User user = new User("revokeduser", "revokeduser@gmail.com", PasswordUtil.encode("secret1"),
+                "aaaaa", "bbbbb", LocalDate.of(1999, 1, 1));
+        user.setRoles(new HashSet<>(Set.of("teacher", "student")));
+        int userId = userRepository.save(user).getId();
+        String quizPath = "/api/v1/quizzes/" + quizRepository.findAll().get(0).getId();
+
+        String token = signIn("revokeduser@gmail.com");
+        mockMvc.perform(get(quizPath).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        userService.removeRole(userId, "teacher");
+        // The token is cached as verified, it is rejected all the same
+        mockMvc.perform(get(quizPath).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+
+        String renewed = signIn("revokeduser@gmail.com");
+        assertEquals(Set.of("ROLE_STUDENT"), jwtTokenService.verify(renewed).orElseThrow().authentication().getAuthorities()
+                .stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet()));
+        mockMvc.perform(get(quizPath).header(HttpHeaders.AUTHORIZATION, "Bearer " + renewed))
+                .andExpect(status().isOk());
+
+        userService.deleteUser(userId);
+        mockMvc.perform(get(quizPath).header(HttpHeaders.AUTHORIZATION, "Bearer " + renewed))
+                .andExpect(status().isUnauthorized());
+    }
+
+    // A client sending its token again is not verified again, and a full cache drops its least recently used token
+    @Test
+    void cacheOfVerifiedTokensSkipsVerification() throws ServletException, IOException {
+        String secret = "c2VjcmV0LWtleS1vZi10aGUtYmVuY2htYXJrLW9mLWp3dC1maWx0ZXI=";
+        JwtTokenService cached = new JwtTokenService(secret, 100);
+        List<String> tokens = IntStream.range(0, 100)
+                .mapToObj(id -> cached.issue(id, "client" + id + "@gmail.com", List.of("student")))
+                .toList();
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(cached, new TokenDenylist(""));
+
+        run(filter, tokens, 1_000);
+        assertEquals(100, cached.getMisses());
+        assertEquals(900, cached.getHits());
+
+        String newcomer = cached.issue(100, "client100@gmail.com", List.of("student"));
+        run(filter, List.of(newcomer), 1);
+        // The first token was the least recently used one
+        run(filter, tokens.subList(1, 100), 99);
+        assertEquals(101, cached.getMisses());
+        run(filter, tokens.subList(0, 1), 1);
+        assertEquals(102, cached.getMisses());
+    }
+
+    private String signIn(String email) throws Exception {
+        String body = mockMvc.perform(post("/api/v1/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"secret1\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("data").get("token").asText();
+    }
+
+    private static long run(JwtAuthenticationFilter filter, List<String> tokens, int requests) throws ServletException, IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/quizzes/1");
+            request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.get(i % tokens.size()));
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain() {
+                @Override
+                public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse) {
+                    if (SecurityContextHolder.getContext().getAuthentication() == null)
+                        throw new IllegalStateException("Request is not authenticated");
+                }
+            };
+            filter.doFilter(request, response, chain);
+        }
+        return System.nanoTime() - start;
+    }
+}
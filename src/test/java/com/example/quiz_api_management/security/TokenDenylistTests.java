@@ -0,0 +1,96 @@
+package com.example.quiz_api_management.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenDenylistTests {
+
+    @Test
+    void revokedTokenIsFoundInBucketOfItsExpiration() throws IOException {
+        TokenDenylist denylist = new TokenDenylist("");
+        denylist.load();
+        UUID revoked = UUID.randomUUID();
+        long expiresAt = System.currentTimeMillis() + 20 * 60_000;
+
+        denylist.revoke(revoked, expiresAt);
+        // A token which has already expired is not kept
+        denylist.revoke(UUID.randomUUID(), System.currentTimeMillis() - 1);
+
+        assertTrue(denylist.isRevoked(revoked, expiresAt));
+        assertFalse(denylist.isRevoked(UUID.randomUUID(), expiresAt));
+        assertEquals(1, denylist.size());
+        denylist.sweep();
+        assertEquals(1, denylist.size());
+    }
+
+    @Test
+    void revocationsSurviveRestartWithoutExpiredEntries(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("denylist.bin");
+        UUID expired = UUID.randomUUID();
+        try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(file))) {
+            output.writeLong(System.currentTimeMillis() - 60_000);
+            output.writeLong(expired.getMostSignificantBits());
+            output.writeLong(expired.getLeastSignificantBits());
+        }
+
+        TokenDenylist denylist = new TokenDenylist(file.toString());
+        denylist.load();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        long expiresAt = System.currentTimeMillis() + 20 * 60_000;
+        denylist.revoke(first, expiresAt);
+        denylist.revoke(second, expiresAt);
+        denylist.revoke(second, expiresAt);
+        denylist.close();
+        // The expired entry was dropped by the load, a repeated revocation is written once
+        assertEquals(2 * 24, Files.size(file));
+
+        TokenDenylist restarted = new TokenDenylist(file.toString());
+        restarted.load();
+        assertTrue(restarted.isRevoked(first, expiresAt));
+        assertTrue(restarted.isRevoked(second, expiresAt));
+        assertEquals(2, restarted.size());
+        restarted.close();
+    }
+
+    // Tokens issued to a revoked user up to its revocation are rejected, later ones are not, also after a restart
+    @Test
+    void revokedUserRejectsTokensIssuedBefore(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("denylist.bin");
+        TokenDenylist denylist = new TokenDenylist(file.toString());
+        denylist.load();
+        long now = System.currentTimeMillis();
+        VerifiedToken before = token(7, now - 1_000);
+        VerifiedToken other = token(8, now - 1_000);
+
+        denylist.revokeUser(7);
+        VerifiedToken after = token(7, System.currentTimeMillis() + 1);
+        assertTrue(denylist.isRevoked(before));
+        assertFalse(denylist.isRevoked(other));
+        assertFalse(denylist.isRevoked(after));
+        denylist.close();
+        assertEquals(24, Files.size(file));
+
+        TokenDenylist restarted = new TokenDenylist(file.toString());
+        restarted.load();
+        assertTrue(restarted.isRevoked(before));
+        assertFalse(restarted.isRevoked(after));
+        restarted.sweep();
+        assertTrue(restarted.isRevoked(before));
+        restarted.close();
+    }
+
+    private static VerifiedToken token(int userId, long issuedAtMillis) {
+        return new VerifiedToken(UUID.randomUUID(), userId, null, issuedAtMillis, issuedAtMillis + 20 * 60_000);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.quiz_api_management.stats;
+
+import com.example.quiz_api_management.answer.Answer;
+import com.example.quiz_api_management.answer.AnswerRepository;
+import com.example.quiz_api_management.question.Question;
+import com.example.quiz_api_management.question.QuestionRepository;
+import com.example.quiz_api_management.quiz.Quiz;
+import com.example.quiz_api_management.quiz.QuizRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Counters against a row update per submission on a hot question, printed and not asserted: mvn test -Pbenchmark
+The counts themselves are asserted by QuestionStatsServiceTests.
+ */
+@SpringBootTest
+class QuestionStatsServiceBenchmarks {
+    @Autowired
+    private QuestionStatsService questionStatsService;
+    @Autowired
+    private AnswerRepository answerRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /*
+    4 threads record 50k answered questions each on the same question (a hot row),
+    with the in-memory counters and a scheduled flush, then with one UPDATE of the row per submission.
+     */
+    @Test
+    void countersAreFasterThanRowUpdatePerSubmission() throws InterruptedException {
+        int threads = 4;
+        int submissionsPerThread = 50_000;
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of hot statistics", "10 minutes"));
+        Question question = questionRepository.save(new Question("Question of hot statistics", "single", quiz));
+        Answer answer = answerRepository.save(new Answer("Hot", true, question));
+        int questionId = question.getId();
+
+        long counterNanos = runConcurrently(threads, () -> {
+            for (int i = 0; i < submissionsPerThread; i++) {
+                questionStatsService.questionGraded(questionId, i % 2 == 0);
+                questionStatsService.answerChosen(questionId, answer.getId());
+            }
+        });
+        long flushStart = System.nanoTime();
+        questionStatsService.flush();
+        long flushNanos = System.nanoTime() - flushStart;
+
+        int rowSubmissions = submissionsPerThread / 10;
+        long rowNanos = runConcurrently(threads, () -> {
+            for (int i = 0; i < rowSubmissions; i++) {
+                jdbcTemplate.update("UPDATE question_stats SET attempts = attempts + 1, correct = correct + ? WHERE question_id = ?",
+                        i % 2, questionId);
+                jdbcTemplate.update("UPDATE answer_stats SET chosen = chosen + 1 WHERE answer_id = ?", answer.getId());
+            }
+        });
+
+        long counterRate = (long) threads * submissionsPerThread * 1_000_000_000L / counterNanos;
+        long rowRate = (long) threads * rowSubmissions * 1_000_000_000L / rowNanos;
+        System.out.printf("Hot question with %d threads: counters %d submissions/s (flush %d ms), row update per submission %d submissions/s%n",
+                threads, counterRate, flushNanos / 1_000_000, rowRate);
+    }
+
+    private static long runConcurrently(int threads, Runnable work) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++)
+            workers.add(new Thread(work));
+        long start = System.nanoTime();
+        workers.forEach(Thread::start);
+        for (Thread worker : workers)
+            worker.join();
+        return System.nanoTime() - start;
+    }
+}
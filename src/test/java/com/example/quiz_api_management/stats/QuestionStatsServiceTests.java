@@ -0,0 +1,197 @@
+package com.example.quiz_api_management.stats;
+
+import com.example.quiz_api_management.answer.Answer;
+import com.example.quiz_api_management.answer.AnswerRepository;
+import com.example.quiz_api_management.attempt.AnswerKeyRegistry;
+import com.example.quiz_api_management.attempt.AttemptDTO;
+import com.example.quiz_api_management.attempt.AttemptRepository;
+import com.example.quiz_api_management.attempt.AttemptService;
+import com.example.quiz_api_management.attempt.AttemptStore;
+import com.example.quiz_api_management.attempt.BatchGrader;
+import com.example.quiz_api_management.exception.ServiceUnavailableException;
+import com.example.quiz_api_management.leaderboard.LeaderboardService;
+import com.example.quiz_api_management.question.Question;
+import com.example.quiz_api_management.question.QuestionRepository;
+import com.example.quiz_api_management.question.QuestionService;
+import com.example.quiz_api_management.quiz.Quiz;
+import com.example.quiz_api_management.quiz.QuizRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class QuestionStatsServiceTests {
+    @Autowired
+    private QuestionStatsService questionStatsService;
+    @Autowired
+    private AttemptService attemptService;
+    @Autowired
+    private AttemptStore attemptStore;
+    @Autowired
+    private AnswerRepository answerRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private QuizRepository quizRepository;
+    @Autowired
+    private QuestionService questionService;
+    @Autowired
+    private AnswerKeyRegistry answerKeyRegistry;
+    @Autowired
+    private BatchGrader batchGrader;
+    @Autowired
+    private LeaderboardService leaderboardService;
+    @Autowired
+    private AttemptRepository attemptRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Counts are the same before and after a flush, and deltas graded after a flush are added to the rows
+    @Test
+    void readsMergePersistedAndLiveCounts() {
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of statistics", "10 minutes"));
+        Question question = questionRepository.save(new Question("Question of statistics", "multiple", quiz));
+        Answer first = answerRepository.save(new Answer("First", true, question));
+        Answer second = answerRepository.save(new Answer("Second", true, question));
+        Answer third = answerRepository.save(new Answer("Third", false, question));
+
+        submit(quiz, question, first.getId(), second.getId());
+        submit(quiz, question, first.getId(), first.getId());
+        // An id which is not an answer of the question is not counted
+        submit(quiz, question, second.getId(), -5);
+        assertStats(question, 3, 1, first.getId(), 2, second.getId(), 2, third.getId(), 0);
+
+        questionStatsService.flush();
+        assertStats(question, 3, 1, first.getId(), 2, second.getId(), 2, third.getId(), 0);
+
+        submit(quiz, question, first.getId(), second.getId());
+        submit(quiz, question, third.getId());
+        assertStats(question, 5, 2, first.getId(), 3, second.getId(), 3, third.getId(), 1);
+        questionStatsService.flush();
+        assertStats(question, 5, 2, first.getId(), 3, second.getId(), 3, third.getId(), 1);
+        attemptStore.flush();
+    }
+
+    // Counters with nothing to flush are dropped, grading counts again in new ones, and deleted questions are dropped
+    @Test
+    void idleAndDeletedQuestionsAreDropped() {
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of dropped statistics", "10 minutes"));
+        Question question = questionRepository.save(new Question("Question of dropped statistics", "single", quiz));
+        Answer answer = answerRepository.save(new Answer("Dropped", true, question));
+
+        submit(quiz, question, answer.getId());
+        questionStatsService.flush();
+        assertTrue(questionStatsService.isCounted(question.getId()));
+        questionStatsService.flush();
+        assertFalse(questionStatsService.isCounted(question.getId()));
+        assertStats(question, 1, 1, answer.getId(), 1);
+
+        // The rows exist now, the upsert adds to them
+        submit(quiz, question, answer.getId());
+        assertStats(question, 2, 2, answer.getId(), 2);
+        questionStatsService.flush();
+        assertStats(question, 2, 2, answer.getId(), 2);
+
+        submit(quiz, question, answer.getId());
+        questionService.deleteQuestion(question.getId());
+        assertFalse(questionStatsService.isCounted(question.getId()));
+        attemptStore.flush();
+    }
+
+    // An attempt rejected with 503 is retried by its client, it is counted once the retry is accepted
+    @Test
+    void rejectedAttemptsAreNotCounted() throws InterruptedException {
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of rejected attempts", "10 minutes"));
+        Question question = questionRepository.save(new Question("Question of rejected attempts", "single", quiz));
+        Answer answer = answerRepository.save(new Answer("Rejected", true, question));
+        AttemptStore stopped = new AttemptStore(attemptRepository, transactionManager, 10, 10,
+                Duration.ofHours(1), Duration.ofMillis(10), Duration.ofSeconds(5));
+        stopped.shutdown();
+        AttemptService rejecting = new AttemptService(answerKeyRegistry, batchGrader, stopped,
+                leaderboardService, questionStatsService, objectMapper);
+
+        AttemptDTO attempt = new AttemptDTO(Map.of(question.getId(), new int[]{answer.getId()}));
+        assertThrows(ServiceUnavailableException.class, () -> rejecting.submitAttempt(quiz.getId(), 1, attempt));
+        assertFalse(questionStatsService.isCounted(question.getId()));
+
+        submit(quiz, question, answer.getId());
+        assertStats(question, 1, 1, answer.getId(), 1);
+        attemptStore.flush();
+    }
+
+    /*
+    4 threads grade bursts of 8 questions while flushes run without pause, so counters are dropped while they are
+    being counted: once everything is flushed, every count is in the database exactly once.
+     */
+    @Test
+    void countsAreKeptWhileCountersAreDropped() throws InterruptedException {
+        int threads = 4;
+        int submissionsPerThread = 20_000;
+        Quiz quiz = quizRepository.save(new Quiz("Quiz of concurrent statistics", "10 minutes"));
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < 8; i++)
+            questions.add(questionRepository.save(new Question("Concurrent statistics " + i, "single", quiz)));
+
+        AtomicBoolean grading = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (grading.get())
+                questionStatsService.flush();
+        });
+        flusher.start();
+        runConcurrently(threads, () -> {
+            for (int i = 0; i < submissionsPerThread; i++)
+                questionStatsService.questionGraded(questions.get((i / 500) % questions.size()).getId(), true);
+        });
+        grading.set(false);
+        flusher.join();
+        questionStatsService.flush();
+
+        long attempts = 0;
+        for (Question question : questions)
+            attempts += questionStatsService.getStats(question.getId()).getAttempts();
+        assertEquals((long) threads * submissionsPerThread, attempts);
+    }
+
+    private void submit(Quiz quiz, Question question, int... answerIds) {
+        attemptService.submitAttempt(quiz.getId(), 1, new AttemptDTO(Map.of(question.getId(), answerIds)));
+    }
+
+    private void assertStats(Question question, long attempts, long correct, int... answerCounts) {
+        QuestionStatsDTO stats = questionStatsService.getStats(question.getId());
+        assertEquals(attempts, stats.getAttempts());
+        assertEquals(correct, stats.getCorrect());
+        assertEquals((double) correct / attempts, stats.getCorrectRate());
+        for (int i = 0; i < answerCounts.length; i += 2) {
+            int answerId = answerCounts[i];
+            AnswerStatsDTO answer = stats.getAnswers().stream()
+                    .filter(answerStats -> answerStats.getAnswerId() == answerId).findAny().orElseThrow();
+            assertEquals(answerCounts[i + 1], answer.getChosen());
+        }
+    }
+
+    private static long runConcurrently(int threads, Runnable work) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++)
+            workers.add(new Thread(work));
+        long start = System.nanoTime();
+        workers.forEach(Thread::start);
+        for (Thread worker : workers)
+            worker.join();
+        return System.nanoTime() - start;
+    }
+}
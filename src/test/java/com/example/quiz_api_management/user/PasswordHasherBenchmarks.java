@@ -0,0 +1,123 @@
+package com.example.quiz_api_management.user;
+
+import com.example.quiz_api_management.exception.ServiceUnavailableException;
+import com.example.quiz_api_management.quiz.QuizRepository;
+import com.example.quiz_api_management.quiz.QuizService;
+import com.example.quiz_api_management.util.PasswordUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Latency of quiz reads during a flood of sign-ins, printed and not asserted: mvn test -Pbenchmark
+The bounds of the hasher and its rejections are asserted by PasswordHasherTests.
+ */
+@SpringBootTest
+class PasswordHasherBenchmarks {
+    private static final int FLOOD_THREADS = 16;
+    private static final long PHASE_MILLIS = 2_000;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordHasher passwordHasher;
+    @Autowired
+    private QuizService quizService;
+    @Autowired
+    private QuizRepository quizRepository;
+
+    /*
+    p99 latency of a quiz read alone, during a flood of sign-ins checked on the hasher,
+    and during the same flood with BCrypt run inline on the request threads as before.
+     */
+    @Test
+    void readsKeepTheirLatencyDuringSignInFlood() throws InterruptedException {
+        userRepository.save(new User("benchmarkuser", "benchmarkuser@gmail.com", PasswordUtil.encode("secret1"),
+                "aaaaa", "bbbbb", LocalDate.of(1999, 1, 1)));
+        String encoded = userRepository.findByEmail("benchmarkuser@gmail.com").getPassword();
+        int quizId = quizRepository.findAll().get(0).getId();
+        readLatencies(quizId, 200);
+
+        long[] alone = readLatencies(quizId, PHASE_MILLIS);
+
+        LongAdder signIns = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        long[] duringFlood = duringFlood(quizId, () -> {
+            try {
+                userService.checkEmailAndPassWord("benchmarkuser@gmail.com", "secret1");
+                signIns.increment();
+            } catch (ServiceUnavailableException exception) {
+                rejected.increment();
+                // A client honours Retry-After, it does not spin on the server
+                sleep(50);
+            }
+        });
+
+        LongAdder inlineSignIns = new LongAdder();
+        long[] duringInlineFlood = duringFlood(quizId, () -> {
+            PasswordUtil.matches("secret1", encoded);
+            inlineSignIns.increment();
+        });
+
+        System.out.printf("Quiz read p99 alone %.2f ms, during %d-thread sign-in flood %.2f ms on the hasher " +
+                        "(%d sign-ins, %d rejected), %.2f ms inline (%d sign-ins). Hasher: %s%n",
+                p99(alone), FLOOD_THREADS, p99(duringFlood), signIns.sum(), rejected.sum(),
+                p99(duringInlineFlood), inlineSignIns.sum(), passwordHasher.stats());
+    }
+
+    private long[] duringFlood(int quizId, Runnable signIn) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> flood = new ArrayList<>();
+        for (int i = 0; i < FLOOD_THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                while (running.get())
+                    signIn.run();
+            });
+            thread.start();
+            flood.add(thread);
+        }
+        try {
+            return readLatencies(quizId, PHASE_MILLIS);
+        } finally {
+            running.set(false);
+            for (Thread thread : flood)
+                thread.join();
+        }
+    }
+
+    // Latencies in nanoseconds of the reads of a quiz repeated for the given time, one read every millisecond
+    private long[] readLatencies(int quizId, long millis) {
+        List<Long> latencies = new ArrayList<>();
+        long end = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() < end) {
+            long start = System.nanoTime();
+            quizService.getFullQuiz(quizId).orElseThrow();
+            latencies.add(System.nanoTime() - start);
+            sleep(1);
+        }
+        return latencies.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static double p99(long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1_000_000.0;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
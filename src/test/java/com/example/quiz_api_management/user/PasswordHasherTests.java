@@ -0,0 +1,126 @@
+package com.example.quiz_api_management.user;
+
+import com.example.quiz_api_management.exception.ServiceUnavailableException;
+import com.example.quiz_api_management.provider.CustomAuthenticationProvider;
+import com.example.quiz_api_management.util.PasswordUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class PasswordHasherTests {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordHasher passwordHasher;
+    @Autowired
+    private CustomAuthenticationProvider customAuthenticationProvider;
+
+    @Test
+    void signInChecksPasswordOnHasher() {
+        userRepository.save(new User("hasheruser", "hasheruser@gmail.com", PasswordUtil.encode("secret1"),
+                "aaaaa", "bbbbb", LocalDate.of(1999, 1, 1)));
+        long completed = passwordHasher.stats().getCompleted();
+
+        assertTrue(userService.checkEmailAndPassWord("hasheruser@gmail.com", "secret1").isPresent());
+        assertTrue(userService.checkEmailAndPassWord("hasheruser@gmail.com", "wrong").isEmpty());
+        assertTrue(userService.checkEmailAndPassWord("nobody@gmail.com", "secret1").isEmpty());
+        // An unknown email is answered without a hash
+        assertEquals(completed + 2, passwordHasher.stats().getCompleted());
+    }
+
+    // The authentication provider checks passwords on the hasher as well
+    @Test
+    void providerChecksPasswordOnHasher() {
+        userRepository.save(new User("provideruser", "provideruser@gmail.com", PasswordUtil.encode("secret1"),
+                "aaaaa", "bbbbb", LocalDate.of(1999, 1, 1)));
+        long completed = passwordHasher.stats().getCompleted();
+
+        assertTrue(customAuthenticationProvider.authenticate(
+                new UsernamePasswordAuthenticationToken("provideruser@gmail.com", "secret1")).isAuthenticated());
+        assertThrows(BadCredentialsException.class, () -> customAuthenticationProvider.authenticate(
+                new UsernamePasswordAuthenticationToken("provideruser@gmail.com", "wrong")));
+        assertEquals(completed + 2, passwordHasher.stats().getCompleted());
+    }
+
+    @Test
+    void saturatedHasherRejectsWithRetryAfter() throws InterruptedException {
+        PasswordHasher hasher = new PasswordHasher(1, 1);
+        String encoded = PasswordUtil.encode("secret1");
+        // One hash running and one queued, the next one has no room
+        List<Thread> waiting = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Thread thread = new Thread(() -> hasher.matches("secret1", encoded));
+            thread.start();
+            waiting.add(thread);
+            while (hasher.stats().getActiveThreads() + hasher.stats().getQueueDepth() <= i)
+                Thread.onSpinWait();
+        }
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> hasher.matches("secret1", encoded));
+        assertEquals(1, exception.getRetryAfterSeconds());
+        for (Thread thread : waiting)
+            thread.join();
+        PasswordHasherStats stats = hasher.stats();
+        assertEquals(2, stats.getCompleted());
+        assertEquals(1, stats.getRejected());
+        assertTrue(stats.getMaximumQueueWaitMillis() > 0);
+        hasher.shutdown();
+    }
+
+    /*
+    A flood of sign-ins never gets more hashes running than the hasher threads nor more waiting than its queue:
+    once both are full, a sign-in is rejected with 503 at once and the hashes already accepted are all answered.
+    The password of the flood costs 4 times a usual hash, so the hasher is still full when the sign-in arrives.
+     */
+    @Test
+    void signInFloodIsBoundedAndRejected() throws InterruptedException {
+        userRepository.save(new User("flooduser", "flooduser@gmail.com", PasswordUtil.encode("secret1"),
+                "aaaaa", "bbbbb", LocalDate.of(1999, 1, 1)));
+        String slowEncoded = new BCryptPasswordEncoder(12).encode("secret1");
+        PasswordHasherStats before = passwordHasher.stats();
+        int capacity = before.getThreads() + before.getQueueCapacity();
+
+        List<Thread> flood = new ArrayList<>();
+        LongAdder matched = new LongAdder();
+        for (int i = 0; i < capacity; i++) {
+            Thread thread = new Thread(() -> {
+                if (passwordHasher.matches("secret1", slowEncoded))
+                    matched.increment();
+            });
+            thread.start();
+            flood.add(thread);
+            while (passwordHasher.stats().getActiveThreads() + passwordHasher.stats().getQueueDepth() <= i)
+                Thread.onSpinWait();
+        }
+        PasswordHasherStats saturated = passwordHasher.stats();
+        assertEquals(before.getThreads(), saturated.getActiveThreads());
+        assertEquals(before.getQueueCapacity(), saturated.getQueueDepth());
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> userService.checkEmailAndPassWord("flooduser@gmail.com", "secret1"));
+        assertEquals(1, exception.getRetryAfterSeconds());
+
+        for (Thread thread : flood)
+            thread.join();
+        assertEquals(capacity, matched.sum());
+        PasswordHasherStats after = passwordHasher.stats();
+        assertEquals(before.getCompleted() + capacity, after.getCompleted());
+        assertEquals(before.getRejected() + 1, after.getRejected());
+        // Once drained, sign-ins are checked again
+        assertTrue(userService.checkEmailAndPassWord("flooduser@gmail.com", "secret1").isPresent());
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.quiz_api_management.user;
+
+import com.example.quiz_api_management.SqlStatementCounter;
+import com.example.quiz_api_management.cache.UserDetailsCache;
+import com.example.quiz_api_management.common.KeysetPage;
+import com.example.quiz_api_management.util.PasswordUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class UserServiceTests {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+    @Autowired
+    private UserController userController;
+    @Autowired
+    private DataSource dataSource;
+
+    // Each page costs one query for the users and one for their roles, the filters are kept by the cursor
+    @Test
+    void usersArePagedByCursorWithFiltersAndRoles() throws IOException {
+        String encoded = PasswordUtil.encode("secret1");
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User user = new User("pageduser" + i, "pageduser" + i + "@gmail.com", encoded, "aaaaa", "bbbbb", LocalDate.of(1999, 1, 1));
+            user.setDeleted(i < 4);
+            user.setRoles(new HashSet<>((i == 3) ? Set.of("student") : Set.of("teacher", "student")));
+            users.add(user);
+        }
+        userRepository.saveAll(users);
+
+        SqlStatementCounter.reset();
+        KeysetPage<UserListDTO> first = userService.scrollUsers(null, 2, true, "teacher");
+        assertEquals(2, SqlStatementCounter.count());
+        assertEquals(List.of("pageduser0", "pageduser1"), first.getContent().stream().map(user -> user.getUser().getUserName()).toList());
+        assertEquals(Set.of("teacher", "student"), new HashSet<>(first.getContent().get(0).getRoles()));
+        assertTrue(first.hasNext());
+
+        // Filters of the query are ignored once a cursor is given
+        KeysetPage<UserListDTO> second = userService.scrollUsers(first.getNextCursor(), 2, null, null);
+        assertEquals(List.of("pageduser2"), second.getContent().stream().map(user -> user.getUser().getUserName()).toList());
+        assertFalse(second.hasNext());
+        assertNull(second.getNextCursor());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        userService.writeUsersNdjson(output, true, null);
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4, lines.length);
+        JsonNode last = objectMapper.readTree(lines[3]);
+        assertEquals("pageduser3", last.get("userName").asText());
+        assertEquals("student", last.get("roles").get(0).asText());
+    }
+
+    // A cached user is authenticated without statement, each change of its roles, password or the user itself evicts it
+    @Test
+    void userDetailsAreCachedUntilRolesPasswordOrUserChange() {
+        String encoded = PasswordUtil.encode("secret1");
+        User user = new User("cacheduser", "cacheduser@gmail.com", encoded, "aaaaa", "bbbbb", LocalDate.of(1999, 1, 1));
+        user.setRoles(new HashSet<>(Set.of("student")));
+        User other = new User("otheruser", "otheruser@gmail.com", encoded, "aaaaa", "bbbbb", LocalDate.of(1999, 1, 1));
+        other.setRoles(new HashSet<>(Set.of("student")));
+        userRepository.saveAll(List.of(user, other));
+        String email = user.getEmail();
+
+        assertEquals(Set.of("ROLE_STUDENT"), authorities(userService.loadUserByUsername(email)));
+        SqlStatementCounter.reset();
+        userService.loadUserByUsername(email);
+        assertEquals(0, SqlStatementCounter.count());
+        // Users with the same roles share one immutable set of authorities
+        assertSame(userDetailsCache.roleSetOf(Set.of("student")),
+                userDetailsCache.getRoles(other.getId(), userRepository::findRolesById));
+
+        userService.addRole(user.getId(), "TEACHER");
+        assertEquals(Set.of("ROLE_STUDENT", "ROLE_TEACHER"), authorities(userService.loadUserByUsername(email)));
+        userService.removeRole(user.getId(), "student");
+        assertEquals(Set.of("ROLE_TEACHER"), authorities(userService.loadUserByUsername(email)));
+
+        String password = userService.loadUserByUsername(email).getPassword();
+        userService.changePassword(Optional.of(new UserDTOMapper().apply(user)), new UserPassword("secret2"));
+        assertNotEquals(password, userService.loadUserByUsername(email).getPassword());
+
+        userService.deleteUser(user.getId());
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername(email));
+        assertTrue(userDetailsCache.stats().get(0).getHitRatio() > 0);
+    }
+
+    // Attempts are recorded for the signed in user: the id carried by a JWT, otherwise the user of the login email
+    @Test
+    void userIdComesFromAuthentication() {
+        User user = userRepository.save(new User("signeduser", "signeduser@gmail.com", PasswordUtil.encode("secret1"),
+                "aaaaa", "bbbbb", LocalDate.of(1999, 1, 1)));
+
+        UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken("someone@gmail.com", null, List.of());
+        token.setDetails(user.getId());
+        assertEquals(Optional.of(user.getId()), userService.getUserId(token));
+        assertEquals(Optional.of(user.getId()), userService.getUserId(
+                new UsernamePasswordAuthenticationToken("signeduser@gmail.com", null, List.of())));
+        assertTrue(userService.getUserId(new UsernamePasswordAuthenticationToken("nobody@gmail.com", null, List.of())).isEmpty());
+        assertTrue(userService.getUserId(null).isEmpty());
+    }
+
+    // Only a coordinator exports the users, the check is on the controller whatever the security chain
+    @Test
+    void exportOfUsersIsForCoordinators() {
+        try {
+            signInWith("ROLE_STUDENT", "ROLE_TEACHER");
+            assertThrows(AccessDeniedException.class, () -> userController.exportUsers(null, null));
+            signInWith("ROLE_COORDINATOR");
+            assertEquals(HttpStatus.OK, userController.exportUsers(null, "teacher").getStatusCode());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // Roles written in another case before they were stored in lower case are lowered by db/user_roles.sql
+    @Test
+    void migrationLowersStoredRoles() {
+        User user = new User("mixedroles", "mixedroles@gmail.com", PasswordUtil.encode("secret1"),
+                "aaaaa", "bbbbb", LocalDate.of(1999, 1, 1));
+        user.setRoles(new HashSet<>(Set.of("Teacher", "TEACHER", "student", "STUDENT", "Coordinator")));
+        int userId = userRepository.save(user).getId();
+
+        new ResourceDatabasePopulator(new ClassPathResource("db/user_roles.sql")).execute(dataSource);
+        assertEquals(Set.of("teacher", "student", "coordinator"), new HashSet<>(userRepository.findRolesById(userId)));
+        KeysetPage<UserListDTO> coordinators = userService.scrollUsers(null, 100, null, "coordinator");
+        assertTrue(coordinators.getContent().stream().anyMatch(listed -> listed.getUser().getId() == userId));
+    }
+
+    private static void signInWith(String... authorities) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken("exporter@gmail.com", null,
+                Arrays.stream(authorities).map(SimpleGrantedAuthority::new).toList()));
+        SecurityContextHolder.setContext(context);
+    }
+
+    private static Set<String> authorities(UserDetails userDetails) {
+        Set<String> authorities = new HashSet<>();
+        for (GrantedAuthority authority : userDetails.getAuthorities())
+            authorities.add(authority.getAuthority());
+        return authorities;
+    }
+}